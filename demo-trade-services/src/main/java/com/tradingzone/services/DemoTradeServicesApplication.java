@@ -7,7 +7,8 @@ import org.springframework.data.jpa.repository.config.EnableJpaRepositories;
 
 @SpringBootApplication
 @EnableJpaRepositories( basePackages = {"com.tradingzone.services.trades.repositories",
-		"com.tradingzone.services.holdings.repositories"})
+		"com.tradingzone.services.holdings.repositories",
+		"com.tradingzone.services.load.repository"})
 @EnableBatchProcessing
 public class DemoTradeServicesApplication {
 
@@ -1,8 +1,11 @@
 package com.tradingzone.services.dummy.service;
 
-import com.google.gson.Gson;
+import com.tradingzone.services.redis.codec.TradeCodec;
 import com.tradingzone.services.redis.repositories.TradeJedisCache;
+import com.tradingzone.services.redis.service.TradeEventBus;
 import com.tradingzone.services.redis.service.TradeJedisService;
+import com.tradingzone.services.trades.analytics.PriceAnalytics;
+import com.tradingzone.services.trades.history.ColumnarHistoryStore;
 import com.tradingzone.services.watchlist.service.WatchListService;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
@@ -11,11 +14,7 @@ import org.springframework.stereotype.Service;
 import redis.clients.jedis.UnifiedJedis;
 import redis.clients.jedis.params.ZAddParams;
 
-import java.math.BigDecimal;
 import java.math.BigInteger;
-import java.math.MathContext;
-import java.math.RoundingMode;
-import java.text.DecimalFormat;
 import java.time.LocalDateTime;
 import java.time.ZoneId;
 import java.time.ZonedDateTime;
@@ -41,7 +40,13 @@ public class TradeDummyService {
     private UnifiedJedis unifiedJedis;
 
     @Autowired
-    private Gson gson;
+    private TradeEventBus tradeEventBus;
+
+    @Autowired
+    private TradeCodec tradeCodec;
+
+    @Autowired
+    private ColumnarHistoryStore columnarHistoryStore;
 
     // Use ConcurrentHashMap for thread safety
     private final Map<String, String> activeSymbols = new ConcurrentHashMap<>();
@@ -447,13 +452,13 @@ public class TradeDummyService {
             log.info("🔍 Debugging symbol: {}", symbol);
             
             // Get all trades for the symbol
-            List<String> allTrades = unifiedJedis.zrange(symbol, 0, -1);
+            List<byte[]> allTrades = unifiedJedis.zrange(tradeCodec.key(symbol), 0, -1);
             log.info("📊 Total trades in Redis for {}: {}", symbol, allTrades.size());
             
             if (!allTrades.isEmpty()) {
                 // Show first few trades
                 for (int i = 0; i < Math.min(3, allTrades.size()); i++) {
-                    TradeJedisCache trade = gson.fromJson(allTrades.get(i), TradeJedisCache.class);
+                    TradeJedisCache trade = tradeCodec.decode(allTrades.get(i));
                     log.info("📈 Trade {}: Date={}, Price={}, Score={}", 
                         i+1, trade.getTradDt(), trade.getLastPric(), 
                         ZonedDateTime.of(trade.getTradDt(), ZoneId.systemDefault()).toInstant().toEpochMilli());
@@ -461,9 +466,9 @@ public class TradeDummyService {
             }
             
             // Get the latest trade
-            List<String> latestTrades = unifiedJedis.zrange(symbol, -1, -1);
+            List<byte[]> latestTrades = unifiedJedis.zrange(tradeCodec.key(symbol), -1, -1);
             if (!latestTrades.isEmpty()) {
-                TradeJedisCache latestTrade = gson.fromJson(latestTrades.get(0), TradeJedisCache.class);
+                TradeJedisCache latestTrade = tradeCodec.decode(latestTrades.get(0));
                 log.info("🎯 Latest trade: Date={}, Price={}, Score={}", 
                     latestTrade.getTradDt(), latestTrade.getLastPric(), 
                     ZonedDateTime.of(latestTrade.getTradDt(), ZoneId.systemDefault()).toInstant().toEpochMilli());
@@ -474,12 +479,12 @@ public class TradeDummyService {
             // Check for specific date range (2024-07-29)
             double min = parseDate("2024-07-29 00:00:00", 0);
             double max = parseDate("2024-07-29 00:00:00", 86400); // 24 hours
-            List<String> dateRangeTrades = unifiedJedis.zrangeByScore(symbol, min, max, 0, 5);
+            List<byte[]> dateRangeTrades = unifiedJedis.zrangeByScore(tradeCodec.key(symbol), min, max, 0, 5);
             log.info("🎯 Trades in date range (2024-07-29): {}", dateRangeTrades.size());
             
             if (!dateRangeTrades.isEmpty()) {
                 for (int i = 0; i < Math.min(3, dateRangeTrades.size()); i++) {
-                    TradeJedisCache trade = gson.fromJson(dateRangeTrades.get(i), TradeJedisCache.class);
+                    TradeJedisCache trade = tradeCodec.decode(dateRangeTrades.get(i));
                     log.info("🎯 Date range trade {}: Date={}, Price={}, Score={}", 
                         i+1, trade.getTradDt(), trade.getLastPric(), 
                         ZonedDateTime.of(trade.getTradDt(), ZoneId.systemDefault()).toInstant().toEpochMilli());
@@ -498,6 +503,7 @@ public class TradeDummyService {
             double toDeleteScore = parseDate(dateString, 30);
             double deletedScore = unifiedJedis.zremrangeByScore(symbol, toDeleteScore, toDeleteScore);
             if (deletedScore != 0.0) {
+                tradeEventBus.publishPrice(symbol);
                 log.info("DeleteTradeTask {} {} Score to delete {} returned score {}", 
                     symbol, dateString, toDeleteScore, deletedScore);
             }
@@ -518,7 +524,7 @@ public class TradeDummyService {
     private int clearAllDummyTradesForSymbol(String symbol) throws Exception {
         try {
             // Get all trades for the symbol
-            List<String> allTrades = unifiedJedis.zrange(symbol, 0, -1);
+            List<byte[]> allTrades = unifiedJedis.zrange(tradeCodec.key(symbol), 0, -1);
             if (allTrades.isEmpty()) {
                 return 0;
             }
@@ -527,9 +533,9 @@ public class TradeDummyService {
             Set<Double> scoresToDelete = new HashSet<>();
             
             // Analyze each trade to find "+30 second" trades
-            for (String tradeJson : allTrades) {
+            for (byte[] tradeMember : allTrades) {
                 try {
-                    TradeJedisCache trade = gson.fromJson(tradeJson, TradeJedisCache.class);
+                    TradeJedisCache trade = tradeCodec.decode(tradeMember);
                     if (trade != null && trade.getTradDt() != null) {
                         // Calculate the base score (00:00:00) and +30 second score
                         LocalDateTime baseTime = trade.getTradDt().withSecond(0).withNano(0);
@@ -547,7 +553,7 @@ public class TradeDummyService {
                         }
                     }
                 } catch (Exception e) {
-                    log.debug("Error parsing trade JSON for symbol {}: {}", symbol, e.getMessage());
+                    log.debug("Error decoding trade for symbol {}: {}", symbol, e.getMessage());
                 }
             }
             
@@ -558,6 +564,9 @@ public class TradeDummyService {
                     deletedCount += (int) deleted;
                 }
             }
+            if (deletedCount > 0) {
+                tradeEventBus.publishPrice(symbol);
+            }
             
             return deletedCount;
             
@@ -568,21 +577,8 @@ public class TradeDummyService {
     }
 
     private void setPriceChange(TradeJedisCache tradeCache) {
-        DecimalFormat df = new DecimalFormat("#,###.##");
-        MathContext mc = new MathContext(2);
-
-        if (tradeCache.getLastPric() != null && tradeCache.getPrvsClsgPric() != null) {
-            BigDecimal lp = new BigDecimal(tradeCache.getLastPric());
-            BigDecimal cp = new BigDecimal(tradeCache.getPrvsClsgPric());
-            BigDecimal chngeDbl = lp.subtract(cp, mc);
-            chngeDbl.setScale(2, RoundingMode.UP);
-            tradeCache.setChngePric(chngeDbl);
-            MathContext pctmc = new MathContext(1);
-            BigDecimal changePct = (chngeDbl.divide(lp, pctmc)).multiply(new BigDecimal("100"), pctmc);
-            changePct.setScale(2, RoundingMode.UP);
-            tradeCache.setChngePricPct(changePct);
-        } else {
-            log.warn("LastPric or PrvsClsgPric is null: {}", tradeCache.toString());
+        if (!PriceAnalytics.applyTick(tradeCache)) {
+            log.warn("LastPric or PrvsClsgPric is null: {}", tradeCache.getTckrSymb());
         }
     }
 
@@ -618,8 +614,7 @@ public class TradeDummyService {
         }
         
         // Round to 2 decimal places
-        BigDecimal bd = new BigDecimal(newPrice).setScale(2, RoundingMode.HALF_UP);
-        return bd.doubleValue();
+        return PriceAnalytics.round(newPrice);
     }
 
     private long parseDate(String dateString, long addSeconds) {
@@ -711,11 +706,11 @@ public class TradeDummyService {
 
                 log.debug("Looking for trades for symbol: {} between min: {} and max: {} for date: {}", 
                     symbol, min, max, dateString);
-                List<String> trdList = unifiedJedis.zrangeByScore(symbol, min, max, 0, 1);
+                List<byte[]> trdList = unifiedJedis.zrangeByScore(tradeCodec.key(symbol), min, max, 0, 1);
 
                 if (trdList != null && !trdList.isEmpty()) {
                     // Found existing trade for the requested date, create a copy with +30 seconds
-                    TradeJedisCache foundTrade = gson.fromJson(trdList.getFirst(), TradeJedisCache.class);
+                    TradeJedisCache foundTrade = tradeCodec.decode(trdList.getFirst());
                     log.debug("Found existing trade for symbol: {} with date: {} and price: {}", 
                         symbol, foundTrade.getTradDt(), foundTrade.getLastPric());
 
@@ -727,7 +722,9 @@ public class TradeDummyService {
                         double updatedScore = ZonedDateTime.of(foundTrade.getTradDt().plusSeconds(30), ZoneId.systemDefault()).toInstant().toEpochMilli();
 
                         // Add the new trade to Redis
-                        long result = unifiedJedis.zadd(symbol, updatedScore, gson.toJson(newTrade), new ZAddParams().lt());
+                        long result = unifiedJedis.zadd(tradeCodec.key(symbol), updatedScore, tradeCodec.encode(newTrade), new ZAddParams().lt());
+                        tradeEventBus.publishPrice(symbol);
+                        columnarHistoryStore.upsert(newTrade);
                         
                         double priceChange = newTrade.getLastPric() - foundTrade.getLastPric();
                         double priceChangePercent = (priceChange / foundTrade.getLastPric()) * 100;
@@ -742,16 +739,17 @@ public class TradeDummyService {
                         symbol, dateString, min, max);
                     
                     // Try to find any trade for this symbol and create a base trade for the requested date
-                    List<String> anyTrade = unifiedJedis.zrange(symbol, 0, 0);
+                    List<byte[]> anyTrade = unifiedJedis.zrange(tradeCodec.key(symbol), 0, 0);
                     if (anyTrade != null && !anyTrade.isEmpty()) {
-                        TradeJedisCache templateTrade = gson.fromJson(anyTrade.getFirst(), TradeJedisCache.class);
+                        TradeJedisCache templateTrade = tradeCodec.decode(anyTrade.getFirst());
                         log.info("🆕 Creating base trade for symbol: {} date: {} using template from: {}", 
                             symbol, dateString, templateTrade.getTradDt());
                         
                         TradeJedisCache baseTrade = createBaseTradeForDate(symbol, dateString, templateTrade);
                         if (baseTrade != null) {
                             double baseScore = parseDate(dateString, 0);
-                            long result = unifiedJedis.zadd(symbol, baseScore, gson.toJson(baseTrade), new ZAddParams().lt());
+                            long result = unifiedJedis.zadd(tradeCodec.key(symbol), baseScore, tradeCodec.encode(baseTrade), new ZAddParams().lt());
+                            tradeEventBus.publishPrice(symbol);
                             log.info("✅ Created base trade for symbol: {} | Price: {} | Score: {} | Redis result: {}", 
                                 symbol, baseTrade.getLastPric(), baseScore, result);
                         }
@@ -931,6 +929,7 @@ public class TradeDummyService {
                 double toDeleteScore = parseDate(dateString, 30);
                 double deletedScore = unifiedJedis.zremrangeByScore(symbol, toDeleteScore, toDeleteScore);
                 if (deletedScore != 0.0) {
+                    tradeEventBus.publishPrice(symbol);
                     log.info("🗑️ DeleteTradeTask {} {} Score to delete {} returned score {}", 
                         symbol, dateString, toDeleteScore, deletedScore);
                 } else {
@@ -3,11 +3,16 @@ package com.tradingzone.services.holdings.controller;
 import com.tradingzone.services.auth.UserAuthService;
 import com.tradingzone.services.holdings.repositories.HoldingEntity;
 import com.tradingzone.services.holdings.service.HoldingsService;
+import com.tradingzone.services.holdings.service.HoldingsStreamService;
 import com.tradingzone.services.holdings.data.Holdings;
 import com.tradingzone.services.holdings.data.TradeDetail;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
 import jakarta.servlet.http.HttpServletRequest;
 import java.util.List;
@@ -24,6 +29,9 @@ public class HoldingsController {
     @Autowired
     private UserAuthService userAuthService;
 
+    @Autowired
+    private HoldingsStreamService holdingsStreamService;
+
     // Commented out - Not used by UI, unprotected API
     /*
     @GetMapping("all")
@@ -81,6 +89,24 @@ public class HoldingsController {
         return holdings;
     }
 
+    /**
+     * Server-sent events: a full "holdings" event on connect and after each of the user's
+     * trades, then a "delta" event with the totals and the changed positions whenever a
+     * held symbol's price moves
+     */
+    @GetMapping(path = "/my/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public ResponseEntity<SseEmitter> streamMyHoldings(HttpServletRequest request) {
+        String authToken = extractAuthToken(request);
+        Integer tradingUserId = userAuthService.getTradingUserId(authToken);
+
+        if (tradingUserId == null) {
+            log.warn("Could not determine trading user ID from auth token");
+            return ResponseEntity.status(HttpStatus.UNAUTHORIZED).build();
+        }
+
+        return ResponseEntity.ok(holdingsStreamService.subscribe(tradingUserId));
+    }
+
     @PutMapping("/my/buy/{symbol}")
     public boolean buyTradeToMyHolding(HttpServletRequest request, 
                                        @PathVariable String symbol, 
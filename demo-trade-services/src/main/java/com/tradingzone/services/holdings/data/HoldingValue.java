@@ -29,6 +29,8 @@ public class HoldingValue {
     private BigDecimal netChngPct ;
     private BigDecimal dayChng ;
     private BigDecimal dayChngPct ;
+    // Booked by sells, at average cost
+    private BigDecimal realizedPnl ;
 
     private List<HoldingEntity> transactionlist;
 }
@@ -2,6 +2,7 @@ package com.tradingzone.services.holdings.repositories;
 
 
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
 
 import java.util.List;
@@ -12,4 +13,9 @@ public interface HoldingJpaRepository extends JpaRepository<HoldingEntity, Integ
     List<HoldingEntity> findAll();
     List<HoldingEntity> findByUsrId(Integer userId);
     List<HoldingEntity> findByUsrIdAndTckrSymbOrderByTradDtDesc(Integer userId, String tckrSymb);
+    List<HoldingEntity> findByUsrIdOrderByTradDtAscIdAsc(Integer userId);
+    boolean existsByUsrId(Integer userId);
+
+    @Query("select distinct h.usrId from HoldingEntity h")
+    List<Integer> findDistinctUsrIds();
 }
@@ -0,0 +1,51 @@
+package com.tradingzone.services.holdings.repositories;
+
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.IdClass;
+import jakarta.persistence.Table;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.EqualsAndHashCode;
+import lombok.NoArgsConstructor;
+
+import java.io.Serializable;
+import java.math.BigDecimal;
+import java.sql.Timestamp;
+
+/**
+ * Running position of a user in a symbol, folded from the HOLDINGS ledger, see
+ * POSITIONS in schema.sql. Rows are kept once the quantity is back to 0 so the realized
+ * P&L is not lost.
+ */
+@Entity
+@Table(name = "POSITIONS")
+@IdClass(PositionEntityKey.class)
+@Data
+@NoArgsConstructor
+public class PositionEntity {
+
+    private @Id Integer usrId ;
+    private @Id String tckrSymb ;
+    private Integer qty ;
+    // Cost of the quantity still held
+    private BigDecimal sumCost ;
+    private BigDecimal realizedPnl ;
+    private Timestamp updatedAt ;
+
+    public PositionEntity(Integer usrId, String tckrSymb) {
+        this.usrId = usrId;
+        this.tckrSymb = tckrSymb;
+        this.qty = 0;
+        this.sumCost = BigDecimal.ZERO;
+        this.realizedPnl = BigDecimal.ZERO;
+    }
+}
+@EqualsAndHashCode
+@NoArgsConstructor
+@AllArgsConstructor
+class PositionEntityKey implements Serializable {
+    private Integer usrId ;
+    private String tckrSymb;
+
+}
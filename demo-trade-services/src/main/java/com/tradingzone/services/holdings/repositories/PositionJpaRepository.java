@@ -0,0 +1,38 @@
+package com.tradingzone.services.holdings.repositories;
+
+import jakarta.persistence.LockModeType;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+public interface PositionJpaRepository extends JpaRepository<PositionEntity, PositionEntityKey> {
+
+    List<PositionEntity> findByUsrIdAndQtyGreaterThan(Integer userId, Integer qty);
+
+    long countByUsrId(Integer userId);
+
+    // Row lock held until the surrounding transaction ends, so concurrent trades of a symbol apply one after the other
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    Optional<PositionEntity> findByUsrIdAndTckrSymb(Integer userId, String tckrSymb);
+
+    @Modifying
+    @Query(value = "INSERT IGNORE INTO POSITIONS (UsrId, TckrSymb, Qty, SumCost, RealizedPnl, UpdatedAt) "
+            + "VALUES (?1, ?2, 0, 0, 0, CURRENT_TIMESTAMP)", nativeQuery = true)
+    void insertIfAbsent(Integer userId, String tckrSymb);
+
+    @Modifying
+    void deleteByUsrId(Integer userId);
+
+    // Creates or updates the user's POSITION_USERS row, which stays locked until the transaction ends.
+    // Returns 1 when the row was created, 2 when it already existed
+    @Modifying
+    @Query(value = "INSERT INTO POSITION_USERS (UsrId, Writes) VALUES (?1, 1) "
+            + "ON DUPLICATE KEY UPDATE Writes = Writes + 1", nativeQuery = true)
+    int lockUser(Integer userId);
+}
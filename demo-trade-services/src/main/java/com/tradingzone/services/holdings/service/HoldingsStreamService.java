@@ -0,0 +1,351 @@
+package com.tradingzone.services.holdings.service;
+
+import com.tradingzone.services.holdings.data.HoldingValue;
+import com.tradingzone.services.holdings.data.Holdings;
+import com.tradingzone.services.holdings.repositories.PositionEntity;
+import com.tradingzone.services.redis.repositories.TradeJedisCache;
+import com.tradingzone.services.redis.service.TradeEventBus;
+import com.tradingzone.services.redis.service.TradeJedisService;
+import com.tradingzone.services.trades.stream.ConflatingSseSender;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.MediaType;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskScheduler;
+import org.springframework.stereotype.Service;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * Pushes live holdings to connected users over server-sent events.
+ *
+ * A user's open positions and their prices are kept in memory while the user has a
+ * stream open. Price events for a held symbol only mark it; every
+ * {@code trades.holdings.stream.interval-ms} the marked symbols are read in one
+ * pipelined call and each affected user gets a {@code delta} event: the portfolio
+ * totals with only the changed {@link HoldingValue}s. A new stream, and a user's own
+ * trade (on {@link TradeEventBus#POSITION_CHANNEL}), get a full {@code holdings} event.
+ *
+ * Positions, prices and the symbol index are only changed on the stream thread; the
+ * events go out through a {@link ConflatingSseSender}, so each stream holds at most one
+ * pending event, a full one or the symbols changed since its last send. A stream whose
+ * event has waited {@code trades.holdings.stream.max-lag-ms}, or whose send has been
+ * stuck for {@code trades.holdings.stream.stall-timeout-ms}, is closed.
+ */
+@Slf4j
+@Service
+public class HoldingsStreamService {
+
+    @Autowired
+    private PositionService positionService;
+
+    @Autowired
+    private TradeJedisService tradeJedisService;
+
+    @Autowired
+    private TradeEventBus tradeEventBus;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Value("${trades.holdings.stream.interval-ms:500}")
+    private long intervalMillis;
+
+    @Value("${trades.holdings.stream.timeout-ms:1800000}")
+    private long timeoutMillis;
+
+    @Value("${trades.holdings.stream.sender-threads:2}")
+    private int senderThreads;
+
+    @Value("${trades.holdings.stream.sender-queue:256}")
+    private int senderQueue;
+
+    @Value("${trades.holdings.stream.max-lag-ms:10000}")
+    private long maxLagMillis;
+
+    @Value("${trades.holdings.stream.stall-timeout-ms:10000}")
+    private long stallTimeoutMillis;
+
+    private final Map<Integer, Subscriber> subscribers = new ConcurrentHashMap<>();
+    // Held symbol to the users holding it
+    private final Map<String, Set<Integer>> holders = new ConcurrentHashMap<>();
+    private final Set<String> dirtySymbols = ConcurrentHashMap.newKeySet();
+    private final Set<Integer> dirtyUsers = ConcurrentHashMap.newKeySet();
+
+    private ThreadPoolTaskScheduler scheduler;
+    private ConflatingSseSender<Update, Update> sender;
+    private Counter eventCounter;
+    private Counter slowConsumerCounter;
+
+    @PostConstruct
+    public void init() {
+        eventCounter = Counter.builder("trades.holdings.stream.events")
+                .description("Holdings events sent to connected streams")
+                .register(meterRegistry);
+        slowConsumerCounter = Counter.builder("trades.holdings.stream.slow-consumers")
+                .description("Holdings streams closed for falling behind")
+                .register(meterRegistry);
+        Gauge.builder("trades.holdings.stream.subscribers", subscribers, Map::size)
+                .description("Users with a holdings stream open")
+                .register(meterRegistry);
+
+        sender = new ConflatingSseSender<>("holdings", senderThreads, senderQueue, stallTimeoutMillis, maxLagMillis,
+                Update::merge, slowConsumerCounter);
+
+        scheduler = new ThreadPoolTaskScheduler();
+        scheduler.setPoolSize(1);
+        scheduler.setThreadNamePrefix("holdings-stream-");
+        scheduler.initialize();
+        scheduler.scheduleWithFixedDelay(this::tick, Duration.ofMillis(intervalMillis));
+
+        tradeEventBus.subscribe(TradeEventBus.PRICE_CHANNEL, symbol -> {
+            if (holders.containsKey(symbol)) {
+                dirtySymbols.add(symbol);
+            }
+        });
+        tradeEventBus.subscribe(TradeEventBus.POSITION_CHANNEL, message -> {
+            Integer userId = Integer.valueOf(message);
+            if (subscribers.containsKey(userId)) {
+                dirtyUsers.add(userId);
+            }
+        });
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        scheduler.shutdown();
+        sender.shutdown();
+    }
+
+    public SseEmitter subscribe(Integer userId) {
+        Stream stream = open(userId, new SseEmitter(timeoutMillis));
+        scheduler.execute(() -> {
+            try {
+                if (!stream.subscriber.loaded) {
+                    load(stream.subscriber);
+                }
+                sender.offer(stream.sse, Update.FULL);
+            } catch (Exception e) {
+                log.error("Could not open holdings stream for userId {}", userId, e);
+                close(stream);
+                stream.sse.emitter().completeWithError(e);
+            }
+        });
+        log.info("Holdings stream opened for userId {}", userId);
+        return stream.sse.emitter();
+    }
+
+    Stream open(Integer userId, SseEmitter emitter) {
+        Stream[] opened = new Stream[1];
+        subscribers.compute(userId, (id, current) -> {
+            Subscriber subscriber = current == null ? new Subscriber(id) : current;
+            Stream stream = new Stream(subscriber);
+            stream.sse = sender.open("userId " + id, emitter, update -> event(subscriber, update),
+                    update -> eventCounter.increment(), () -> subscriber.streams.remove(stream));
+            subscriber.streams.add(stream);
+            opened[0] = stream;
+            return subscriber;
+        });
+        return opened[0];
+    }
+
+    void close(Stream stream) {
+        sender.close(stream.sse);
+    }
+
+    private void tick() {
+        try {
+            sender.check();
+            prune();
+
+            for (Integer userId : drain(dirtyUsers)) {
+                Subscriber subscriber = subscribers.get(userId);
+                if (subscriber != null) {
+                    load(subscriber);
+                    subscriber.streams.forEach(stream -> sender.offer(stream.sse, Update.FULL));
+                }
+            }
+
+            Set<String> symbols = drain(dirtySymbols);
+            if (symbols.isEmpty()) {
+                return;
+            }
+            Map<String, TradeJedisCache> prices = tradeJedisService.fetchLatestPrices(symbols);
+
+            Map<Subscriber, Map<String, TradeJedisCache>> changed = new HashMap<>();
+            for (Map.Entry<String, TradeJedisCache> price : prices.entrySet()) {
+                for (Integer userId : holders(price.getKey())) {
+                    Subscriber subscriber = subscribers.get(userId);
+                    if (subscriber != null) {
+                        changed.computeIfAbsent(subscriber, s -> new HashMap<>()).put(price.getKey(), price.getValue());
+                    }
+                }
+            }
+
+            for (Map.Entry<Subscriber, Map<String, TradeJedisCache>> entry : changed.entrySet()) {
+                Subscriber subscriber = entry.getKey();
+                // Replaced, not changed, as senders may be valuing the current one
+                Map<String, TradeJedisCache> subscriberPrices = new HashMap<>(subscriber.portfolio.prices());
+                subscriberPrices.putAll(entry.getValue());
+                subscriber.portfolio = new Portfolio(subscriber.portfolio.positions(), subscriberPrices);
+                Update update = new Update(false, entry.getValue().keySet());
+                subscriber.streams.forEach(stream -> sender.offer(stream.sse, update));
+            }
+        } catch (Exception e) {
+            // Keep the schedule alive, the next tick starts over
+            log.error("Holdings stream tick failed", e);
+        }
+    }
+
+    private void load(Subscriber subscriber) {
+        List<PositionEntity> positions = positionService.openPositions(subscriber.userId);
+        List<String> symbols = new ArrayList<>(positions.size());
+        for (PositionEntity position : positions) {
+            symbols.add(position.getTckrSymb());
+        }
+
+        index(subscriber, positions);
+        subscriber.portfolio = new Portfolio(positions, new HashMap<>(tradeJedisService.fetchLatestPrices(symbols)));
+        subscriber.loaded = true;
+    }
+
+    // Points the symbol index at the subscriber's new positions
+    void index(Subscriber subscriber, List<PositionEntity> positions) {
+        unindex(subscriber);
+        subscriber.indexed = positions;
+        for (PositionEntity position : positions) {
+            holders.computeIfAbsent(position.getTckrSymb(), s -> ConcurrentHashMap.newKeySet()).add(subscriber.userId);
+        }
+    }
+
+    private void unindex(Subscriber subscriber) {
+        for (PositionEntity position : subscriber.indexed) {
+            holders.computeIfPresent(position.getTckrSymb(), (symbol, users) -> {
+                users.remove(subscriber.userId);
+                return users.isEmpty() ? null : users;
+            });
+        }
+        subscriber.indexed = List.of();
+    }
+
+    Set<Integer> holders(String symbol) {
+        return holders.getOrDefault(symbol, Set.of());
+    }
+
+    /**
+     * Drops the users left without a stream and returns them.
+     */
+    Set<Integer> prune() {
+        Set<Integer> pruned = new HashSet<>();
+        for (Integer userId : subscribers.keySet()) {
+            // Checked and removed atomically, so a stream opening at the same time is not lost
+            Subscriber[] closed = new Subscriber[1];
+            subscribers.computeIfPresent(userId, (id, s) -> {
+                if (s.streams.isEmpty()) {
+                    closed[0] = s;
+                    return null;
+                }
+                return s;
+            });
+            if (closed[0] != null) {
+                dirtyUsers.remove(userId);
+                unindex(closed[0]);
+                pruned.add(userId);
+                log.info("Holdings stream closed for userId {}", userId);
+            }
+        }
+        return pruned;
+    }
+
+    private SseEmitter.SseEventBuilder event(Subscriber subscriber, Update update) {
+        Portfolio portfolio = subscriber.portfolio;
+        Holdings holdings = update.full() ? PortfolioValuator.value(portfolio.positions(), portfolio.prices())
+                : delta(portfolio.positions(), portfolio.prices(), update.changed());
+        return SseEmitter.event().name(update.full() ? "holdings" : "delta").data(holdings, MediaType.APPLICATION_JSON);
+    }
+
+    /**
+     * The portfolio totals with only the values of the changed symbols.
+     */
+    static Holdings delta(List<PositionEntity> positions, Map<String, TradeJedisCache> prices, Set<String> changed) {
+        Holdings delta = PortfolioValuator.value(positions, prices);
+        delta.getTransactionlist().removeIf(value -> !changed.contains(value.getTckrSymb()));
+        return delta;
+    }
+
+    private static <T> Set<T> drain(Set<T> set) {
+        Set<T> drained = new HashSet<>();
+        for (T value : set) {
+            if (set.remove(value)) {
+                drained.add(value);
+            }
+        }
+        return drained;
+    }
+
+    private record Portfolio(List<PositionEntity> positions, Map<String, TradeJedisCache> prices) {
+    }
+
+    static final class Subscriber {
+
+        private final Integer userId;
+        private final List<Stream> streams = new CopyOnWriteArrayList<>();
+        // Only replaced as a whole, so senders value a consistent one
+        private volatile Portfolio portfolio = new Portfolio(List.of(), Map.of());
+        // The positions the symbol index holds for the user
+        private List<PositionEntity> indexed = List.of();
+        private boolean loaded;
+
+        private Subscriber(Integer userId) {
+            this.userId = userId;
+        }
+    }
+
+    /**
+     * A pending event: a full one, or the symbols changed since the last send.
+     */
+    record Update(boolean full, Set<String> changed) {
+
+        static final Update FULL = new Update(true, Set.of());
+
+        // Called under the stream's lock, so the pending set can grow in place
+        static Update merge(Update pending, Update offered) {
+            if (offered.full() || pending != null && pending.full()) {
+                return FULL;
+            }
+            if (pending == null) {
+                return new Update(false, new HashSet<>(offered.changed()));
+            }
+            pending.changed().addAll(offered.changed());
+            return pending;
+        }
+    }
+
+    static final class Stream {
+
+        private final Subscriber subscriber;
+        private ConflatingSseSender.Stream<Update> sse;
+
+        private Stream(Subscriber subscriber) {
+            this.subscriber = subscriber;
+        }
+
+        Subscriber subscriber() {
+            return subscriber;
+        }
+    }
+}
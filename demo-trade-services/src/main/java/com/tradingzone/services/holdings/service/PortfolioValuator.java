@@ -0,0 +1,102 @@
+package com.tradingzone.services.holdings.service;
+
+import com.tradingzone.services.holdings.data.HoldingValue;
+import com.tradingzone.services.holdings.data.Holdings;
+import com.tradingzone.services.holdings.repositories.PositionEntity;
+import com.tradingzone.services.redis.repositories.TradeJedisCache;
+import lombok.extern.slf4j.Slf4j;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static com.tradingzone.services.trades.analytics.PriceAnalytics.changeHundredths;
+import static com.tradingzone.services.trades.analytics.PriceAnalytics.decimal;
+import static com.tradingzone.services.trades.analytics.PriceAnalytics.percentOf;
+import static com.tradingzone.services.trades.analytics.PriceAnalytics.toHundredths;
+
+/**
+ * Values open positions at their latest prices.
+ *
+ * Money is worked out in paise and percentages in hundredths of a percent, both as
+ * longs; {@link BigDecimal}s are only made for the fields of the returned
+ * {@link HoldingValue}s and {@link Holdings}. Cost and average cost round up to the
+ * paisa as before, percentages round half-up. A position's net change percent is taken
+ * against its current value and the totals' percentages against the total investment.
+ */
+@Slf4j
+public final class PortfolioValuator {
+
+    private PortfolioValuator() {
+    }
+
+    /**
+     * Positions without a price are left out.
+     */
+    public static Holdings value(List<PositionEntity> positions, Map<String, TradeJedisCache> prices) {
+        List<HoldingValue> holdingValueLst = new ArrayList<HoldingValue>(positions.size());
+
+        long totCost = 0;
+        long totCurrValue = 0;
+        long totDayChng = 0;
+        for (PositionEntity position : positions) {
+            TradeJedisCache trade = prices.get(position.getTckrSymb());
+            if (trade == null || trade.getLastPric() == null) {
+                log.warn("No latest price found for symbol: {}", position.getTckrSymb());
+                continue;
+            }
+            int qty = position.getQty();
+            long cost = costHundredths(position.getSumCost());
+            long currValue = qty * toHundredths(trade.getLastPric());
+            long netChng = currValue - cost;
+            long dayChng = trade.getPrvsClsgPric() == null ? 0
+                    : qty * changeHundredths(trade.getLastPric(), trade.getPrvsClsgPric());
+
+            HoldingValue holdingValue = new HoldingValue();
+            holdingValue.setId(position.getTckrSymb());
+            holdingValue.setTckrSymb(position.getTckrSymb());
+            holdingValue.setAvgQty(qty);
+            holdingValue.setAvgCost(decimal(Math.ceilDiv(cost, qty)));
+            holdingValue.setTotCost(decimal(cost));
+            holdingValue.setLastPric(trade.getLastPric());
+            holdingValue.setCurrValue(decimal(currValue));
+            BigDecimal netChngDecimal = decimal(netChng);
+            holdingValue.setPnl(netChngDecimal);
+            holdingValue.setNetChng(netChngDecimal);
+            holdingValue.setNetChngPct(decimal(percentOf(netChng, currValue)));
+            holdingValue.setPrvsClsgPric(trade.getPrvsClsgPric());
+            holdingValue.setChngePric(trade.getChngePric());
+            holdingValue.setDayChng(decimal(dayChng));
+            holdingValue.setDayChngPct(trade.getChngePricPct());
+            holdingValue.setRealizedPnl(position.getRealizedPnl().setScale(2, RoundingMode.HALF_UP));
+            holdingValueLst.add(holdingValue);
+
+            totCost += cost;
+            totCurrValue += currValue;
+            totDayChng += dayChng;
+        }
+
+        long totNetChng = totCurrValue - totCost;
+
+        Holdings holdings = new Holdings();
+        holdings.setTransactionlist(holdingValueLst);
+        holdings.setTotInvestment(decimal(totCost));
+        holdings.setTotCurrValue(decimal(totCurrValue));
+        BigDecimal totNetChngDecimal = decimal(totNetChng);
+        holdings.setTotPnl(totNetChngDecimal);
+        holdings.setTotNetChng(totNetChngDecimal);
+        holdings.setTotDayChng(decimal(totDayChng));
+        BigDecimal totNetChngPct = decimal(percentOf(totNetChng, totCost));
+        holdings.setTotPnlPct(totNetChngPct);
+        holdings.setTotNetChngPct(totNetChngPct);
+        holdings.setTotDayChngPct(decimal(percentOf(totDayChng, totCost)));
+        return holdings;
+    }
+
+    // Cost of the quantity held, rounded up to the paisa
+    static long costHundredths(BigDecimal sumCost) {
+        return sumCost.movePointRight(2).setScale(0, RoundingMode.UP).longValueExact();
+    }
+}
@@ -0,0 +1,165 @@
+package com.tradingzone.services.holdings.service;
+
+import com.tradingzone.services.holdings.repositories.HoldingEntity;
+import com.tradingzone.services.holdings.repositories.HoldingJpaRepository;
+import com.tradingzone.services.holdings.repositories.PositionEntity;
+import com.tradingzone.services.holdings.repositories.PositionJpaRepository;
+import lombok.extern.slf4j.Slf4j;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Isolation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Keeps POSITIONS in step with the HOLDINGS ledger.
+ *
+ * Each trade is written to the ledger and applied to its position in one transaction,
+ * so holdings are read from one row per open position instead of being refolded from
+ * every trade the user has made. Positions use average cost: a sell takes its share of
+ * the cost out of {@code sumCost} and books the difference to the sale price as
+ * realized P&L. Sells beyond the quantity held carry no cost. {@link #rebuild} recomputes
+ * a user's positions from the ledger, and runs on its own the first time a user without
+ * positions trades or views holdings.
+ *
+ * A user's trades and rebuilds first take the user's POSITION_USERS row and hold it until
+ * they commit, so they apply one at a time. Only the transaction that creates the row
+ * builds the positions from the ledger.
+ */
+@Slf4j
+@Service
+public class PositionService {
+
+    private static final int COST_SCALE = 4;
+
+    @Autowired
+    private HoldingJpaRepository holdingJpaRepository;
+
+    @Autowired
+    private PositionJpaRepository positionJpaRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private TransactionTemplate transactionTemplate;
+
+    @PostConstruct
+    public void init() {
+        transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    @Transactional
+    public void record(HoldingEntity trade) {
+        // Users who traded before POSITIONS existed get theirs from the ledger once
+        if (lockUser(trade.getUsrId()) && holdingJpaRepository.existsByUsrId(trade.getUsrId())) {
+            rebuildLocked(trade.getUsrId());
+        }
+        holdingJpaRepository.save(trade);
+
+        positionJpaRepository.insertIfAbsent(trade.getUsrId(), trade.getTckrSymb());
+        PositionEntity position = positionJpaRepository.findByUsrIdAndTckrSymb(trade.getUsrId(), trade.getTckrSymb())
+                .orElseThrow();
+        apply(position, trade);
+        position.setUpdatedAt(trade.getTradDt());
+        positionJpaRepository.save(position);
+    }
+
+    // Read committed, so positions built by another transaction while this one waited are seen
+    @Transactional(isolation = Isolation.READ_COMMITTED)
+    public List<PositionEntity> openPositions(Integer userId) {
+        // Only a user without positions needs the lock, to build them once
+        if (positionJpaRepository.countByUsrId(userId) == 0 && holdingJpaRepository.existsByUsrId(userId)
+                && lockUser(userId)) {
+            rebuildLocked(userId);
+        }
+        return positionJpaRepository.findByUsrIdAndQtyGreaterThan(userId, 0);
+    }
+
+    /**
+     * Replaces the user's positions with ones folded from their ledger, oldest trade first.
+     * Returns the number of positions written.
+     */
+    @Transactional
+    public int rebuild(Integer userId) {
+        lockUser(userId);
+        return rebuildLocked(userId);
+    }
+
+    /**
+     * Rebuilds every user with trades, each in a transaction of their own.
+     */
+    public int rebuildAll() {
+        int rebuilt = 0;
+        for (Integer userId : holdingJpaRepository.findDistinctUsrIds()) {
+            rebuilt += transactionTemplate.execute(status -> {
+                lockUser(userId);
+                return rebuildLocked(userId);
+            });
+        }
+        return rebuilt;
+    }
+
+    private int rebuildLocked(Integer userId) {
+        Map<String, PositionEntity> positions = new LinkedHashMap<String, PositionEntity>();
+        for (HoldingEntity trade : holdingJpaRepository.findByUsrIdOrderByTradDtAscIdAsc(userId)) {
+            PositionEntity position = positions.computeIfAbsent(trade.getTckrSymb(), symbol -> new PositionEntity(userId, symbol));
+            apply(position, trade);
+            position.setUpdatedAt(trade.getTradDt());
+        }
+        positionJpaRepository.deleteByUsrId(userId);
+        positionJpaRepository.flush();
+        positionJpaRepository.saveAll(positions.values());
+        log.info("Rebuilt {} positions for userId {}", positions.size(), userId);
+        return positions.size();
+    }
+
+    // Blocks until no other transaction holds the user; true when this one created the user's row
+    private boolean lockUser(Integer userId) {
+        return positionJpaRepository.lockUser(userId) == 1;
+    }
+
+    static void apply(PositionEntity position, HoldingEntity trade) {
+        String action = trade.getAction();
+        if ("B".equalsIgnoreCase(action) || "BUY".equalsIgnoreCase(action)) {
+            buy(position, trade.getQty(), trade.getPric());
+        } else if ("S".equalsIgnoreCase(action) || "SELL".equalsIgnoreCase(action)) {
+            sell(position, trade.getQty(), trade.getPric());
+        }
+    }
+
+    static void buy(PositionEntity position, int qty, double price) {
+        int held = position.getQty();
+        int newQty = held + qty;
+        if (newQty > 0) {
+            // Only the part that takes the quantity above 0 adds cost
+            int added = Math.min(qty, newQty);
+            position.setSumCost(position.getSumCost().add(cost(added, price)));
+        }
+        position.setQty(newQty);
+    }
+
+    static void sell(PositionEntity position, int qty, double price) {
+        int held = Math.max(position.getQty(), 0);
+        int relieved = Math.min(qty, held);
+        if (relieved > 0) {
+            BigDecimal relievedCost = relieved == held ? position.getSumCost()
+                    : position.getSumCost().multiply(BigDecimal.valueOf(relieved))
+                            .divide(BigDecimal.valueOf(held), COST_SCALE, RoundingMode.HALF_UP);
+            position.setSumCost(position.getSumCost().subtract(relievedCost));
+            position.setRealizedPnl(position.getRealizedPnl().add(cost(relieved, price).subtract(relievedCost)));
+        }
+        position.setQty(position.getQty() - qty);
+    }
+
+    private static BigDecimal cost(int qty, double price) {
+        return BigDecimal.valueOf(price).multiply(BigDecimal.valueOf(qty));
+    }
+}
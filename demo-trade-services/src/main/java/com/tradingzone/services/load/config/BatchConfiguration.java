@@ -3,16 +3,26 @@ package com.tradingzone.services.load.config;
 import com.google.gson.Gson;
 import com.google.gson.GsonBuilder;
 import com.tradingzone.services.load.reader.AwsZipCsvFlatFileItemReader;
-import com.tradingzone.services.load.reader.NonEqTradeException;
+import com.tradingzone.services.load.job.LoadManifest;
+import com.tradingzone.services.load.job.S3ObjectPrefetcher;
 import com.tradingzone.services.load.job.TradeJobListener;
+import com.tradingzone.services.load.partition.PartitionThroughputListener;
+import com.tradingzone.services.load.partition.TradeFilePartitioner;
 import com.tradingzone.services.load.processor.Trade;
 import com.tradingzone.services.load.processor.TradeItemProcessor;
+import com.tradingzone.services.load.processor.TradeRecord;
 import com.tradingzone.services.load.reader.CsvFlatFileItemReader;
+import com.tradingzone.services.load.reader.TradeSeriesFilter;
 import com.tradingzone.services.load.reader.ZipCsvFlatFileItemReader;
 import com.tradingzone.services.load.reader.zipextra.MyZipFileCsvFlatFileItemReader;
 import com.tradingzone.services.load.util.LocalDateTimeTypeAdapter;
+import com.tradingzone.services.load.writer.TimedItemWriter;
+import com.tradingzone.services.load.writer.TradeJdbcBatchWriter;
 import com.tradingzone.services.load.writer.TradeJedisWriter;
 import com.tradingzone.services.load.writer.TradeJpaWriter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
 import org.springframework.batch.core.*;
 import org.springframework.batch.core.annotation.BeforeStep;
 import org.springframework.batch.core.configuration.annotation.EnableBatchProcessing;
@@ -21,13 +31,17 @@ import org.springframework.batch.core.job.builder.JobBuilder;
 import org.springframework.batch.core.launch.support.RunIdIncrementer;
 import org.springframework.batch.core.repository.JobRepository;
 import org.springframework.batch.core.step.builder.StepBuilder;
-import org.springframework.batch.core.step.skip.AlwaysSkipItemSkipPolicy;
+import org.springframework.batch.core.step.skip.SkipPolicy;
 import org.springframework.batch.core.step.tasklet.TaskletStep;
 import org.springframework.batch.item.ItemWriter;
+import org.springframework.batch.item.WriteFailedException;
 import org.springframework.batch.item.support.CompositeItemWriter;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.core.task.TaskExecutor;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
 import org.springframework.transaction.PlatformTransactionManager;
 
 import java.net.URI;
@@ -41,6 +55,30 @@ public class BatchConfiguration {
 
     JobParameters jobParameters ;
 
+    @Value("${trades.load.chunk-size:250}")
+    private int chunkSize;
+
+    @Value("${trades.load.partitions:4}")
+    private int partitions;
+
+    @Value("${trades.load.mode:serial}")
+    private String loadMode;
+
+    @Value("${trades.load.db-writer:jdbc}")
+    private String dbWriter;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Autowired
+    private S3ObjectPrefetcher s3ObjectPrefetcher;
+
+    @Autowired
+    private LoadManifest loadManifest;
+
+    // Deliberately not a bean: any Executor bean would replace Boot's applicationTaskExecutor
+    private ThreadPoolTaskExecutor loadTaskExecutor;
+
     @Bean
     @StepScope
     public MyZipFileCsvFlatFileItemReader<Trade> awszipreader(@Value("#{jobParameters}") Map jobParameters) throws Exception {
@@ -54,7 +92,18 @@ public class BatchConfiguration {
     public ZipCsvFlatFileItemReader<Trade> zipreader(@Value("#{jobParameters}") Map jobParameters) throws Exception {
 
         String filePath = String.valueOf(jobParameters.get("filePath"));
-        return new ZipCsvFlatFileItemReader<Trade>(filePath);
+        ZipCsvFlatFileItemReader<Trade> reader = new ZipCsvFlatFileItemReader<Trade>(filePath);
+        reader.setSeriesFilter(seriesFilter());
+        return reader;
+    }
+
+    @Bean
+    @StepScope
+    public ZipCsvFlatFileItemReader<Trade> s3zipreader(@Value("#{jobParameters['s3Bucket']}") String bucket,
+                                                       @Value("#{jobParameters['s3Key']}") String key) {
+        ZipCsvFlatFileItemReader<Trade> reader = new ZipCsvFlatFileItemReader<Trade>(s3ObjectPrefetcher.resource(bucket, key));
+        reader.setSeriesFilter(seriesFilter());
+        return reader;
     }
 
     @Bean
@@ -65,16 +114,56 @@ public class BatchConfiguration {
         return new CsvFlatFileItemReader<Trade>(filePath);
     }
 
+    @Bean
+    @StepScope
+    public TradeFilePartitioner tradeFilePartitioner(@Value("#{jobParameters['filePath']}") String filePath) {
+        return new TradeFilePartitioner(filePath, seriesFilter());
+    }
+
+    @Bean
+    @StepScope
+    public ZipCsvFlatFileItemReader<Trade> partitionreader(@Value("#{stepExecutionContext['filePath']}") String filePath,
+                                                           @Value("#{stepExecutionContext['startLine']}") Integer startLine,
+                                                           @Value("#{stepExecutionContext['lineCount']}") Integer lineCount) throws Exception {
+        ZipCsvFlatFileItemReader<Trade> reader = new ZipCsvFlatFileItemReader<Trade>(filePath);
+        reader.setName("partitionreader");
+        // Filtered rows are skipped like headers, so startLine counts the same rows as the partitioner
+        reader.setSeriesFilter(seriesFilter());
+        reader.setLinesToSkip(startLine);
+        reader.setMaxItemCount(lineCount);
+        return reader;
+    }
+
+    @Bean
+    public TradeSeriesFilter seriesFilter() {
+        return new TradeSeriesFilter(meterRegistry);
+    }
+
     @Bean
     public TradeItemProcessor processor() {
         return new TradeItemProcessor();
     }
 
     @Bean
-    public ItemWriter<Trade> writerDB(){
+    public TradeJpaWriter writerJpa(){
         return new TradeJpaWriter();
     }
 
+    @Bean
+    public TradeJdbcBatchWriter writerJdbc(){
+        return new TradeJdbcBatchWriter();
+    }
+
+    @Bean
+    public ItemWriter<TradeRecord> writerDB(){
+        boolean jdbc = "jdbc".equalsIgnoreCase(dbWriter);
+        Timer timer = Timer.builder("trades.load.db.write")
+                .description("Time to write one chunk to TRADES")
+                .tag("writer", jdbc ? "jdbc" : "jpa")
+                .register(meterRegistry);
+        return new TimedItemWriter<TradeRecord>(jdbc ? writerJdbc() : writerJpa(), timer);
+    }
+
     @Bean
     public Gson gson(){
         return new GsonBuilder()
@@ -83,16 +172,16 @@ public class BatchConfiguration {
     }
 
     @Bean
-    public ItemWriter<Trade> writerCache(){
+    public ItemWriter<TradeRecord> writerCache(){
 
         //return new TradeCacheWriter();
         return new TradeJedisWriter();
     }
 
     @Bean
-    public CompositeItemWriter<Trade> compositeItemWriter(){
+    public CompositeItemWriter<TradeRecord> compositeItemWriter(){
 
-        CompositeItemWriter<Trade> writer = new CompositeItemWriter<Trade>();
+        CompositeItemWriter<TradeRecord> writer = new CompositeItemWriter<TradeRecord>();
         writer.setDelegates(Arrays.asList(writerDB(), writerCache()));
         return writer;
     }
@@ -153,7 +242,7 @@ public class BatchConfiguration {
     public Step readCSVStep(JobRepository jobRepository,
                            PlatformTransactionManager transactionManager) throws Exception {
         TaskletStep sampleStep = new StepBuilder("readCSVStep", jobRepository)
-                .<Trade, Trade>chunk(250, transactionManager)
+                .<Trade, TradeRecord>chunk(chunkSize, transactionManager)
                 .reader(zipreader(null))
                 .processor(processor())
                 .writer(compositeItemWriter())
@@ -161,37 +250,87 @@ public class BatchConfiguration {
                 //.writer(writerCache())
                 .faultTolerant()
                 //.skipLimit(1)
-                .skipPolicy(new AlwaysSkipItemSkipPolicy())
-                .skip(NonEqTradeException.class)
+                .skipPolicy(skipPolicy())
                 .allowStartIfComplete(true)
                 .build();
         return sampleStep;
     }
 
     @Bean
-    public Job myJob(JobRepository jobRepository, Step readCSVStep) {
+    public Step readCSVPartitionStep(JobRepository jobRepository,
+                                     PlatformTransactionManager transactionManager,
+                                     MeterRegistry meterRegistry) throws Exception {
+        return new StepBuilder("readCSVPartitionStep", jobRepository)
+                .<Trade, TradeRecord>chunk(chunkSize, transactionManager)
+                .reader(partitionreader(null, null, null))
+                .processor(processor())
+                .writer(compositeItemWriter())
+                .faultTolerant()
+                .skipPolicy(skipPolicy())
+                .listener(new PartitionThroughputListener(meterRegistry))
+                .build();
+    }
+
+    @Bean
+    public Step readCSVPartitionedStep(JobRepository jobRepository, Step readCSVPartitionStep) {
+        return new StepBuilder("readCSVPartitionedStep", jobRepository)
+                .partitioner(readCSVPartitionStep.getName(), tradeFilePartitioner(null))
+                .step(readCSVPartitionStep)
+                .gridSize(partitions)
+                .taskExecutor(loadTaskExecutor())
+                .allowStartIfComplete(true)
+                .build();
+    }
+
+    @Bean
+    public Job myJob(JobRepository jobRepository, Step readCSVStep, Step readCSVPartitionedStep) {
         return new JobBuilder("tradesReadDailyCsvJob", jobRepository)
                 .incrementer(new RunIdIncrementer())
                 .listener(listener())
-                .start(readCSVStep)
+                .listener(loadManifest)
+                .start("partitioned".equalsIgnoreCase(loadMode) ? readCSVPartitionedStep : readCSVStep)
                 .build();
     }
 
+    // Bad rows are skipped, but a chunk Redis did not take fails the step, so the job
+    // stays out of the load manifest and a restart writes the chunk again
+    private static SkipPolicy skipPolicy() {
+        return (throwable, skipCount) -> !(throwable instanceof WriteFailedException);
+    }
+
+    private TaskExecutor loadTaskExecutor() {
+        if (loadTaskExecutor == null) {
+            ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+            executor.setCorePoolSize(partitions);
+            executor.setMaxPoolSize(partitions);
+            executor.setThreadNamePrefix("trade-load-");
+            executor.initialize();
+            loadTaskExecutor = executor;
+        }
+        return loadTaskExecutor;
+    }
+
+    @PreDestroy
+    public void shutdownLoadExecutor() {
+        if (loadTaskExecutor != null) {
+            loadTaskExecutor.shutdown();
+        }
+    }
+
 
     @Bean
     public Step readAwsCSVStep(JobRepository jobRepository,
                             PlatformTransactionManager transactionManager) throws Exception {
         TaskletStep sampleAwsStep = new StepBuilder("readAwsCSVStep", jobRepository)
-                .<Trade, Trade>chunk(250, transactionManager)
-                .reader(awszipreader(null))
+                .<Trade, TradeRecord>chunk(chunkSize, transactionManager)
+                .reader(s3zipreader(null, null))
                 .processor(processor())
                 .writer(compositeItemWriter())
                 //.writer(writerDB())
                 //.writer(writerCache())
                 .faultTolerant()
                 //.skipLimit(1)
-                .skipPolicy(new AlwaysSkipItemSkipPolicy())
-                .skip(NonEqTradeException.class)
+                .skipPolicy(skipPolicy())
                 //.allowStartIfComplete(true)
                 .build();
         return sampleAwsStep;
@@ -203,6 +342,7 @@ public class BatchConfiguration {
         return new JobBuilder("tradesReadDailyAwsCsvJob", jobRepository)
                 .incrementer(new RunIdIncrementer())
                 .listener(listener())
+                .listener(loadManifest)
                 .start(readAwsCSVStep)
                 .build();
     }
@@ -1,10 +1,18 @@
 package com.tradingzone.services.load.controller;
 
+import com.tradingzone.services.holdings.service.PositionService;
+import com.tradingzone.services.load.job.BackfillProgress;
 import com.tradingzone.services.load.job.InitAwsJob;
+import com.tradingzone.services.load.job.LoadOrchestrator;
+import com.tradingzone.services.redis.service.TradeJedisService;
+import com.tradingzone.services.trades.history.HistoryRebuildService;
+import com.tradingzone.services.watchlist.service.WatchListService;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
 import java.util.List;
+import java.util.Map;
 
 @RestController
 @RequestMapping("/tradingzone/load")
@@ -13,6 +21,21 @@ public class InitJobController {
     @Autowired
     private InitAwsJob initAwsJob;
 
+    @Autowired
+    private LoadOrchestrator loadOrchestrator;
+
+    @Autowired
+    private TradeJedisService tradeJedisService;
+
+    @Autowired
+    private HistoryRebuildService historyRebuildService;
+
+    @Autowired
+    private PositionService positionService;
+
+    @Autowired
+    private WatchListService watchListService;
+
     @GetMapping("/loaddataall/")
     public String loadDataAll(){
         return initAwsJob.loadDataAll();
@@ -22,4 +45,45 @@ public class InitJobController {
     public String loadData(@RequestParam List<String> files){
         return initAwsJob.loadData(files);
     }
+
+    /**
+     * Loads the given files (all of the bucket when none are given) in parallel and
+     * returns the id to follow the backfill with /backfill/{id}
+     */
+    @GetMapping("/backfill/")
+    public String backfill(@RequestParam(required = false) List<String> files){
+        return loadOrchestrator.start(files);
+    }
+
+    @GetMapping("/backfill/{id}")
+    public ResponseEntity<BackfillProgress> backfillProgress(@PathVariable String id){
+        BackfillProgress progress = loadOrchestrator.progress(id);
+        return progress == null ? ResponseEntity.notFound().build() : ResponseEntity.ok(progress);
+    }
+
+    @GetMapping("/rebuildhistory/")
+    public long rebuildHistory() throws Exception {
+        return historyRebuildService.rebuild();
+    }
+
+    /**
+     * Recomputes every user's POSITIONS from the HOLDINGS ledger and returns the number written
+     */
+    @GetMapping("/rebuildpositions/")
+    public int rebuildPositions(){
+        return positionService.rebuildAll();
+    }
+
+    @GetMapping("/migrateencoding/")
+    public Map<String, Object> migrateEncoding(){
+        return tradeJedisService.migrateTradeEncoding();
+    }
+
+    /**
+     * Moves watchlists still stored as comma-joined strings to sorted sets and returns the number moved
+     */
+    @GetMapping("/migratewatchlists/")
+    public int migrateWatchlists(){
+        return watchListService.migrateLegacyWatchlists("hash:watchlist");
+    }
 }
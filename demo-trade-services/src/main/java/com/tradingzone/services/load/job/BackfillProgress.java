@@ -0,0 +1,15 @@
+package com.tradingzone.services.load.job;
+
+import java.util.List;
+
+public record BackfillProgress(String id,
+                               int files,
+                               int done,
+                               int skipped,
+                               int failed,
+                               int running,
+                               long rows,
+                               double rowsPerSecond,
+                               long elapsedMillis,
+                               List<FileLoadStatus> fileStatuses) {
+}
@@ -0,0 +1,4 @@
+package com.tradingzone.services.load.job;
+
+public record FileLoadStatus(String file, String status, long rows, String error) {
+}
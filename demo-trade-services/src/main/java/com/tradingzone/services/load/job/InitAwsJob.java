@@ -1,6 +1,7 @@
 package com.tradingzone.services.load.job;
 
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.batch.core.JobExecutionException;
 import org.springframework.batch.core.JobParametersInvalidException;
 import org.springframework.batch.core.repository.JobExecutionAlreadyRunningException;
 import org.springframework.batch.core.repository.JobInstanceAlreadyCompleteException;
@@ -18,13 +19,14 @@ import org.springframework.batch.core.repository.JobRepository;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 import software.amazon.awssdk.services.s3.model.*;
-import software.amazon.awssdk.services.s3.paginators.ListObjectsV2Iterable;
 import java.io.*;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.HashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
 
@@ -42,6 +44,19 @@ public class InitAwsJob {
     @Autowired
     Job myJob;
 
+    @Autowired
+    Job myAwsJob;
+
+    @Autowired
+    S3ObjectPrefetcher s3ObjectPrefetcher;
+
+    @Autowired
+    LoadManifest loadManifest;
+
+    // stream: read objects straight from S3 with prefetch, download: save to disk first
+    @Value("${init.job.s3.ingest:stream}")
+    private String ingestMode;
+
     @Autowired
     private Environment environment;
 
@@ -54,19 +69,31 @@ public class InitAwsJob {
     private String path = "/tmp/";
 
     public String loadDataAll(){
+        return loadObjects(loadManifest.changed(listObjects()));
+    }
+
+
+    public String loadData(List<String> files){
+
+        String status = "FAILURE";
+
+        if(files != null && !files.isEmpty() ){
+            return loadObjects(loadManifest.changed(describe(files)));
+        }
+
+        status = "SUCCESS";
+        return status;
+    }
+
+    private String loadObjects(List<S3Object> objects){
+        if (isStreamIngest()) {
+            return streamData(objects);
+        }
 
-        JobParametersBuilder jobParametersBuilder;
         String status = "FAILURE";
         path = getLocalPath(path);
-        ListObjectsV2Request listObjectsV2Request = ListObjectsV2Request.builder()
-                .bucket(bucketName)
-                .maxKeys(1)
-                .build();
 
-        ListObjectsV2Iterable listRes = amazonS3.listObjectsV2Paginator(listObjectsV2Request);
-        listRes.stream()
-                .flatMap(r -> r.contents().stream())
-                .forEach(content -> {
+        objects.forEach(content -> {
                     System.out.println(" Key: " + content.key() + " size = " + content.size());
 
                     String filepath = path+content.key();
@@ -75,7 +102,7 @@ public class InitAwsJob {
                         getObjectBytes(amazonS3, bucketName, content.key(), filepath);
 
                         try {
-                            jobLauncher.run(myJob, getJobParametersBuilder(filepath).toJobParameters());
+                            jobLauncher.run(myJob, getJobParametersBuilder(filepath, content).toJobParameters());
                             Path fpath = Paths.get(filepath);
                             Files.deleteIfExists(fpath);
                         } catch (JobExecutionAlreadyRunningException e) {
@@ -95,55 +122,59 @@ public class InitAwsJob {
         return status;
     }
 
+    /**
+     * @return all objects in the bucket, with their ETag and size
+     */
+    public List<S3Object> listObjects() {
+        ListObjectsV2Request listObjectsV2Request = ListObjectsV2Request.builder()
+                .bucket(bucketName)
+                .build();
+        return amazonS3.listObjectsV2Paginator(listObjectsV2Request).stream()
+                .flatMap(r -> r.contents().stream())
+                .toList();
+    }
 
-    public String loadData(List<String> files){
+    /**
+     * @return the given objects with their current ETag and size, read with HeadObject
+     */
+    public List<S3Object> describe(List<String> keys) {
+        return keys.stream()
+                .distinct()
+                .map(key -> {
+                    HeadObjectResponse head = amazonS3.headObject(HeadObjectRequest.builder()
+                            .bucket(bucketName)
+                            .key(key)
+                            .build());
+                    return S3Object.builder()
+                            .key(key)
+                            .eTag(head.eTag())
+                            .size(head.contentLength())
+                            .build();
+                })
+                .toList();
+    }
 
-        JobParametersBuilder jobParametersBuilder;
-        String status = "FAILURE";
+    private boolean isStreamIngest() {
+        return "stream".equalsIgnoreCase(ingestMode);
+    }
 
-        if(files != null && !files.isEmpty() ){
-            Map<String, String> fileMap = new HashMap<>();
-            for (String file : files) {
-                fileMap.put(file, file);
+    /**
+     * Runs the S3 job for each key in turn while the next objects are already downloading.
+     * Nothing is written to disk.
+     */
+    private String streamData(List<S3Object> objects) {
+        Map<String, S3Object> byKey = new HashMap<>();
+        objects.forEach(object -> byKey.put(object.key(), object));
+
+        s3ObjectPrefetcher.forEach(bucketName, objects.stream().map(S3Object::key).toList(), key -> {
+            log.info("Streaming s3://{}/{} into the load job", bucketName, key);
+            try {
+                jobLauncher.run(myAwsJob, getS3JobParametersBuilder(byKey.get(key)).toJobParameters());
+            } catch (JobExecutionException e) {
+                throw new RuntimeException(e);
             }
-
-
-            path = getLocalPath(path);
-
-            fileMap.forEach((k, v) ->
-                    {
-                        //logger.info("Key: {}, Value: {}", k, v)
-                        System.out.println(" Key: " + k + " Value = " + v);
-
-                        String filepath = path+k;
-                        //String filepath = content.key();
-                        System.out.println(" filepath: " + filepath );
-
-                        getObjectBytes(amazonS3, bucketName, v, filepath);
-
-                        try {
-                            jobLauncher.run(myJob, getJobParametersBuilder(filepath).toJobParameters());
-                            Path fpath = Paths.get(filepath);
-                            Files.deleteIfExists(fpath);
-                        } catch (JobExecutionAlreadyRunningException e) {
-                            throw new RuntimeException(e);
-                        } catch (JobRestartException e) {
-                            throw new RuntimeException(e);
-                        } catch (JobInstanceAlreadyCompleteException e) {
-                            throw new RuntimeException(e);
-                        } catch (JobParametersInvalidException e) {
-                            throw new RuntimeException(e);
-                        } catch (IOException e) {
-                            throw new RuntimeException(e);
-                        }
-
-                    }
-            );
-
-        }
-
-        status = "SUCCESS";
-        return status;
+        });
+        return "SUCCESS";
     }
 
     private String getLocalPath(String path){
@@ -194,10 +225,17 @@ public class InitAwsJob {
         }
     }
 
-    private static JobParametersBuilder getJobParametersBuilder(String filePath) {
+    JobParametersBuilder getS3JobParametersBuilder(S3Object object) {
+        JobParametersBuilder jobParametersBuilder = new JobParametersBuilder();
+        jobParametersBuilder.addString("s3Bucket", bucketName);
+        LoadManifest.addParameters(jobParametersBuilder, object);
+        return jobParametersBuilder;
+    }
+
+    private static JobParametersBuilder getJobParametersBuilder(String filePath, S3Object object) {
         JobParametersBuilder jobParametersBuilder = new JobParametersBuilder();
         jobParametersBuilder.addString("filePath", filePath);
-        jobParametersBuilder.addLong("time",System.currentTimeMillis()).toJobParameters();
+        LoadManifest.addParameters(jobParametersBuilder, object);
         return jobParametersBuilder;
     }
 
@@ -0,0 +1,87 @@
+package com.tradingzone.services.load.job;
+
+import com.tradingzone.services.load.repository.LoadManifestEntity;
+import com.tradingzone.services.load.repository.LoadManifestRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.batch.core.BatchStatus;
+import org.springframework.batch.core.JobExecution;
+import org.springframework.batch.core.JobExecutionListener;
+import org.springframework.batch.core.JobParameters;
+import org.springframework.batch.core.JobParametersBuilder;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+import software.amazon.awssdk.services.s3.model.S3Object;
+
+import java.sql.Timestamp;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Keeps LOAD_MANIFEST, the ETag and size of every S3 object as of its last successful
+ * load, so repeated loads only process new or changed objects.
+ *
+ * Jobs launched for an S3 object carry its key and ETag as identifying parameters and its
+ * size as a non-identifying one; when such a job completes, the manifest row is written
+ * from them. A changed object so gets a job instance of its own, and a failed load of the
+ * same object is restarted where it stopped.
+ */
+@Slf4j
+@Component
+public class LoadManifest implements JobExecutionListener {
+
+    public static final String S3_KEY = "s3Key";
+    public static final String S3_ETAG = "s3ETag";
+    public static final String S3_SIZE = "s3Size";
+
+    @Autowired
+    private LoadManifestRepository loadManifestRepository;
+
+    /**
+     * @return the objects that were never loaded or changed since their last load, in
+     * the given order
+     */
+    public List<S3Object> changed(List<S3Object> objects) {
+        Map<String, LoadManifestEntity> loaded = loadManifestRepository.findAllById(objects.stream().map(S3Object::key).toList())
+                .stream()
+                .collect(Collectors.toMap(LoadManifestEntity::getS3Key, Function.identity()));
+
+        List<S3Object> changed = objects.stream()
+                .filter(object -> !isCurrent(loaded.get(object.key()), object))
+                .toList();
+        log.info("{} of {} objects are new or changed, skipping the rest", changed.size(), objects.size());
+        return changed;
+    }
+
+    public static JobParametersBuilder addParameters(JobParametersBuilder jobParametersBuilder, S3Object object) {
+        jobParametersBuilder.addString(S3_KEY, object.key());
+        jobParametersBuilder.addString(S3_ETAG, object.eTag());
+        jobParametersBuilder.addLong(S3_SIZE, object.size(), false);
+        return jobParametersBuilder;
+    }
+
+    @Override
+    public void afterJob(JobExecution jobExecution) {
+        JobParameters jobParameters = jobExecution.getJobParameters();
+        String key = jobParameters.getString(S3_KEY);
+        if (jobExecution.getStatus() != BatchStatus.COMPLETED || key == null) {
+            return;
+        }
+        LoadManifestEntity entry = new LoadManifestEntity();
+        entry.setS3Key(key);
+        entry.setETag(jobParameters.getString(S3_ETAG));
+        entry.setSize(jobParameters.getLong(S3_SIZE));
+        entry.setJobExecutionId(jobExecution.getId());
+        entry.setLoadedAt(new Timestamp(System.currentTimeMillis()));
+        loadManifestRepository.save(entry);
+        log.info("Recorded {} ({}) as loaded by job execution {}", key, entry.getETag(), jobExecution.getId());
+    }
+
+    private static boolean isCurrent(LoadManifestEntity entry, S3Object object) {
+        return entry != null
+                && Objects.equals(entry.getETag(), object.eTag())
+                && Objects.equals(entry.getSize(), object.size());
+    }
+}
@@ -0,0 +1,183 @@
+package com.tradingzone.services.load.job;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.batch.core.BatchStatus;
+import org.springframework.batch.core.Job;
+import org.springframework.batch.core.JobExecution;
+import org.springframework.batch.core.StepExecution;
+import org.springframework.batch.core.launch.support.TaskExecutorJobLauncher;
+import org.springframework.batch.core.repository.JobRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.stereotype.Service;
+import software.amazon.awssdk.services.s3.model.S3Object;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Runs a backfill of many S3 files as independent jobs, at most
+ * {@code trades.load.backfill.parallelism} at a time.
+ *
+ * Every file is its own execution of the streaming S3 job, launched on a private
+ * asynchronous launcher, so a failing file is recorded and the others carry on. The
+ * launcher and its executor are not beans; the default synchronous JobLauncher used by
+ * {@link InitAwsJob} is left as it is.
+ */
+@Slf4j
+@Service
+public class LoadOrchestrator {
+
+    private static final int KEEP_BACKFILLS = 20;
+
+    @Autowired
+    private JobRepository jobRepository;
+
+    @Autowired
+    private Job myAwsJob;
+
+    @Autowired
+    private InitAwsJob initAwsJob;
+
+    @Autowired
+    private LoadManifest loadManifest;
+
+    @Value("${trades.load.backfill.parallelism:4}")
+    private int parallelism;
+
+    private ThreadPoolTaskExecutor executor;
+    private TaskExecutorJobLauncher launcher;
+
+    private final Map<String, Backfill> backfills = Collections.synchronizedMap(new LinkedHashMap<>() {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, Backfill> eldest) {
+            return size() > KEEP_BACKFILLS;
+        }
+    });
+
+    @PostConstruct
+    public void init() throws Exception {
+        executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(parallelism);
+        executor.setMaxPoolSize(parallelism);
+        executor.setThreadNamePrefix("trade-backfill-");
+        executor.initialize();
+
+        launcher = new TaskExecutorJobLauncher();
+        launcher.setJobRepository(jobRepository);
+        launcher.setTaskExecutor(executor);
+        launcher.afterPropertiesSet();
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdown();
+    }
+
+    /**
+     * Queues one job per new or changed file and returns at once. Files the load
+     * manifest shows as unchanged are reported as skipped.
+     *
+     * @param files S3 keys, or null/empty for every object in the bucket
+     * @return the backfill id to poll with {@link #progress}
+     */
+    public String start(List<String> files) {
+        List<S3Object> objects = files == null || files.isEmpty() ? initAwsJob.listObjects() : initAwsJob.describe(files);
+        List<S3Object> changed = loadManifest.changed(objects);
+
+        Backfill backfill = new Backfill(UUID.randomUUID().toString(), objects.stream().map(S3Object::key).toList());
+        backfill.skipped.addAll(backfill.files);
+        changed.forEach(object -> backfill.skipped.remove(object.key()));
+        backfills.put(backfill.id, backfill);
+
+        for (S3Object object : changed) {
+            try {
+                backfill.executions.put(object.key(), launcher.run(myAwsJob, initAwsJob.getS3JobParametersBuilder(object).toJobParameters()));
+            } catch (Exception e) {
+                log.error("Could not launch backfill job for {}", object.key(), e);
+                backfill.launchErrors.put(object.key(), e.getMessage());
+            }
+        }
+        log.info("Backfill {} queued {} of {} files, {} at a time", backfill.id, changed.size(), objects.size(), parallelism);
+        return backfill.id;
+    }
+
+    /**
+     * @return the progress of the backfill, or null for an unknown id
+     */
+    public BackfillProgress progress(String id) {
+        Backfill backfill = backfills.get(id);
+        return backfill == null ? null : backfill.progress();
+    }
+
+    private static final class Backfill {
+
+        private final String id;
+        private final List<String> files;
+        private final long startedAt = System.currentTimeMillis();
+        private final Map<String, JobExecution> executions = new ConcurrentHashMap<>();
+        private final Map<String, String> launchErrors = new ConcurrentHashMap<>();
+        private final Set<String> skipped = ConcurrentHashMap.newKeySet();
+
+        Backfill(String id, List<String> files) {
+            this.id = id;
+            this.files = files;
+        }
+
+        BackfillProgress progress() {
+            List<FileLoadStatus> statuses = new ArrayList<>(files.size());
+            int done = 0;
+            int skippedFiles = 0;
+            int failed = 0;
+            int running = 0;
+            long rows = 0;
+            for (String file : files) {
+                if (skipped.contains(file)) {
+                    skippedFiles++;
+                    statuses.add(new FileLoadStatus(file, "SKIPPED", 0, null));
+                    continue;
+                }
+                JobExecution execution = executions.get(file);
+                if (execution == null) {
+                    String error = launchErrors.get(file);
+                    if (error != null) {
+                        failed++;
+                    }
+                    statuses.add(new FileLoadStatus(file, error == null ? "PENDING" : BatchStatus.FAILED.name(), 0, error));
+                    continue;
+                }
+                // The execution is the live instance the job updates, no repository read needed
+                long fileRows = 0;
+                for (StepExecution stepExecution : execution.getStepExecutions()) {
+                    fileRows += stepExecution.getWriteCount();
+                }
+                rows += fileRows;
+
+                BatchStatus status = execution.getStatus();
+                if (status == BatchStatus.COMPLETED) {
+                    done++;
+                } else if (status.isUnsuccessful() || status == BatchStatus.STOPPED) {
+                    failed++;
+                } else if (status == BatchStatus.STARTED || status == BatchStatus.STOPPING) {
+                    running++;
+                }
+                String error = execution.getAllFailureExceptions().isEmpty() ? null
+                        : execution.getAllFailureExceptions().getFirst().getMessage();
+                statuses.add(new FileLoadStatus(file, status.name(), fileRows, error));
+            }
+
+            long elapsed = System.currentTimeMillis() - startedAt;
+            double rowsPerSecond = elapsed == 0 ? 0 : rows * 1000.0 / elapsed;
+            return new BackfillProgress(id, files.size(), done, skippedFiles, failed, running, rows, rowsPerSecond, elapsed, statuses);
+        }
+    }
+}
@@ -0,0 +1,145 @@
+package com.tradingzone.services.load.job;
+
+import org.reactivestreams.Subscriber;
+import org.reactivestreams.Subscription;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.util.ArrayDeque;
+import java.util.Deque;
+
+/**
+ * Blocking view of an asynchronous response body that keeps downloading ahead of the
+ * reader, but never holds more than {@code limit} bytes (plus the chunk in flight).
+ *
+ * Chunks are requested one at a time while the buffer is under the limit, so a body
+ * larger than the limit is throttled to the speed of the reader instead of being
+ * collected in memory.
+ */
+class ReadAheadInputStream extends InputStream implements Subscriber<ByteBuffer> {
+
+    private final long limit;
+    private final Deque<ByteBuffer> buffers = new ArrayDeque<>();
+
+    private Subscription subscription;
+    private long buffered;
+    private boolean outstanding;
+    private boolean complete;
+    private boolean closed;
+    private Throwable error;
+
+    ReadAheadInputStream(long limit) {
+        this.limit = limit;
+    }
+
+    @Override
+    public void onSubscribe(Subscription subscription) {
+        synchronized (this) {
+            this.subscription = subscription;
+        }
+        requestMore();
+    }
+
+    @Override
+    public void onNext(ByteBuffer buffer) {
+        synchronized (this) {
+            outstanding = false;
+            if (!closed && buffer.hasRemaining()) {
+                buffers.addLast(buffer);
+                buffered += buffer.remaining();
+            }
+            notifyAll();
+        }
+        requestMore();
+    }
+
+    @Override
+    public synchronized void onError(Throwable t) {
+        error = t;
+        notifyAll();
+    }
+
+    @Override
+    public synchronized void onComplete() {
+        complete = true;
+        notifyAll();
+    }
+
+    @Override
+    public int read() throws IOException {
+        byte[] one = new byte[1];
+        return read(one, 0, 1) == -1 ? -1 : one[0] & 0xFF;
+    }
+
+    @Override
+    public int read(byte[] b, int off, int len) throws IOException {
+        if (len == 0) {
+            return 0;
+        }
+        int n;
+        synchronized (this) {
+            while (buffers.isEmpty()) {
+                if (closed) {
+                    throw new IOException("Stream closed");
+                }
+                if (error != null) {
+                    throw new IOException("Failed to download object body", error);
+                }
+                if (complete) {
+                    return -1;
+                }
+                try {
+                    wait();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw new IOException("Interrupted while waiting for object body", e);
+                }
+            }
+            ByteBuffer head = buffers.peekFirst();
+            n = Math.min(len, head.remaining());
+            head.get(b, off, n);
+            if (!head.hasRemaining()) {
+                buffers.removeFirst();
+            }
+            buffered -= n;
+        }
+        requestMore();
+        return n;
+    }
+
+    @Override
+    public void close() {
+        Subscription toCancel;
+        synchronized (this) {
+            if (closed) {
+                return;
+            }
+            closed = true;
+            buffers.clear();
+            buffered = 0;
+            toCancel = complete ? null : subscription;
+            notifyAll();
+        }
+        if (toCancel != null) {
+            toCancel.cancel();
+        }
+    }
+
+    synchronized long buffered() {
+        return buffered;
+    }
+
+    private void requestMore() {
+        Subscription toRequest;
+        synchronized (this) {
+            if (subscription == null || outstanding || complete || closed || error != null || buffered >= limit) {
+                return;
+            }
+            outstanding = true;
+            toRequest = subscription;
+        }
+        // Outside the lock: a publisher may deliver onNext from within request()
+        toRequest.request(1);
+    }
+}
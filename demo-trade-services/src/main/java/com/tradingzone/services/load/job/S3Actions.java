@@ -11,12 +11,14 @@ import software.amazon.awssdk.core.waiters.WaiterResponse;
 import software.amazon.awssdk.http.async.SdkAsyncHttpClient;
 import software.amazon.awssdk.regions.Region;
 import software.amazon.awssdk.services.s3.S3AsyncClient;
+import software.amazon.awssdk.services.s3.S3AsyncClientBuilder;
 import software.amazon.awssdk.services.s3.model.*;
 import software.amazon.awssdk.services.s3.paginators.ListObjectsV2Publisher;
 import software.amazon.awssdk.services.s3.waiters.S3AsyncWaiter;
 import software.amazon.awssdk.http.nio.netty.NettyNioAsyncHttpClient;
 
 import java.io.IOException;
+import java.net.URI;
 import java.nio.ByteBuffer;
 import java.nio.file.Files;
 import java.nio.file.Path;
@@ -31,33 +33,45 @@ public class S3Actions {
 
     public static S3AsyncClient getAsyncClient() {
         if (s3AsyncClient == null) {
-            /*
-            The `NettyNioAsyncHttpClient` class is part of the AWS SDK for Java, version 2,
-            and it is designed to provide a high-performance, asynchronous HTTP client for interacting with AWS services.
-             It uses the Netty framework to handle the underlying network communication and the Java NIO API to
-             provide a non-blocking, event-driven approach to HTTP requests and responses.
-             */
-
-            SdkAsyncHttpClient httpClient = NettyNioAsyncHttpClient.builder()
-                    .maxConcurrency(50)  // Adjust as needed.
-                    .connectionTimeout(Duration.ofSeconds(60))  // Set the connection timeout.
-                    .readTimeout(Duration.ofSeconds(60))  // Set the read timeout.
-                    .writeTimeout(Duration.ofSeconds(60))  // Set the write timeout.
-                    .build();
+            s3AsyncClient = buildAsyncClient(null);
+        }
+        return s3AsyncClient;
+    }
 
-            ClientOverrideConfiguration overrideConfig = ClientOverrideConfiguration.builder()
-                    .apiCallTimeout(Duration.ofMinutes(2))  // Set the overall API call timeout.
-                    .apiCallAttemptTimeout(Duration.ofSeconds(90))  // Set the individual call attempt timeout.
-                    .retryStrategy(RetryMode.STANDARD)
-                    .build();
+    /**
+     * Builds a new async client, pointed at the given endpoint (e.g. LocalStack) when one
+     * is set. The caller owns the client and must close it.
+     */
+    public static S3AsyncClient buildAsyncClient(String endpoint) {
+        /*
+        The `NettyNioAsyncHttpClient` class is part of the AWS SDK for Java, version 2,
+        and it is designed to provide a high-performance, asynchronous HTTP client for interacting with AWS services.
+         It uses the Netty framework to handle the underlying network communication and the Java NIO API to
+         provide a non-blocking, event-driven approach to HTTP requests and responses.
+         */
+
+        SdkAsyncHttpClient httpClient = NettyNioAsyncHttpClient.builder()
+                .maxConcurrency(50)  // Adjust as needed.
+                .connectionTimeout(Duration.ofSeconds(60))  // Set the connection timeout.
+                .readTimeout(Duration.ofSeconds(60))  // Set the read timeout.
+                .writeTimeout(Duration.ofSeconds(60))  // Set the write timeout.
+                .build();
 
-            s3AsyncClient = S3AsyncClient.builder()
-                    .region(Region.US_EAST_1)
-                    .httpClient(httpClient)
-                    .overrideConfiguration(overrideConfig)
-                    .build();
+        ClientOverrideConfiguration overrideConfig = ClientOverrideConfiguration.builder()
+                .apiCallTimeout(Duration.ofMinutes(2))  // Set the overall API call timeout.
+                .apiCallAttemptTimeout(Duration.ofSeconds(90))  // Set the individual call attempt timeout.
+                .retryStrategy(RetryMode.STANDARD)
+                .build();
+
+        S3AsyncClientBuilder builder = S3AsyncClient.builder()
+                .region(Region.US_EAST_1)
+                .httpClient(httpClient)
+                .overrideConfiguration(overrideConfig);
+        if (endpoint != null && !endpoint.isBlank()) {
+            // LocalStack serves buckets by path, not by virtual host
+            builder.endpointOverride(URI.create(endpoint)).forcePathStyle(true);
         }
-        return s3AsyncClient;
+        return builder.build();
     }
 
 
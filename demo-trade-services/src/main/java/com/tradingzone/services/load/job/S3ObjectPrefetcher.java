@@ -0,0 +1,150 @@
+package com.tradingzone.services.load.job;
+
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.AbstractResource;
+import org.springframework.core.io.Resource;
+import org.springframework.stereotype.Component;
+import software.amazon.awssdk.core.async.AsyncResponseTransformer;
+import software.amazon.awssdk.services.s3.S3AsyncClient;
+import software.amazon.awssdk.services.s3.model.GetObjectRequest;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Consumer;
+
+/**
+ * Streams S3 objects into the load job without saving them first.
+ *
+ * While one object is being loaded, GetObject is already running for the next
+ * {@code init.job.s3.prefetch} ones. Each body is read ahead into at most
+ * {@code init.job.s3.read-ahead-bytes}, so memory depends on those two settings and
+ * not on the object size. The job reads an object through {@link #resource}: the first
+ * open takes the prefetched body, later opens (a restart) issue a new GetObject.
+ */
+@Slf4j
+@Component
+public class S3ObjectPrefetcher {
+
+    @Value("${init.job.s3.prefetch:2}")
+    private int prefetch;
+
+    @Value("${init.job.s3.read-ahead-bytes:8388608}")
+    private long readAheadBytes;
+
+    @Value("${spring.cloud.aws.s3.endpoint:}")
+    private String endpoint;
+
+    private final Map<String, CompletableFuture<ReadAheadInputStream>> pending = new ConcurrentHashMap<>();
+
+    private volatile S3AsyncClient client;
+
+    /**
+     * Hands the keys to the consumer one by one, in order, with the following objects
+     * downloading in the background.
+     */
+    public void forEach(String bucket, List<String> keys, Consumer<String> consumer) {
+        for (int i = 0; i < keys.size(); i++) {
+            for (int next = i; next < Math.min(keys.size(), i + 1 + Math.max(0, prefetch)); next++) {
+                String key = keys.get(next);
+                pending.computeIfAbsent(id(bucket, key), id -> get(bucket, key));
+            }
+            try {
+                consumer.accept(keys.get(i));
+            } finally {
+                discard(bucket, keys.get(i));
+            }
+        }
+    }
+
+    public Resource resource(String bucket, String key) {
+        return new AbstractResource() {
+            @Override
+            public String getDescription() {
+                return id(bucket, key);
+            }
+
+            // The defaults probe by opening the stream, which would use up the prefetched body
+            @Override
+            public boolean exists() {
+                return true;
+            }
+
+            @Override
+            public boolean isReadable() {
+                return true;
+            }
+
+            @Override
+            public InputStream getInputStream() throws IOException {
+                return open(bucket, key);
+            }
+        };
+    }
+
+    InputStream open(String bucket, String key) throws IOException {
+        CompletableFuture<ReadAheadInputStream> body = pending.remove(id(bucket, key));
+        if (body == null) {
+            body = get(bucket, key);
+        }
+        try {
+            return body.join();
+        } catch (CompletionException e) {
+            throw new IOException("Failed to get " + id(bucket, key), e.getCause());
+        }
+    }
+
+    private CompletableFuture<ReadAheadInputStream> get(String bucket, String key) {
+        GetObjectRequest request = GetObjectRequest.builder()
+                .bucket(bucket)
+                .key(key)
+                .build();
+        return client().getObject(request, AsyncResponseTransformer.toPublisher())
+                .thenApply(publisher -> {
+                    ReadAheadInputStream stream = new ReadAheadInputStream(readAheadBytes);
+                    publisher.subscribe(stream);
+                    log.debug("Streaming {} ({} bytes)", id(bucket, key), publisher.response().contentLength());
+                    return stream;
+                });
+    }
+
+    /**
+     * Drops a prefetched body the job never opened, e.g. because it failed before reading.
+     */
+    private void discard(String bucket, String key) {
+        CompletableFuture<ReadAheadInputStream> body = pending.remove(id(bucket, key));
+        if (body != null) {
+            body.thenAccept(ReadAheadInputStream::close);
+        }
+    }
+
+    private S3AsyncClient client() {
+        if (client == null) {
+            synchronized (this) {
+                if (client == null) {
+                    client = S3Actions.buildAsyncClient(endpoint);
+                }
+            }
+        }
+        return client;
+    }
+
+    private static String id(String bucket, String key) {
+        return "s3://" + bucket + "/" + key;
+    }
+
+    @PreDestroy
+    public void close() {
+        pending.values().forEach(body -> body.thenAccept(ReadAheadInputStream::close));
+        pending.clear();
+        if (client != null) {
+            client.close();
+        }
+    }
+}
@@ -0,0 +1,41 @@
+package com.tradingzone.services.load.partition;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.batch.core.ExitStatus;
+import org.springframework.batch.core.StepExecution;
+import org.springframework.batch.core.StepExecutionListener;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+
+/**
+ * Logs and records the rows/sec of every worker step (partition) of a load.
+ */
+@Slf4j
+public class PartitionThroughputListener implements StepExecutionListener {
+
+    private final DistributionSummary rowsPerSecond;
+
+    public PartitionThroughputListener(MeterRegistry meterRegistry) {
+        this.rowsPerSecond = DistributionSummary.builder("trades.load.partition.throughput")
+                .description("Rows written per second by one load partition")
+                .baseUnit("rows/s")
+                .register(meterRegistry);
+    }
+
+    @Override
+    public ExitStatus afterStep(StepExecution stepExecution) {
+        LocalDateTime start = stepExecution.getStartTime();
+        long millis = start == null ? 0 : Math.max(1, Duration.between(start, LocalDateTime.now()).toMillis());
+        long rows = stepExecution.getWriteCount();
+        double throughput = millis == 0 ? 0 : rows * 1000.0 / millis;
+        rowsPerSecond.record(throughput);
+
+        log.info("{} wrote {} rows ({} filtered, {} skipped) in {} ms: {} rows/s",
+                stepExecution.getStepName(), rows, stepExecution.getFilterCount(),
+                stepExecution.getSkipCount(), millis, String.format("%.0f", throughput));
+        return stepExecution.getExitStatus();
+    }
+}
@@ -0,0 +1,83 @@
+package com.tradingzone.services.load.partition;
+
+import com.tradingzone.services.load.reader.TradeCsv;
+import com.tradingzone.services.load.reader.TradeSeriesFilter;
+import com.tradingzone.services.load.reader.zipextra.ZipResource;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.batch.core.partition.support.Partitioner;
+import org.springframework.batch.item.ExecutionContext;
+import org.springframework.core.io.FileSystemResource;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Splits one bhavcopy file into contiguous ranges of data lines, one per worker step.
+ *
+ * The zip is streamed once to count its data lines; header rows of every entry are not
+ * counted, matching how the readers skip them, and neither are rows the series filter
+ * drops, so partitions are balanced on the rows actually loaded. Each partition context carries the zip
+ * path, the first data line and the number of lines to read. The contexts are saved in
+ * the batch metadata tables, which is what lets a failed partition restart where it
+ * stopped. Workers stream the zip themselves, so nothing is extracted to disk.
+ */
+@Slf4j
+public class TradeFilePartitioner implements Partitioner {
+
+    public static final String FILE_PATH = "filePath";
+    public static final String START_LINE = "startLine";
+    public static final String LINE_COUNT = "lineCount";
+
+    private final String filePath;
+    private final TradeSeriesFilter seriesFilter;
+
+    public TradeFilePartitioner(String filePath) {
+        this(filePath, null);
+    }
+
+    public TradeFilePartitioner(String filePath, TradeSeriesFilter seriesFilter) {
+        this.filePath = filePath;
+        this.seriesFilter = seriesFilter;
+    }
+
+    @Override
+    public Map<String, ExecutionContext> partition(int gridSize) {
+        try {
+            int dataLines = countDataLines();
+            int partitions = Math.max(1, Math.min(gridSize, dataLines));
+            int perPartition = Math.max(1, (dataLines + partitions - 1) / partitions);
+
+            Map<String, ExecutionContext> contexts = new HashMap<>();
+            for (int i = 0, start = 0; start < Math.max(dataLines, 1); i++, start += perPartition) {
+                ExecutionContext context = new ExecutionContext();
+                context.putString(FILE_PATH, filePath);
+                context.putInt(START_LINE, start);
+                context.putInt(LINE_COUNT, Math.max(0, Math.min(perPartition, dataLines - start)));
+                contexts.put("partition" + i, context);
+            }
+            log.info("Split {} ({} rows) into {} partitions", filePath, dataLines, contexts.size());
+            return contexts;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private int countDataLines() throws IOException {
+        int lines = 0;
+        ZipResource zip = new ZipResource(new FileSystemResource(filePath));
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(zip.getInputStream(), StandardCharsets.UTF_8))) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                if (!line.startsWith(TradeCsv.HEADER_PREFIX) && (seriesFilter == null || seriesFilter.test(line))) {
+                    lines++;
+                }
+            }
+        }
+        return lines;
+    }
+}
@@ -1,21 +1,122 @@
 package com.tradingzone.services.load.processor;
 
-import com.tradingzone.services.load.reader.NonEqTradeException;
+import com.tradingzone.services.trades.analytics.PriceAnalytics;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.batch.item.ItemProcessor;
 
-public class TradeItemProcessor implements ItemProcessor<Trade, Trade> {
+import java.math.BigInteger;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+
+/**
+ * Converts a mapped row into the typed {@link TradeRecord} every writer consumes, so
+ * each value is parsed once per row instead of once per writer.
+ */
+public class TradeItemProcessor implements ItemProcessor<Trade, TradeRecord> {
 
     private static final Logger log = LoggerFactory.getLogger(TradeItemProcessor.class);
 
+    private static final DateTimeFormatter DATE_FORMAT = DateTimeFormatter.ISO_LOCAL_DATE;
+
     @Override
-    public Trade process(Trade item) throws Exception {
+    public TradeRecord process(Trade item) throws Exception {
 
+        // Readers drop other series before mapping; anything that still gets here is filtered, not skipped
         if (!"EQ".equals(item.getSctySrs())) {
-            throw new NonEqTradeException(item);
+            return null;
+        }
+        return convert(item);
+    }
+
+    public static TradeRecord convert(Trade item) {
+
+        TradeRecord trade = new TradeRecord();
+
+        trade.setTradDt(parseDate(item.getTradDt()));
+        trade.setBizDt(parseDate(item.getBizDt()));
+        trade.setSgmt(item.getSgmt());
+        trade.setSrc(item.getSrc());
+        trade.setFinInstrmTp(item.getFinInstrmTp());
+        trade.setFinInstrmId(parseInt(item.getFinInstrmId()));
+        trade.setISIN(item.getISIN());
+        trade.setTckrSymb(item.getTckrSymb());
+        trade.setSctySrs(item.getSctySrs());
+        trade.setXpryDt(parseDate(item.getXpryDt()));
+        trade.setFininstrmActlXpryDt(parseDate(item.getFininstrmActlXpryDt()));
+        trade.setStrkPric(parseDouble(item.getStrkPric()));
+        trade.setOptnTp(item.getOptnTp());
+        trade.setFinInstrmNm(item.getFinInstrmNm());
+        trade.setOpnPric(parseDouble(item.getOpnPric()));
+        trade.setHghPric(parseDouble(item.getHghPric()));
+        trade.setLwPric(parseDouble(item.getLwPric()));
+        trade.setClsPric(parseDouble(item.getClsPric()));
+        trade.setLastPric(parseDouble(item.getLastPric()));
+        trade.setPrvsClsgPric(parseDouble(item.getPrvsClsgPric()));
+        trade.setUndrlygPric(parseDouble(item.getUndrlygPric()));
+        trade.setSttlmPric(parseDouble(item.getSttlmPric()));
+
+        setPriceChange(trade);
+
+        trade.setOpnIntrst(item.getOpnIntrst());
+        trade.setChngInOpnIntrst(item.getChngInOpnIntrst());
+        trade.setTtlTradgVol(parseBigInt(item.getTtlTradgVol()));
+        trade.setTtlTrfVal(parseDouble(item.getTtlTrfVal()));
+        trade.setTtlNbOfTxsExctd(item.getTtlNbOfTxsExctd());
+        trade.setSsnId(item.getSsnId());
+        trade.setNewBrdLotQty(parseInt(item.getNewBrdLotQty()));
+        trade.setRmks(item.getRmks());
+        trade.setRsvd1(item.getRsvd1());
+        trade.setRsvd2(item.getRsvd2());
+        trade.setRsvd3(item.getRsvd3());
+        trade.setRsvd4(item.getRsvd4());
+        return trade;
+    }
+
+    private static void setPriceChange(TradeRecord trade) {
+        if (trade.getLastPric() == null || trade.getPrvsClsgPric() == null) {
+            log.debug("LastPric or PrvsClsgPric is null for {}", trade.getTckrSymb());
+            return;
+        }
+        trade.setChngePric(PriceAnalytics.change(trade.getLastPric(), trade.getPrvsClsgPric()));
+        trade.setChngePricPct(PriceAnalytics.changePct(trade.getLastPric(), trade.getPrvsClsgPric()));
+    }
+
+    private static LocalDateTime parseDate(String dateString) {
+        if (dateString == null || dateString.isEmpty()) {
+            return null;
+        }
+        try {
+            return LocalDate.parse(dateString, DATE_FORMAT).atStartOfDay();
+        } catch (DateTimeParseException pex) {
+            return null;
+        }
+    }
+
+    private static Double parseDouble(String doubleString) {
+        if(doubleString.isEmpty()){
+            return null;
+        }else{
+            return Double.parseDouble(doubleString);
+        }
+    }
+
+    private static Integer parseInt(String intString) {
+        if(intString.isEmpty()){
+            return null;
+        }else{
+            return Integer.parseInt(intString);
+        }
+    }
+
+    private static BigInteger parseBigInt(String intString) {
+        if(intString.isEmpty()){
+            return null;
+        }else{
+            return new BigInteger(intString);
         }
-        return item;
     }
 
 }
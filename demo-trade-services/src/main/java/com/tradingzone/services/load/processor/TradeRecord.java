@@ -0,0 +1,60 @@
+package com.tradingzone.services.load.processor;
+
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigInteger;
+import java.time.LocalDateTime;
+
+/**
+ * A bhavcopy row with its values already parsed, as handed to the writers.
+ *
+ * Built once per row by {@link TradeItemProcessor}; the database and cache writers only
+ * copy from it. Empty values, and dates that do not parse, are null; a number that does
+ * not parse fails the row with a {@link NumberFormatException}, which the load step skips.
+ */
+@Data
+@NoArgsConstructor
+public class TradeRecord {
+
+    private LocalDateTime tradDt ;
+    private LocalDateTime bizDt ;
+    private String sgmt ;
+    private String src ;
+    private String finInstrmTp ;
+    private Integer finInstrmId ;
+    private String iSIN ;
+    private String tckrSymb ;
+    private String sctySrs ;
+    private LocalDateTime xpryDt ;
+    private LocalDateTime fininstrmActlXpryDt ;
+    private Double strkPric ;
+    private String optnTp ;
+    private String finInstrmNm ;
+    private Double opnPric ;
+    private Double hghPric ;
+    private Double lwPric ;
+    private Double clsPric ;
+    private Double lastPric ;
+    private Double prvsClsgPric ;
+    private Double undrlygPric ;
+    private Double sttlmPric ;
+
+    // Last price against previous close, rounded to 2 decimals; null without both prices
+    private Double chngePric ;
+    private Double chngePricPct ;
+
+    private String opnIntrst ;
+    private String chngInOpnIntrst ;
+    private BigInteger ttlTradgVol ;
+    private Double ttlTrfVal ;
+    private String ttlNbOfTxsExctd ;
+    private String ssnId ;
+    private Integer newBrdLotQty ;
+    private String rmks ;
+    private String rsvd1 ;
+    private String rsvd2 ;
+    private String rsvd3 ;
+    private String rsvd4 ;
+
+}
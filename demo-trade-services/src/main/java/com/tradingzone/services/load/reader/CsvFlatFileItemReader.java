@@ -2,10 +2,7 @@ package com.tradingzone.services.load.reader;
 
 
 import org.springframework.batch.item.file.FlatFileItemReader;
-import org.springframework.batch.item.file.mapping.BeanWrapperFieldSetMapper;
 
-import org.springframework.batch.item.file.mapping.DefaultLineMapper;
-import org.springframework.batch.item.file.transform.DelimitedLineTokenizer;
 import org.springframework.core.io.ClassPathResource;
 import org.springframework.core.io.FileSystemResource;
 import org.springframework.core.io.InputStreamResource;
@@ -29,17 +26,7 @@ public class CsvFlatFileItemReader<Trade> extends FlatFileItemReader {
 
         this.setLinesToSkip(1);
 
-        this.setLineMapper(new DefaultLineMapper<>() {{
-            setLineTokenizer(new DelimitedLineTokenizer() {{
-                setDelimiter(DELIMITER_COMMA);
-                setNames("TradDt", "BizDt", "Sgmt", "Src", "FinInstrmTp", "FinInstrmId", "ISIN", "TckrSymb", "SctySrs", "XpryDt", "FininstrmActlXpryDt", "StrkPric", "OptnTp", "FinInstrmNm", "OpnPric", "HghPric", "LwPric", "ClsPric", "LastPric", "PrvsClsgPric", "UndrlygPric", "SttlmPric", "OpnIntrst", "ChngInOpnIntrst", "TtlTradgVol", "TtlTrfVal", "TtlNbOfTxsExctd", "SsnId", "NewBrdLotQty", "rmks", "rsvd1", "rsvd2", "rsvd3", "rsvd4");
-            }});
-
-            setFieldSetMapper(new BeanWrapperFieldSetMapper<>() {{
-                setTargetType((Class<? extends Trade>) com.tradingzone.services.load.processor.Trade.class);
-                //setTargetType(Trade.class);
-            }});
-        }});
+        this.setLineMapper(TradeCsv.lineMapper());
 
         //reader.setRecordSeparatorPolicy(new BlankLineRecordSeparatorPolicy());
     }
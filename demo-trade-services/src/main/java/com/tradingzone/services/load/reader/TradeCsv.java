@@ -0,0 +1,24 @@
+package com.tradingzone.services.load.reader;
+
+import com.tradingzone.services.load.processor.Trade;
+import org.springframework.batch.item.file.LineMapper;
+
+/**
+ * Column layout of the bhavcopy CSV, shared by the readers.
+ */
+public final class TradeCsv {
+
+    public static final String[] NAMES = {"TradDt", "BizDt", "Sgmt", "Src", "FinInstrmTp", "FinInstrmId", "ISIN", "TckrSymb", "SctySrs", "XpryDt", "FininstrmActlXpryDt", "StrkPric", "OptnTp", "FinInstrmNm", "OpnPric", "HghPric", "LwPric", "ClsPric", "LastPric", "PrvsClsgPric", "UndrlygPric", "SttlmPric", "OpnIntrst", "ChngInOpnIntrst", "TtlTradgVol", "TtlTrfVal", "TtlNbOfTxsExctd", "SsnId", "NewBrdLotQty", "rmks", "rsvd1", "rsvd2", "rsvd3", "rsvd4"};
+
+    /**
+     * Start of the header row, which every entry of a multi-file zip repeats.
+     */
+    public static final String HEADER_PREFIX = "TradDt,";
+
+    private TradeCsv() {
+    }
+
+    public static LineMapper<Trade> lineMapper() {
+        return new TradeLineMapper();
+    }
+}
@@ -0,0 +1,102 @@
+package com.tradingzone.services.load.reader;
+
+import com.tradingzone.services.load.processor.Trade;
+import org.springframework.batch.item.file.LineMapper;
+import org.springframework.batch.item.file.transform.IncorrectTokenCountException;
+
+/**
+ * Maps a bhavcopy row straight onto a {@link Trade} in one pass over the line.
+ *
+ * Equivalent to a non-strict {@code DelimitedLineTokenizer} with
+ * {@code BeanWrapperFieldSetMapper}: values are trimmed, quoted values may contain
+ * commas and doubled quotes, missing trailing columns are left empty and extra ones are
+ * ignored. No {@code FieldSet} is built and no property is looked up by reflection.
+ */
+public class TradeLineMapper implements LineMapper<Trade> {
+
+    @Override
+    public Trade mapLine(String line, int lineNumber) {
+        Trade trade = new Trade();
+        int length = line.length();
+        int start = 0;
+        for (int column = 0; column < TradeCsv.NAMES.length; column++) {
+            String value;
+            if (start > length) {
+                value = "";
+            } else if (start < length && line.charAt(start) == '"') {
+                StringBuilder quoted = new StringBuilder();
+                start = readQuoted(line, start + 1, quoted, lineNumber);
+                value = quoted.toString().trim();
+            } else {
+                int end = line.indexOf(',', start);
+                if (end < 0) {
+                    end = length;
+                }
+                value = line.substring(start, end).trim();
+                start = end;
+            }
+            // start is on the delimiter (or the end of the line); move past it
+            start++;
+            set(trade, column, value);
+        }
+        return trade;
+    }
+
+    private static int readQuoted(String line, int from, StringBuilder value, int lineNumber) {
+        int i = from;
+        while (i < line.length()) {
+            char c = line.charAt(i);
+            if (c == '"') {
+                if (i + 1 < line.length() && line.charAt(i + 1) == '"') {
+                    value.append('"');
+                    i += 2;
+                    continue;
+                }
+                int end = line.indexOf(',', i + 1);
+                return end < 0 ? line.length() : end;
+            }
+            value.append(c);
+            i++;
+        }
+        throw new IncorrectTokenCountException("Unterminated quote at line " + lineNumber, TradeCsv.NAMES.length, 0, line);
+    }
+
+    private static void set(Trade trade, int column, String value) {
+        switch (column) {
+            case 0 -> trade.setTradDt(value);
+            case 1 -> trade.setBizDt(value);
+            case 2 -> trade.setSgmt(value);
+            case 3 -> trade.setSrc(value);
+            case 4 -> trade.setFinInstrmTp(value);
+            case 5 -> trade.setFinInstrmId(value);
+            case 6 -> trade.setISIN(value);
+            case 7 -> trade.setTckrSymb(value);
+            case 8 -> trade.setSctySrs(value);
+            case 9 -> trade.setXpryDt(value);
+            case 10 -> trade.setFininstrmActlXpryDt(value);
+            case 11 -> trade.setStrkPric(value);
+            case 12 -> trade.setOptnTp(value);
+            case 13 -> trade.setFinInstrmNm(value);
+            case 14 -> trade.setOpnPric(value);
+            case 15 -> trade.setHghPric(value);
+            case 16 -> trade.setLwPric(value);
+            case 17 -> trade.setClsPric(value);
+            case 18 -> trade.setLastPric(value);
+            case 19 -> trade.setPrvsClsgPric(value);
+            case 20 -> trade.setUndrlygPric(value);
+            case 21 -> trade.setSttlmPric(value);
+            case 22 -> trade.setOpnIntrst(value);
+            case 23 -> trade.setChngInOpnIntrst(value);
+            case 24 -> trade.setTtlTradgVol(value);
+            case 25 -> trade.setTtlTrfVal(value);
+            case 26 -> trade.setTtlNbOfTxsExctd(value);
+            case 27 -> trade.setSsnId(value);
+            case 28 -> trade.setNewBrdLotQty(value);
+            case 29 -> trade.setRmks(value);
+            case 30 -> trade.setRsvd1(value);
+            case 31 -> trade.setRsvd2(value);
+            case 32 -> trade.setRsvd3(value);
+            default -> trade.setRsvd4(value);
+        }
+    }
+}
@@ -0,0 +1,82 @@
+package com.tradingzone.services.load.reader;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Keeps only the rows of one series (EQ by default) by looking at the raw line.
+ *
+ * Only the SctySrs column is located, so a dropped row is never tokenized or mapped to
+ * a {@link com.tradingzone.services.load.processor.Trade}. Dropped rows are counted in
+ * {@code trades.load.filtered}, tagged with their series.
+ */
+public class TradeSeriesFilter {
+
+    public static final String EQ = "EQ";
+
+    private static final int SERIES_COLUMN = 8;
+
+    private final String series;
+    private final MeterRegistry meterRegistry;
+    private final Map<String, Counter> filtered = new ConcurrentHashMap<>();
+
+    public TradeSeriesFilter(MeterRegistry meterRegistry) {
+        this(EQ, meterRegistry);
+    }
+
+    public TradeSeriesFilter(String series, MeterRegistry meterRegistry) {
+        this.series = series;
+        this.meterRegistry = meterRegistry;
+    }
+
+    /**
+     * Whether the row belongs to the series, without counting it.
+     */
+    public boolean test(String line) {
+        int start = columnStart(line);
+        if (start < 0 || !line.startsWith(series, start)) {
+            return false;
+        }
+        int end = start + series.length();
+        return end == line.length() || line.charAt(end) == ',';
+    }
+
+    /**
+     * Same as {@link #test} but counts the rows it drops.
+     */
+    public boolean accept(String line) {
+        if (test(line)) {
+            return true;
+        }
+        String dropped = seriesOf(line);
+        filtered.computeIfAbsent(dropped.isEmpty() ? "none" : dropped, s -> Counter.builder("trades.load.filtered")
+                .description("Rows dropped before mapping because of their series")
+                .tag("series", s)
+                .register(meterRegistry)).increment();
+        return false;
+    }
+
+    static String seriesOf(String line) {
+        int start = columnStart(line);
+        if (start < 0) {
+            return "";
+        }
+        int end = line.indexOf(',', start);
+        return line.substring(start, end < 0 ? line.length() : end);
+    }
+
+    private static int columnStart(String line) {
+        int start = 0;
+        for (int i = 0; i < SERIES_COLUMN; i++) {
+            int comma = line.indexOf(',', start);
+            if (comma < 0) {
+                return -1;
+            }
+            start = comma + 1;
+        }
+        return start;
+    }
+}
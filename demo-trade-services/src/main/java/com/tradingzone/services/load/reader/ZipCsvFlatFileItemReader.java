@@ -1,60 +1,74 @@
 package com.tradingzone.services.load.reader;
 
-import org.apache.commons.io.FileUtils;
+import com.tradingzone.services.load.reader.zipextra.ZipBufferedReaderFactory;
 import org.springframework.batch.item.file.FlatFileItemReader;
-import org.springframework.batch.item.file.mapping.BeanWrapperFieldSetMapper;
-import org.springframework.batch.item.file.mapping.DefaultLineMapper;
-import org.springframework.batch.item.file.transform.DelimitedLineTokenizer;
+import org.springframework.batch.item.file.LineMapper;
 import org.springframework.core.io.FileSystemResource;
-
-import java.io.*;
-import java.util.Enumeration;
-import java.util.zip.ZipEntry;
-import java.util.zip.ZipFile;
+import org.springframework.core.io.Resource;
 
 public class ZipCsvFlatFileItemReader<Trade> extends FlatFileItemReader<Trade> {
 
+    private TradeSeriesFilter seriesFilter;
+
+    // Set while the reader skips to its start line or restart point, so those rows are not counted again
+    private boolean positioning;
+
     public ZipCsvFlatFileItemReader(String filePath ){
-        super();
-        String path = "/tmp/";
-        String filepath = path+"tmp.csv";
-        try (ZipFile zipFile = new ZipFile(filePath)) {
-
-            Enumeration<? extends ZipEntry> entries = zipFile.entries();
-            while (entries.hasMoreElements()) {
-                ZipEntry entry = entries.nextElement();
-                // Check if entry is a directory
-                if (!entry.isDirectory()) {
-                    try (InputStream inputStream = zipFile.getInputStream(entry)) {
-                        // Read and process the entry contents using the inputStream
-
-                        File file = new File(filepath);
-                        FileUtils.copyInputStreamToFile(inputStream, file);
-                        this.setResource(new FileSystemResource(file));
-                    }
-                }
-            }
-        } catch (IOException ex) {
-            throw new RuntimeException(ex);
-        }
+        this(new FileSystemResource(filePath));
+    }
 
-        this.setLinesToSkip(1);
+    public ZipCsvFlatFileItemReader(Resource zip){
+        super();
+        // Entries are inflated while the lines are read, nothing is extracted to disk
+        this.setResource(zip);
+        this.setBufferedReaderFactory(new ZipBufferedReaderFactory());
 
-        this.setLineMapper(new DefaultLineMapper<>() {{
-            setLineTokenizer(new DelimitedLineTokenizer() {{
-                setDelimiter(DELIMITER_COMMA);
-                setNames("TradDt", "BizDt", "Sgmt", "Src", "FinInstrmTp", "FinInstrmId", "ISIN", "TckrSymb", "SctySrs", "XpryDt", "FininstrmActlXpryDt", "StrkPric", "OptnTp", "FinInstrmNm", "OpnPric", "HghPric", "LwPric", "ClsPric", "LastPric", "PrvsClsgPric", "UndrlygPric", "SttlmPric", "OpnIntrst", "ChngInOpnIntrst", "TtlTradgVol", "TtlTrfVal", "TtlNbOfTxsExctd", "SsnId", "NewBrdLotQty", "rmks", "rsvd1", "rsvd2", "rsvd3", "rsvd4");
-                setStrict(false);
-            }});
+        // Every entry starts with the header row, so skip headers wherever they appear
+        this.setComments(new String[]{TradeCsv.HEADER_PREFIX});
 
-            setFieldSetMapper(new BeanWrapperFieldSetMapper<>() {{
-                setTargetType((Class<? extends Trade>) com.tradingzone.services.load.processor.Trade.class);
-                //setTargetType(Trade.class);
-            }});
-        }});
+        this.setLineMapper((LineMapper) TradeCsv.lineMapper());
 
         //reader.setRecordSeparatorPolicy(new BlankLineRecordSeparatorPolicy());
     }
 
+    /**
+     * Drops rows of other series before they are mapped. Dropped rows are skipped like
+     * comments, so they count neither as items nor towards linesToSkip.
+     */
+    public void setSeriesFilter(TradeSeriesFilter seriesFilter) {
+        this.seriesFilter = seriesFilter;
+    }
+
+    @Override
+    protected boolean isComment(String line) {
+        if (super.isComment(line)) {
+            return true;
+        }
+        if (seriesFilter == null) {
+            return false;
+        }
+        return positioning ? !seriesFilter.test(line) : !seriesFilter.accept(line);
+    }
+
+    @Override
+    protected void doOpen() throws Exception {
+        positioning = true;
+        try {
+            super.doOpen();
+        } finally {
+            positioning = false;
+        }
+    }
+
+    @Override
+    protected void jumpToItem(int itemIndex) throws Exception {
+        positioning = true;
+        try {
+            super.jumpToItem(itemIndex);
+        } finally {
+            positioning = false;
+        }
+    }
+
 }
 
@@ -8,19 +8,16 @@ import java.io.IOException;
 import java.io.InputStreamReader;
 import java.io.UnsupportedEncodingException;
 
+/**
+ * Lets a flat file reader read a zip resource as the text of its entries, streamed
+ * through {@link ZipResource}.
+ */
 public class ZipBufferedReaderFactory implements BufferedReaderFactory {
-    private ZipResource zipResource;
-
-    public ZipBufferedReaderFactory (ZipResource zipResource){
-        this.zipResource = zipResource;
-    }
 
     @Override
     public BufferedReader create(Resource resource, String encoding) throws UnsupportedEncodingException, IOException {
 
-        return new BufferedReader(new InputStreamReader(zipResource.getInputStream()));
-
-        //return new BufferedReader(new InputStreamReader(new ZipInputStream(resource.getInputStream())));
+        return new BufferedReader(new InputStreamReader(new ZipResource(resource).getInputStream(), encoding));
 
     }
 }
@@ -1,14 +1,112 @@
 package com.tradingzone.services.load.reader.zipextra;
 
-import org.springframework.core.io.InputStreamResource;
+import org.springframework.core.io.AbstractResource;
 import org.springframework.core.io.Resource;
 
 import java.io.IOException;
+import java.io.InputStream;
+import java.util.zip.ZipEntry;
 import java.util.zip.ZipInputStream;
 
-class ZipResource extends InputStreamResource implements Resource {
+/**
+ * The decompressed content of every file entry of a zip, one after the other.
+ *
+ * Entries are inflated while they are read, nothing is extracted to disk. A newline is
+ * inserted between entries that do not end with one, so the first line of an entry
+ * never joins the last line of the previous one. Each call to {@link #getInputStream()}
+ * reopens the delegate, which is what a restarted reader relies on.
+ */
+public class ZipResource extends AbstractResource {
 
-    public ZipResource(Resource delegate) throws IOException {
-        super(new ZipInputStream(delegate.getInputStream()));
+    private final Resource delegate;
+
+    public ZipResource(Resource delegate) {
+        this.delegate = delegate;
+    }
+
+    @Override
+    public boolean exists() {
+        return delegate.exists();
+    }
+
+    @Override
+    public boolean isReadable() {
+        return delegate.isReadable();
+    }
+
+    @Override
+    public String getDescription() {
+        return "zip entries of " + delegate.getDescription();
+    }
+
+    @Override
+    public InputStream getInputStream() throws IOException {
+        return new EntriesInputStream(new ZipInputStream(delegate.getInputStream()));
+    }
+
+    private static final class EntriesInputStream extends InputStream {
+
+        private final ZipInputStream zip;
+        private boolean inEntry;
+        private boolean finished;
+        private boolean pendingNewline;
+        private int last = '\n';
+
+        EntriesInputStream(ZipInputStream zip) {
+            this.zip = zip;
+        }
+
+        @Override
+        public int read() throws IOException {
+            byte[] one = new byte[1];
+            return read(one, 0, 1) == -1 ? -1 : one[0] & 0xFF;
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) throws IOException {
+            if (len == 0) {
+                return 0;
+            }
+            while (true) {
+                if (pendingNewline) {
+                    pendingNewline = false;
+                    b[off] = '\n';
+                    last = '\n';
+                    return 1;
+                }
+                if (finished) {
+                    return -1;
+                }
+                if (!inEntry) {
+                    if (!nextEntry()) {
+                        finished = true;
+                    }
+                    continue;
+                }
+                int n = zip.read(b, off, len);
+                if (n > 0) {
+                    last = b[off + n - 1];
+                    return n;
+                }
+                inEntry = false;
+                pendingNewline = last != '\n';
+            }
+        }
+
+        private boolean nextEntry() throws IOException {
+            ZipEntry entry;
+            while ((entry = zip.getNextEntry()) != null) {
+                if (!entry.isDirectory()) {
+                    inEntry = true;
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        @Override
+        public void close() throws IOException {
+            zip.close();
+        }
     }
 }
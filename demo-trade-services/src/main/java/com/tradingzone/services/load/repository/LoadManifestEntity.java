@@ -0,0 +1,26 @@
+package com.tradingzone.services.load.repository;
+
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.sql.Timestamp;
+
+/**
+ * Last successful load of an S3 object, see LOAD_MANIFEST in schema.sql.
+ */
+@Entity
+@Table(name = "LOAD_MANIFEST")
+@Data
+@NoArgsConstructor
+public class LoadManifestEntity {
+
+    private @Id String s3Key ;
+    private String eTag ;
+    private Long size ;
+    private Long jobExecutionId ;
+    private Timestamp loadedAt ;
+
+}
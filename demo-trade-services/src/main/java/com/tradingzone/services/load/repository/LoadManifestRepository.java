@@ -0,0 +1,8 @@
+package com.tradingzone.services.load.repository;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public interface LoadManifestRepository extends JpaRepository<LoadManifestEntity, String> {
+}
@@ -0,0 +1,32 @@
+package com.tradingzone.services.load.writer;
+
+import io.micrometer.core.instrument.Timer;
+import org.springframework.batch.item.Chunk;
+import org.springframework.batch.item.ItemWriter;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Records how long the delegate takes per chunk, so writers can be compared on the
+ * same load.
+ */
+public class TimedItemWriter<T> implements ItemWriter<T> {
+
+    private final ItemWriter<T> delegate;
+    private final Timer timer;
+
+    public TimedItemWriter(ItemWriter<T> delegate, Timer timer) {
+        this.delegate = delegate;
+        this.timer = timer;
+    }
+
+    @Override
+    public void write(Chunk<? extends T> chunk) throws Exception {
+        long start = System.nanoTime();
+        try {
+            delegate.write(chunk);
+        } finally {
+            timer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        }
+    }
+}
@@ -0,0 +1,96 @@
+package com.tradingzone.services.load.writer;
+
+import com.tradingzone.services.load.processor.TradeRecord;
+import org.springframework.batch.item.Chunk;
+import org.springframework.batch.item.ItemWriter;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Types;
+import java.util.List;
+
+/**
+ * Writes a chunk to TRADES as one JDBC batch of upserts.
+ *
+ * {@link TradeJpaWriter} issues a SELECT and an INSERT per row because of the composite
+ * key. Here the whole chunk goes out in a single executeBatch, which Connector/J turns
+ * into multi-row INSERTs when the pool sets {@code rewriteBatchedStatements=true}.
+ * Reloading a file updates the existing rows in place.
+ */
+public class TradeJdbcBatchWriter implements ItemWriter<TradeRecord> {
+
+    static final String UPSERT_TRADE = "INSERT INTO TRADES (TradDt, BizDt, Sgmt, Src, FinInstrmTp, FinInstrmId, ISIN, TckrSymb, SctySrs,"
+            + " XpryDt, FininstrmActlXpryDt, StrkPric, OptnTp, FinInstrmNm, OpnPric, HghPric, LwPric, ClsPric, LastPric,"
+            + " PrvsClsgPric, UndrlygPric, SttlmPric, OpnIntrst, ChngInOpnIntrst, TtlTradgVol, TtlTrfVal, TtlNbOfTxsExctd,"
+            + " SsnId, NewBrdLotQty, Rmks, Rsvd1, Rsvd2, Rsvd3, Rsvd4)"
+            + " VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)"
+            + " ON DUPLICATE KEY UPDATE BizDt = VALUES(BizDt), Sgmt = VALUES(Sgmt), Src = VALUES(Src),"
+            + " FinInstrmTp = VALUES(FinInstrmTp), ISIN = VALUES(ISIN), TckrSymb = VALUES(TckrSymb), SctySrs = VALUES(SctySrs),"
+            + " XpryDt = VALUES(XpryDt), FininstrmActlXpryDt = VALUES(FininstrmActlXpryDt), StrkPric = VALUES(StrkPric),"
+            + " OptnTp = VALUES(OptnTp), FinInstrmNm = VALUES(FinInstrmNm), OpnPric = VALUES(OpnPric), HghPric = VALUES(HghPric),"
+            + " LwPric = VALUES(LwPric), ClsPric = VALUES(ClsPric), LastPric = VALUES(LastPric), PrvsClsgPric = VALUES(PrvsClsgPric),"
+            + " UndrlygPric = VALUES(UndrlygPric), SttlmPric = VALUES(SttlmPric), OpnIntrst = VALUES(OpnIntrst),"
+            + " ChngInOpnIntrst = VALUES(ChngInOpnIntrst), TtlTradgVol = VALUES(TtlTradgVol), TtlTrfVal = VALUES(TtlTrfVal),"
+            + " TtlNbOfTxsExctd = VALUES(TtlNbOfTxsExctd), SsnId = VALUES(SsnId), NewBrdLotQty = VALUES(NewBrdLotQty),"
+            + " Rmks = VALUES(Rmks), Rsvd1 = VALUES(Rsvd1), Rsvd2 = VALUES(Rsvd2), Rsvd3 = VALUES(Rsvd3), Rsvd4 = VALUES(Rsvd4)";
+
+    @Autowired
+    JdbcTemplate jdbcTemplate;
+
+    @Override
+    public void write(Chunk<? extends TradeRecord> chunk) throws Exception {
+        if (chunk.isEmpty()) {
+            return;
+        }
+        List<? extends TradeRecord> trades = chunk.getItems();
+        jdbcTemplate.batchUpdate(UPSERT_TRADE, trades, trades.size(), TradeJdbcBatchWriter::bind);
+    }
+
+    static void bind(PreparedStatement ps, TradeRecord trade) throws SQLException {
+        int i = 1;
+        ps.setTimestamp(i++, TradeJpaWriter.timestamp(trade.getTradDt()));
+        ps.setTimestamp(i++, TradeJpaWriter.timestamp(trade.getBizDt()));
+        ps.setString(i++, trade.getSgmt());
+        ps.setString(i++, trade.getSrc());
+        ps.setString(i++, trade.getFinInstrmTp());
+        setNullable(ps, i++, trade.getFinInstrmId(), Types.INTEGER);
+        ps.setString(i++, trade.getISIN());
+        ps.setString(i++, trade.getTckrSymb());
+        ps.setString(i++, trade.getSctySrs());
+        ps.setTimestamp(i++, TradeJpaWriter.timestamp(trade.getXpryDt()));
+        ps.setTimestamp(i++, TradeJpaWriter.timestamp(trade.getFininstrmActlXpryDt()));
+        setNullable(ps, i++, trade.getStrkPric(), Types.DOUBLE);
+        ps.setString(i++, trade.getOptnTp());
+        ps.setString(i++, trade.getFinInstrmNm());
+        setNullable(ps, i++, trade.getOpnPric(), Types.DOUBLE);
+        setNullable(ps, i++, trade.getHghPric(), Types.DOUBLE);
+        setNullable(ps, i++, trade.getLwPric(), Types.DOUBLE);
+        setNullable(ps, i++, trade.getClsPric(), Types.DOUBLE);
+        setNullable(ps, i++, trade.getLastPric(), Types.DOUBLE);
+        setNullable(ps, i++, trade.getPrvsClsgPric(), Types.DOUBLE);
+        setNullable(ps, i++, trade.getUndrlygPric(), Types.DOUBLE);
+        setNullable(ps, i++, trade.getSttlmPric(), Types.DOUBLE);
+        ps.setString(i++, trade.getOpnIntrst());
+        ps.setString(i++, trade.getChngInOpnIntrst());
+        setNullable(ps, i++, trade.getTtlTradgVol() == null ? null : trade.getTtlTradgVol().longValue(), Types.BIGINT);
+        setNullable(ps, i++, trade.getTtlTrfVal(), Types.DOUBLE);
+        ps.setString(i++, trade.getTtlNbOfTxsExctd());
+        ps.setString(i++, trade.getSsnId());
+        setNullable(ps, i++, trade.getNewBrdLotQty(), Types.INTEGER);
+        ps.setString(i++, trade.getRmks());
+        ps.setString(i++, trade.getRsvd1());
+        ps.setString(i++, trade.getRsvd2());
+        ps.setString(i++, trade.getRsvd3());
+        ps.setString(i, trade.getRsvd4());
+    }
+
+    private static void setNullable(PreparedStatement ps, int index, Object value, int sqlType) throws SQLException {
+        if (value == null) {
+            ps.setNull(index, sqlType);
+        } else {
+            ps.setObject(index, value, sqlType);
+        }
+    }
+}
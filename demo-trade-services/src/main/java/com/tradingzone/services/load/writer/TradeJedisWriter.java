@@ -1,29 +1,39 @@
 package com.tradingzone.services.load.writer;
 
 import com.google.gson.Gson;
-import com.tradingzone.services.load.processor.Trade;
+import com.tradingzone.services.load.processor.TradeRecord;
+import com.tradingzone.services.redis.codec.TradeCodec;
 import com.tradingzone.services.redis.repositories.TradeCache;
 import com.tradingzone.services.redis.repositories.TradeJedisCache;
 import com.tradingzone.services.redis.repositories.TradeRedisRepository;
+import com.tradingzone.services.redis.service.InstrumentMaster;
+import com.tradingzone.services.redis.service.SymbolIndex;
+import com.tradingzone.services.redis.service.TradeEventBus;
+import com.tradingzone.services.trades.analytics.PriceAnalytics;
+import com.tradingzone.services.trades.history.ColumnarHistoryStore;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
 import org.springframework.batch.item.Chunk;
 import org.springframework.batch.item.ItemWriter;
+import org.springframework.batch.item.WriteFailedException;
 import org.springframework.beans.factory.annotation.Autowired;
+import redis.clients.jedis.PipelineBase;
 import redis.clients.jedis.UnifiedJedis;
 import redis.clients.jedis.params.ZAddParams;
 
 import java.math.BigDecimal;
-import java.math.BigInteger;
-import java.math.MathContext;
-import java.math.RoundingMode;
-import java.text.DecimalFormat;
-import java.time.LocalDateTime;
 import java.time.ZoneId;
 import java.time.ZonedDateTime;
-import java.time.format.DateTimeFormatter;
-import java.util.Locale;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.concurrent.TimeUnit;
 
-public class TradeJedisWriter implements ItemWriter<Trade> {
+@Slf4j
+public class TradeJedisWriter implements ItemWriter<TradeRecord> {
 
     @Autowired
     private UnifiedJedis unifiedJedis;
@@ -31,76 +41,120 @@ public class TradeJedisWriter implements ItemWriter<Trade> {
     @Autowired
     private Gson gson;
 
+    @Autowired
+    private TradeEventBus tradeEventBus;
 
-    @Override
-    public void write(Chunk<? extends Trade> chunk) throws Exception {
+    @Autowired
+    private TradeCodec tradeCodec;
 
-        chunk.forEach(trade -> {
-            TradeJedisCache tradeCache = null;
-            try {
-                tradeCache =  processCacheEntity(trade);
+    @Autowired
+    private InstrumentMaster instrumentMaster;
 
-                unifiedJedis.hset("Trades",tradeCache.getTckrSymb(), gson.toJson(tradeCache.getTradDt()));
+    @Autowired
+    private ColumnarHistoryStore columnarHistoryStore;
 
-                unifiedJedis.zadd("TradeDates",
-                        ZonedDateTime.of(tradeCache.getTradDt(), ZoneId.systemDefault()).toInstant().toEpochMilli(),
-                        gson.toJson(tradeCache.getTradDt()),
-                        new ZAddParams().lt());
+    @Autowired
+    private MeterRegistry meterRegistry;
 
+    private Timer chunkTimer;
 
-                unifiedJedis.zadd(tradeCache.getTckrSymb(),
-                        ZonedDateTime.of(tradeCache.getTradDt(), ZoneId.systemDefault()).toInstant().toEpochMilli(),
-                        gson.toJson(tradeCache),
-                        new ZAddParams().lt());
+    @PostConstruct
+    public void init() {
+        chunkTimer = Timer.builder("trades.load.redis.write")
+                .description("Time to write one chunk to Redis in a single pipeline")
+                .register(meterRegistry);
+    }
 
+    /**
+     * Writes the chunk in one pipeline. Instruments are registered first so bars of
+     * known symbols are stored without their reference data, the Trades hash and
+     * TradeDates get each symbol and date once, and price events follow the bar writes
+     * in the same round trip. A bar replaces whatever the symbol holds at its score, so
+     * reloading a day stored in the other encoding does not leave it there twice.
+     */
+    @Override
+    public void write(Chunk<? extends TradeRecord> chunk) throws Exception {
+        if (chunk.isEmpty()) {
+            return;
+        }
+        List<TradeJedisCache> trades = new ArrayList<TradeJedisCache>(chunk.size());
+        for (TradeRecord trade : chunk) {
+            trades.add(processCacheEntity(trade));
+        }
 
-            } catch (Exception e) {
-                //throw new RuntimeException(e);
-                e.printStackTrace();
+        // Fails the chunk, TRADES included, so the step stops here and a restart repairs it
+        try {
+            instrumentMaster.registerAll(trades);
+
+            Map<String, String> latestDates = new LinkedHashMap<String, String>();
+            Map<String, Double> tradeDates = new LinkedHashMap<String, Double>();
+            long start = System.nanoTime();
+            try (PipelineBase pipeline = unifiedJedis.pipelined()) {
+                for (TradeJedisCache tradeCache : trades) {
+                    double score = ZonedDateTime.of(tradeCache.getTradDt(), ZoneId.systemDefault()).toInstant().toEpochMilli();
+                    String date = gson.toJson(tradeCache.getTradDt());
+                    SymbolIndex.keepLatest(latestDates, tradeCache.getTckrSymb(), date);
+                    tradeDates.put(date, score);
+
+                    byte[] key = tradeCodec.key(tradeCache.getTckrSymb());
+                    pipeline.zremrangeByScore(key, score, score);
+                    pipeline.zadd(key, score, tradeCodec.encode(tradeCache), new ZAddParams().lt());
+                }
+                // Partitions and files finish in any order, a date only ever moves forward
+                SymbolIndex.advanceLatestDates(pipeline, SymbolIndex.TRADES_KEY, latestDates);
+                pipeline.zadd("TradeDates", tradeDates, new ZAddParams().lt());
+                pipeline.publish(TradeEventBus.SYMBOL_CHANNEL, String.valueOf(latestDates.size()));
+                for (String symbol : latestDates.keySet()) {
+                    pipeline.publish(TradeEventBus.PRICE_CHANNEL, symbol);
+                }
+                pipeline.sync();
             }
+            chunkTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        } catch (Exception e) {
+            throw new WriteFailedException("Failed to write " + trades.size() + " trades to Redis", e);
+        }
 
-        });
+        for (TradeJedisCache tradeCache : trades) {
+            columnarHistoryStore.upsert(tradeCache);
+        }
     }
 
 
-    private TradeJedisCache processCacheEntity(Trade item) throws Exception {
-
-        //System.out.println("Trade item "+ item.toString());
+    private TradeJedisCache processCacheEntity(TradeRecord item) {
 
         TradeJedisCache tradeCache = new TradeJedisCache();
 
-        tradeCache.setTradDt(parseDate(item.getTradDt()));
-        tradeCache.setBizDt(parseDate(item.getBizDt()));
+        tradeCache.setTradDt(item.getTradDt());
+        tradeCache.setBizDt(item.getBizDt());
         tradeCache.setSgmt(item.getSgmt());
         tradeCache.setSrc(item.getSrc());
         tradeCache.setFinInstrmTp(item.getFinInstrmTp());
-        tradeCache.setFinInstrmId(parseInt(item.getFinInstrmId()));
+        tradeCache.setFinInstrmId(item.getFinInstrmId());
         tradeCache.setISIN(item.getISIN());
         tradeCache.setTckrSymb(item.getTckrSymb());
         tradeCache.setSctySrs(item.getSctySrs());
-        tradeCache.setXpryDt(parseDate(item.getXpryDt()));
-        tradeCache.setFininstrmActlXpryDt(parseDate(item.getFininstrmActlXpryDt()));
-        tradeCache.setStrkPric(parseDouble(item.getStrkPric()));
+        tradeCache.setXpryDt(item.getXpryDt());
+        tradeCache.setFininstrmActlXpryDt(item.getFininstrmActlXpryDt());
+        tradeCache.setStrkPric(item.getStrkPric());
         tradeCache.setOptnTp(item.getOptnTp());
         tradeCache.setFinInstrmNm(item.getFinInstrmNm());
-        tradeCache.setOpnPric(parseDouble(item.getOpnPric()));
-        tradeCache.setHghPric(parseDouble(item.getHghPric()));
-        tradeCache.setLwPric(parseDouble(item.getLwPric()));
-        tradeCache.setClsPric(parseDouble(item.getClsPric()));
-        tradeCache.setLastPric(parseDouble(item.getLastPric()));
-        tradeCache.setPrvsClsgPric(parseDouble(item.getPrvsClsgPric()));
-        tradeCache.setUndrlygPric(parseDouble(item.getUndrlygPric()));
-        tradeCache.setSttlmPric(parseDouble(item.getSttlmPric()));
-
-        setPriceChange(tradeCache);
-
+        tradeCache.setOpnPric(item.getOpnPric());
+        tradeCache.setHghPric(item.getHghPric());
+        tradeCache.setLwPric(item.getLwPric());
+        tradeCache.setClsPric(item.getClsPric());
+        tradeCache.setLastPric(item.getLastPric());
+        tradeCache.setPrvsClsgPric(item.getPrvsClsgPric());
+        tradeCache.setUndrlygPric(item.getUndrlygPric());
+        tradeCache.setSttlmPric(item.getSttlmPric());
+        tradeCache.setChngePric(decimal(item.getChngePric()));
+        tradeCache.setChngePricPct(decimal(item.getChngePricPct()));
         tradeCache.setOpnIntrst(item.getOpnIntrst());
         tradeCache.setChngInOpnIntrst(item.getChngInOpnIntrst());
-        tradeCache.setTtlTradgVol(parseBigInt(item.getTtlTradgVol()));
-        tradeCache.setTtlTrfVal(parseDouble(item.getTtlTrfVal()));
+        tradeCache.setTtlTradgVol(item.getTtlTradgVol());
+        tradeCache.setTtlTrfVal(item.getTtlTrfVal());
         tradeCache.setTtlNbOfTxsExctd(item.getTtlNbOfTxsExctd());
         tradeCache.setSsnId(item.getSsnId());
-        tradeCache.setNewBrdLotQty(parseInt(item.getNewBrdLotQty()));
+        tradeCache.setNewBrdLotQty(item.getNewBrdLotQty());
         tradeCache.setRmks(item.getRmks());
         tradeCache.setRsvd1(item.getRsvd1());
         tradeCache.setRsvd2(item.getRsvd2());
@@ -109,72 +163,8 @@ public class TradeJedisWriter implements ItemWriter<Trade> {
         return tradeCache;
     }
 
-    private void setPriceChange(TradeJedisCache tradeCache){
-        DecimalFormat df = new DecimalFormat("#,###.##");
-        MathContext mc = new MathContext(2);
-
-        if(tradeCache.getLastPric() != null && tradeCache.getPrvsClsgPric() != null ){
-            BigDecimal lp = new BigDecimal(tradeCache.getLastPric());
-            BigDecimal cp = new BigDecimal(tradeCache.getPrvsClsgPric());
-            BigDecimal chngeDbl = lp.subtract(cp, mc);
-            chngeDbl.setScale(2, RoundingMode.UP);
-            tradeCache.setChngePric(chngeDbl);
-            MathContext pctmc = new MathContext(1);
-            BigDecimal changePct = (chngeDbl.divide(lp,pctmc)).multiply(new BigDecimal("100"),pctmc);
-            changePct.setScale(2, RoundingMode.UP);
-            tradeCache.setChngePricPct(changePct);
-        }else{
-            System.out.println("LastPric or PrvsClsgPric is null : "+ tradeCache.toString());
-        }
-
-    }
-
-    private LocalDateTime parseDate(String dateString) {
-
-        LocalDateTime timestamp = null;
-        String pattern = "yyyy-MM-dd HH:mm:ss";
-        DateTimeFormatter formatter = DateTimeFormatter.ofPattern(pattern, Locale.ENGLISH);
-
-        try{
-
-            //LocalDate locDate = LocalDate.parse(dateString + " 00:00:00", formatter);
-            //timestamp = Timestamp.valueOf(locDate.atStartOfDay());
-
-
-            timestamp = LocalDateTime.parse(dateString + " 00:00:00", formatter);
-            //timestamp = Timestamp.valueOf(dateTime);
-
-
-            //LocalDateTime localDateTime = LocalDateTime.from(formatter.parse(dateString));
-            //timestamp = Timestamp.valueOf(localDateTime);
-        }catch(Exception pex){
-            return null;
-        }
-        return timestamp;
-    }
-
-    private Double parseDouble(String doubleString) {
-        if(doubleString.isEmpty()){
-            return null;
-        }else{
-            return Double.parseDouble(doubleString);
-        }
-    }
-
-    private Integer parseInt(String intString) {
-        if(intString.isEmpty()){
-            return null;
-        }else{
-            return Integer.parseInt(intString);
-        }
-    }
-
-    private BigInteger parseBigInt(String intString) {
-        if(intString.isEmpty()){
-            return null;
-        }else{
-            return new BigInteger(intString);
-        }
+    private static BigDecimal decimal(Double value) {
+        return value == null ? null : PriceAnalytics.decimal(PriceAnalytics.toHundredths(value));
     }
 
 }
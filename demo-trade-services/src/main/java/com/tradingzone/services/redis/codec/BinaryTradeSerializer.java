@@ -0,0 +1,289 @@
+package com.tradingzone.services.redis.codec;
+
+import com.tradingzone.services.redis.repositories.TradeJedisCache;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.Arrays;
+
+/**
+ * Compact, schema driven bar encoding.
+ *
+ * Layout: magic byte, version byte, 8 byte presence bitmap indexed by {@link TradeField}
+ * ordinal, then every present field in schema order. Null fields take no space.
+ * Version 2 bars are stored without their reference fields and carry the 8 byte version
+ * of that instrument data right after the bitmap.
+ * The magic byte can never start a JSON document, which is what lets readers tell
+ * the two formats apart.
+ */
+public class BinaryTradeSerializer implements TradeSerializer {
+
+    public static final String FORMAT = "binary";
+
+    static final byte MAGIC = (byte) 0xB7;
+    static final byte VERSION = 1;
+    static final byte VERSION_SPLIT = 2;
+
+    private static final TradeField[] FIELDS = TradeField.values();
+
+    /** Number of schema fields written by each format version, indexed by version */
+    private static final int[] FIELD_COUNT = {0, 36, 36};
+
+    private final StringDictionary dictionary;
+
+    public BinaryTradeSerializer() {
+        this(16384);
+    }
+
+    public BinaryTradeSerializer(int dictionaryCapacity) {
+        this.dictionary = new StringDictionary(dictionaryCapacity);
+    }
+
+    @Override
+    public String format() {
+        return FORMAT;
+    }
+
+    @Override
+    public byte[] encode(TradeJedisCache trade) {
+        return encode(trade, 0);
+    }
+
+    /**
+     * Encodes the trade leaving out the fields whose bits are set in {@code excludedFields}.
+     */
+    byte[] encode(TradeJedisCache trade, long excludedFields) {
+        return encode(trade, excludedFields, 0);
+    }
+
+    /**
+     * Same as {@link #encode(TradeJedisCache, long)}, recording the version of the left out
+     * instrument data when it is not 0.
+     */
+    byte[] encode(TradeJedisCache trade, long excludedFields, long instrumentVersion) {
+        long presence = 0;
+        for (TradeField field : FIELDS) {
+            if ((excludedFields & (1L << field.ordinal())) == 0 && field.getter.apply(trade) != null) {
+                presence |= 1L << field.ordinal();
+            }
+        }
+
+        Output out = new Output(128);
+        out.writeByte(MAGIC);
+        out.writeByte(instrumentVersion == 0 ? VERSION : VERSION_SPLIT);
+        out.writeLong(presence);
+        if (instrumentVersion != 0) {
+            out.writeLong(instrumentVersion);
+        }
+        for (TradeField field : FIELDS) {
+            if ((presence & (1L << field.ordinal())) != 0) {
+                writeValue(out, field.type, field.getter.apply(trade));
+            }
+        }
+        return out.toByteArray();
+    }
+
+    @Override
+    public TradeJedisCache decode(byte[] data) {
+        if (!canDecode(data) || data.length < 10) {
+            throw new IllegalArgumentException("Not a binary trade member");
+        }
+        int version = data[1];
+        if (version < 1 || version >= FIELD_COUNT.length) {
+            throw new IllegalArgumentException("Unsupported binary trade version " + version);
+        }
+
+        Input in = new Input(data, 2);
+        long presence = in.readLong();
+        if (version == VERSION_SPLIT) {
+            in.readLong();
+        }
+        TradeJedisCache trade = new TradeJedisCache();
+        int fieldCount = FIELD_COUNT[version];
+        for (int i = 0; i < fieldCount; i++) {
+            if ((presence & (1L << i)) != 0) {
+                TradeField field = FIELDS[i];
+                field.setter.accept(trade, readValue(in, field.type));
+            }
+        }
+        return trade;
+    }
+
+    /**
+     * @return the version of the instrument data a bar was stored without, or 0 when the
+     * bar does not carry one
+     */
+    static long instrumentVersion(byte[] data) {
+        if (data.length < 18 || data[0] != MAGIC || data[1] != VERSION_SPLIT) {
+            return 0;
+        }
+        return new Input(data, 10).readLong();
+    }
+
+    @Override
+    public boolean canDecode(byte[] data) {
+        return data.length > 1 && data[0] == MAGIC;
+    }
+
+    private static void writeValue(Output out, TradeField.Type type, Object value) {
+        switch (type) {
+            case TIMESTAMP -> {
+                LocalDateTime dateTime = (LocalDateTime) value;
+                out.writeLong(dateTime.toEpochSecond(ZoneOffset.UTC) * 1000 + dateTime.getNano() / 1_000_000);
+            }
+            case INT -> out.writeVarLong(zigzag((Integer) value));
+            case DOUBLE -> out.writeLong(Double.doubleToRawLongBits((Double) value));
+            case DECIMAL -> {
+                BigDecimal decimal = (BigDecimal) value;
+                out.writeVarLong(zigzag(decimal.scale()));
+                writeBigInteger(out, decimal.unscaledValue());
+            }
+            case BIG_INTEGER -> writeBigInteger(out, (BigInteger) value);
+            case STRING, DICTIONARY -> {
+                byte[] bytes = ((String) value).getBytes(StandardCharsets.UTF_8);
+                out.writeVarLong(bytes.length);
+                out.writeBytes(bytes);
+            }
+        }
+    }
+
+    private Object readValue(Input in, TradeField.Type type) {
+        return switch (type) {
+            case TIMESTAMP -> {
+                long millis = in.readLong();
+                yield LocalDateTime.ofEpochSecond(Math.floorDiv(millis, 1000),
+                        Math.floorMod(millis, 1000) * 1_000_000, ZoneOffset.UTC);
+            }
+            case INT -> (int) unzigzag(in.readVarLong());
+            case DOUBLE -> Double.longBitsToDouble(in.readLong());
+            case DECIMAL -> {
+                int scale = (int) unzigzag(in.readVarLong());
+                yield new BigDecimal(readBigInteger(in), scale);
+            }
+            case BIG_INTEGER -> readBigInteger(in);
+            case STRING -> {
+                int length = (int) in.readVarLong();
+                String value = new String(in.buf, in.pos, length, StandardCharsets.UTF_8);
+                in.pos += length;
+                yield value;
+            }
+            case DICTIONARY -> {
+                int length = (int) in.readVarLong();
+                String value = dictionary.lookup(in.buf, in.pos, length);
+                in.pos += length;
+                yield value;
+            }
+        };
+    }
+
+    private static void writeBigInteger(Output out, BigInteger value) {
+        if (value.bitLength() < 64) {
+            out.writeByte((byte) 0);
+            out.writeVarLong(zigzag(value.longValue()));
+        } else {
+            byte[] bytes = value.toByteArray();
+            out.writeByte((byte) 1);
+            out.writeVarLong(bytes.length);
+            out.writeBytes(bytes);
+        }
+    }
+
+    private static BigInteger readBigInteger(Input in) {
+        if (in.buf[in.pos++] == 0) {
+            return BigInteger.valueOf(unzigzag(in.readVarLong()));
+        }
+        int length = (int) in.readVarLong();
+        BigInteger value = new BigInteger(in.buf, in.pos, length);
+        in.pos += length;
+        return value;
+    }
+
+    private static long zigzag(long value) {
+        return (value << 1) ^ (value >> 63);
+    }
+
+    private static long unzigzag(long value) {
+        return (value >>> 1) ^ -(value & 1);
+    }
+
+    private static final class Output {
+
+        private byte[] buf;
+        private int pos;
+
+        Output(int capacity) {
+            this.buf = new byte[capacity];
+        }
+
+        void writeByte(byte value) {
+            ensure(1);
+            buf[pos++] = value;
+        }
+
+        void writeBytes(byte[] bytes) {
+            ensure(bytes.length);
+            System.arraycopy(bytes, 0, buf, pos, bytes.length);
+            pos += bytes.length;
+        }
+
+        void writeLong(long value) {
+            ensure(8);
+            for (int shift = 56; shift >= 0; shift -= 8) {
+                buf[pos++] = (byte) (value >>> shift);
+            }
+        }
+
+        void writeVarLong(long value) {
+            ensure(10);
+            while ((value & ~0x7FL) != 0) {
+                buf[pos++] = (byte) ((value & 0x7F) | 0x80);
+                value >>>= 7;
+            }
+            buf[pos++] = (byte) value;
+        }
+
+        byte[] toByteArray() {
+            return Arrays.copyOf(buf, pos);
+        }
+
+        private void ensure(int extra) {
+            if (pos + extra > buf.length) {
+                buf = Arrays.copyOf(buf, Math.max(buf.length * 2, pos + extra));
+            }
+        }
+    }
+
+    private static final class Input {
+
+        private final byte[] buf;
+        private int pos;
+
+        Input(byte[] buf, int pos) {
+            this.buf = buf;
+            this.pos = pos;
+        }
+
+        long readLong() {
+            long value = 0;
+            for (int i = 0; i < 8; i++) {
+                value = (value << 8) | (buf[pos++] & 0xFF);
+            }
+            return value;
+        }
+
+        long readVarLong() {
+            long value = 0;
+            int shift = 0;
+            byte b;
+            do {
+                b = buf[pos++];
+                value |= (long) (b & 0x7F) << shift;
+                shift += 7;
+            } while ((b & 0x80) != 0);
+            return value;
+        }
+    }
+}
@@ -0,0 +1,40 @@
+package com.tradingzone.services.redis.codec;
+
+import com.google.gson.Gson;
+import com.tradingzone.services.redis.repositories.TradeJedisCache;
+
+import java.nio.charset.StandardCharsets;
+
+/**
+ * The original Gson member format, kept for reading existing data and as a rollback target.
+ */
+public class JsonTradeSerializer implements TradeSerializer {
+
+    public static final String FORMAT = "json";
+
+    private final Gson gson;
+
+    public JsonTradeSerializer(Gson gson) {
+        this.gson = gson;
+    }
+
+    @Override
+    public String format() {
+        return FORMAT;
+    }
+
+    @Override
+    public byte[] encode(TradeJedisCache trade) {
+        return gson.toJson(trade).getBytes(StandardCharsets.UTF_8);
+    }
+
+    @Override
+    public TradeJedisCache decode(byte[] data) {
+        return gson.fromJson(new String(data, StandardCharsets.UTF_8), TradeJedisCache.class);
+    }
+
+    @Override
+    public boolean canDecode(byte[] data) {
+        return data.length > 0 && data[0] == '{';
+    }
+}
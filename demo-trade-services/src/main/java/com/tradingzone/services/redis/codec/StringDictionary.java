@@ -0,0 +1,54 @@
+package com.tradingzone.services.redis.codec;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+/**
+ * Fixed size intern table for the low cardinality strings of a bar (symbol, ISIN, segment,
+ * series, ...). Lookups hash the encoded bytes in place, so a repeated value is returned as
+ * the same String instance without decoding or allocating. Slots are written racily but
+ * entries are immutable, so a lost update only costs a later decode. When the probe window
+ * is full the value is decoded without being interned.
+ */
+final class StringDictionary {
+
+    private static final int MAX_PROBES = 8;
+
+    private final Entry[] slots;
+    private final int mask;
+
+    StringDictionary(int capacity) {
+        int size = Integer.highestOneBit(Math.max(16, capacity - 1)) << 1;
+        this.slots = new Entry[size];
+        this.mask = size - 1;
+    }
+
+    String lookup(byte[] buf, int offset, int length) {
+        int hash = hash(buf, offset, length);
+        for (int probe = 0; probe < MAX_PROBES; probe++) {
+            int index = (hash + probe) & mask;
+            Entry entry = slots[index];
+            if (entry == null) {
+                String value = new String(buf, offset, length, StandardCharsets.UTF_8);
+                slots[index] = new Entry(hash, Arrays.copyOfRange(buf, offset, offset + length), value);
+                return value;
+            }
+            if (entry.hash == hash
+                    && Arrays.equals(entry.bytes, 0, entry.bytes.length, buf, offset, offset + length)) {
+                return entry.value;
+            }
+        }
+        return new String(buf, offset, length, StandardCharsets.UTF_8);
+    }
+
+    private static int hash(byte[] buf, int offset, int length) {
+        int h = 1;
+        for (int i = offset; i < offset + length; i++) {
+            h = 31 * h + buf[i];
+        }
+        return h ^ (h >>> 16);
+    }
+
+    private record Entry(int hash, byte[] bytes, String value) {
+    }
+}
@@ -0,0 +1,107 @@
+package com.tradingzone.services.redis.codec;
+
+import com.google.gson.Gson;
+import com.tradingzone.services.redis.repositories.TradeJedisCache;
+import com.tradingzone.services.redis.service.InstrumentMaster;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import redis.clients.jedis.util.SafeEncoder;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Entry point for reading and writing symbol sorted set members.
+ *
+ * New members are written with the serializer selected by {@code trades.codec.write}
+ * (json or binary). Reads always detect the member format, so both encodings can sit in
+ * the same sorted set while data is migrated, and switching the write format back is safe.
+ *
+ * With {@code trades.instrument.split} (on by default) binary bars leave out the reference fields once the
+ * {@link InstrumentMaster} has stored that exact version of them, and keep the version.
+ * Reads fill the fields from the version the bar was written with, so later changes to a
+ * symbol's reference data do not rewrite its history. Bars trimmed before versions were
+ * kept get the symbol's current data, as they always did.
+ */
+@Slf4j
+@Component
+public class TradeCodec {
+
+    private final TradeSerializer json;
+    private final BinaryTradeSerializer binary;
+    private final TradeSerializer writer;
+    private final InstrumentMaster instrumentMaster;
+    private final boolean split;
+
+    @Autowired
+    public TradeCodec(Gson gson,
+                      @Value("${trades.codec.write:binary}") String writeFormat,
+                      InstrumentMaster instrumentMaster,
+                      @Value("${trades.instrument.split:true}") boolean split) {
+        this.json = new JsonTradeSerializer(gson);
+        this.binary = new BinaryTradeSerializer();
+        this.writer = BinaryTradeSerializer.FORMAT.equalsIgnoreCase(writeFormat) ? binary : json;
+        this.instrumentMaster = instrumentMaster;
+        this.split = split && instrumentMaster != null;
+        log.info("Writing trade members as {}{}", writer.format(), this.split && writer == binary ? " without instrument data" : "");
+    }
+
+    public TradeCodec(Gson gson, String writeFormat) {
+        this(gson, writeFormat, null, false);
+    }
+
+    public byte[] key(String symbol) {
+        return SafeEncoder.encode(symbol);
+    }
+
+    public byte[] encode(TradeJedisCache trade) {
+        if (split && writer == binary) {
+            long instrumentVersion = instrumentMaster.storedVersion(trade);
+            if (instrumentVersion != 0) {
+                return binary.encode(trade, TradeField.REFERENCE_FIELDS, instrumentVersion);
+            }
+        }
+        return writer.encode(trade);
+    }
+
+    public TradeJedisCache decode(byte[] member) {
+        if (!binary.canDecode(member)) {
+            return json.decode(member);
+        }
+        TradeJedisCache trade = binary.decode(member);
+        if (instrumentMaster == null) {
+            return trade;
+        }
+        long instrumentVersion = BinaryTradeSerializer.instrumentVersion(member);
+        if (instrumentVersion != 0) {
+            instrumentMaster.enrich(trade, instrumentVersion);
+        } else if (trade.getISIN() == null) {
+            instrumentMaster.enrich(trade);
+        }
+        return trade;
+    }
+
+    public List<TradeJedisCache> decodeAll(List<byte[]> members) {
+        List<TradeJedisCache> trades = new ArrayList<TradeJedisCache>(members.size());
+        for (byte[] member : members) {
+            trades.add(decode(member));
+        }
+        return trades;
+    }
+
+    /**
+     * @return the member re-encoded with the current settings, or null when it is already
+     * stored that way
+     */
+    public byte[] migrate(byte[] member) {
+        byte[] encoded = encode(decode(member));
+        return Arrays.equals(encoded, member) ? null : encoded;
+    }
+
+    public String writeFormat() {
+        return writer.format();
+    }
+}
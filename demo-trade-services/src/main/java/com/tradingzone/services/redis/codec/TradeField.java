@@ -0,0 +1,92 @@
+package com.tradingzone.services.redis.codec;
+
+import com.tradingzone.services.redis.repositories.TradeJedisCache;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.time.LocalDateTime;
+import java.util.function.BiConsumer;
+import java.util.function.Function;
+
+/**
+ * Field schema of the binary trade format. The declaration order is the wire order and
+ * the ordinal is the bit in the presence bitmap, so fields may only be appended, together
+ * with a new {@link BinaryTradeSerializer#VERSION}.
+ */
+enum TradeField {
+
+    TRAD_DT(Type.TIMESTAMP, TradeJedisCache::getTradDt, (t, v) -> t.setTradDt((LocalDateTime) v)),
+    BIZ_DT(Type.TIMESTAMP, TradeJedisCache::getBizDt, (t, v) -> t.setBizDt((LocalDateTime) v)),
+    SGMT(Type.DICTIONARY, TradeJedisCache::getSgmt, (t, v) -> t.setSgmt((String) v)),
+    SRC(Type.DICTIONARY, TradeJedisCache::getSrc, (t, v) -> t.setSrc((String) v)),
+    FIN_INSTRM_TP(Type.DICTIONARY, TradeJedisCache::getFinInstrmTp, (t, v) -> t.setFinInstrmTp((String) v)),
+    FIN_INSTRM_ID(Type.INT, TradeJedisCache::getFinInstrmId, (t, v) -> t.setFinInstrmId((Integer) v)),
+    ISIN(Type.DICTIONARY, TradeJedisCache::getISIN, (t, v) -> t.setISIN((String) v)),
+    TCKR_SYMB(Type.DICTIONARY, TradeJedisCache::getTckrSymb, (t, v) -> t.setTckrSymb((String) v)),
+    SCTY_SRS(Type.DICTIONARY, TradeJedisCache::getSctySrs, (t, v) -> t.setSctySrs((String) v)),
+    XPRY_DT(Type.TIMESTAMP, TradeJedisCache::getXpryDt, (t, v) -> t.setXpryDt((LocalDateTime) v)),
+    FININSTRM_ACTL_XPRY_DT(Type.TIMESTAMP, TradeJedisCache::getFininstrmActlXpryDt, (t, v) -> t.setFininstrmActlXpryDt((LocalDateTime) v)),
+    STRK_PRIC(Type.DOUBLE, TradeJedisCache::getStrkPric, (t, v) -> t.setStrkPric((Double) v)),
+    OPTN_TP(Type.DICTIONARY, TradeJedisCache::getOptnTp, (t, v) -> t.setOptnTp((String) v)),
+    FIN_INSTRM_NM(Type.DICTIONARY, TradeJedisCache::getFinInstrmNm, (t, v) -> t.setFinInstrmNm((String) v)),
+    OPN_PRIC(Type.DOUBLE, TradeJedisCache::getOpnPric, (t, v) -> t.setOpnPric((Double) v)),
+    HGH_PRIC(Type.DOUBLE, TradeJedisCache::getHghPric, (t, v) -> t.setHghPric((Double) v)),
+    LW_PRIC(Type.DOUBLE, TradeJedisCache::getLwPric, (t, v) -> t.setLwPric((Double) v)),
+    CLS_PRIC(Type.DOUBLE, TradeJedisCache::getClsPric, (t, v) -> t.setClsPric((Double) v)),
+    LAST_PRIC(Type.DOUBLE, TradeJedisCache::getLastPric, (t, v) -> t.setLastPric((Double) v)),
+    PRVS_CLSG_PRIC(Type.DOUBLE, TradeJedisCache::getPrvsClsgPric, (t, v) -> t.setPrvsClsgPric((Double) v)),
+    UNDRLYG_PRIC(Type.DOUBLE, TradeJedisCache::getUndrlygPric, (t, v) -> t.setUndrlygPric((Double) v)),
+    STTLM_PRIC(Type.DOUBLE, TradeJedisCache::getSttlmPric, (t, v) -> t.setSttlmPric((Double) v)),
+    CHNGE_PRIC(Type.DECIMAL, TradeJedisCache::getChngePric, (t, v) -> t.setChngePric((BigDecimal) v)),
+    CHNGE_PRIC_PCT(Type.DECIMAL, TradeJedisCache::getChngePricPct, (t, v) -> t.setChngePricPct((BigDecimal) v)),
+    OPN_INTRST(Type.STRING, TradeJedisCache::getOpnIntrst, (t, v) -> t.setOpnIntrst((String) v)),
+    CHNG_IN_OPN_INTRST(Type.STRING, TradeJedisCache::getChngInOpnIntrst, (t, v) -> t.setChngInOpnIntrst((String) v)),
+    TTL_TRADG_VOL(Type.BIG_INTEGER, TradeJedisCache::getTtlTradgVol, (t, v) -> t.setTtlTradgVol((BigInteger) v)),
+    TTL_TRF_VAL(Type.DOUBLE, TradeJedisCache::getTtlTrfVal, (t, v) -> t.setTtlTrfVal((Double) v)),
+    TTL_NB_OF_TXS_EXCTD(Type.STRING, TradeJedisCache::getTtlNbOfTxsExctd, (t, v) -> t.setTtlNbOfTxsExctd((String) v)),
+    SSN_ID(Type.DICTIONARY, TradeJedisCache::getSsnId, (t, v) -> t.setSsnId((String) v)),
+    NEW_BRD_LOT_QTY(Type.INT, TradeJedisCache::getNewBrdLotQty, (t, v) -> t.setNewBrdLotQty((Integer) v)),
+    RMKS(Type.DICTIONARY, TradeJedisCache::getRmks, (t, v) -> t.setRmks((String) v)),
+    RSVD1(Type.STRING, TradeJedisCache::getRsvd1, (t, v) -> t.setRsvd1((String) v)),
+    RSVD2(Type.STRING, TradeJedisCache::getRsvd2, (t, v) -> t.setRsvd2((String) v)),
+    RSVD3(Type.STRING, TradeJedisCache::getRsvd3, (t, v) -> t.setRsvd3((String) v)),
+    RSVD4(Type.STRING, TradeJedisCache::getRsvd4, (t, v) -> t.setRsvd4((String) v));
+
+    enum Type {
+        /** epoch millis as if the local date time were UTC, 8 bytes */
+        TIMESTAMP,
+        /** zigzag varint */
+        INT,
+        /** IEEE 754, 8 bytes */
+        DOUBLE,
+        /** zigzag varint scale followed by the unscaled value as a BIG_INTEGER */
+        DECIMAL,
+        /** zigzag varlong when it fits, else length prefixed two's complement bytes */
+        BIG_INTEGER,
+        /** varint length prefixed UTF-8 */
+        STRING,
+        /** STRING on the wire, decoded through the shared {@link StringDictionary} */
+        DICTIONARY
+    }
+
+    /** Static reference data, kept in the instrument master rather than on every bar */
+    static final long REFERENCE_FIELDS = mask(SGMT, SRC, FIN_INSTRM_TP, FIN_INSTRM_ID, ISIN, SCTY_SRS, FIN_INSTRM_NM, NEW_BRD_LOT_QTY);
+
+    final Type type;
+    final Function<TradeJedisCache, Object> getter;
+    final BiConsumer<TradeJedisCache, Object> setter;
+
+    TradeField(Type type, Function<TradeJedisCache, Object> getter, BiConsumer<TradeJedisCache, Object> setter) {
+        this.type = type;
+        this.getter = getter;
+        this.setter = setter;
+    }
+
+    private static long mask(TradeField... fields) {
+        long mask = 0;
+        for (TradeField field : fields) {
+            mask |= 1L << field.ordinal();
+        }
+        return mask;
+    }
+}
@@ -0,0 +1,20 @@
+package com.tradingzone.services.redis.codec;
+
+import com.tradingzone.services.redis.repositories.TradeJedisCache;
+
+/**
+ * Encoding of a {@link TradeJedisCache} bar as a symbol sorted set member.
+ */
+public interface TradeSerializer {
+
+    String format();
+
+    byte[] encode(TradeJedisCache trade);
+
+    TradeJedisCache decode(byte[] data);
+
+    /**
+     * @return true when the member was written by this serializer
+     */
+    boolean canDecode(byte[] data);
+}
@@ -0,0 +1,24 @@
+package com.tradingzone.services.redis.repositories;
+
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Static reference data of a symbol, stored once per symbol in the "Instruments" hash
+ * instead of on every bar.
+ */
+@Data
+@NoArgsConstructor
+public class InstrumentJedisCache {
+
+    private String tckrSymb ;
+    private String sgmt ;
+    private String src ;
+    private String finInstrmTp ;
+    private Integer finInstrmId ;
+    private String iSIN ;
+    private String sctySrs ;
+    private String finInstrmNm ;
+    private Integer newBrdLotQty ;
+
+}
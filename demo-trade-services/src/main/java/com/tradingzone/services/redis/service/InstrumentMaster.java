@@ -0,0 +1,256 @@
+package com.tradingzone.services.redis.service;
+
+import com.google.gson.Gson;
+import com.tradingzone.services.redis.repositories.InstrumentJedisCache;
+import com.tradingzone.services.redis.repositories.TradeJedisCache;
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+import redis.clients.jedis.PipelineBase;
+import redis.clients.jedis.UnifiedJedis;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Local copy of the "Instruments" hash (symbol to reference data).
+ *
+ * The load job registers every row; Redis is only written when a symbol is new or its
+ * reference data changed, and other instances are told to drop their copy through
+ * {@link TradeEventBus#INSTRUMENT_CHANNEL}. Reads are served from memory and fall back
+ * to a single HGET for symbols not seen yet.
+ *
+ * Every distinct set of reference values of a symbol is also kept, write once, in the
+ * "InstrumentVersions" hash under {@code <symbol>:<version>}, where the version is a hash
+ * of the values. Bars stored without reference data carry that version and are filled
+ * from it, so they read back exactly as written whatever the symbol holds today.
+ */
+@Slf4j
+@Component
+public class InstrumentMaster {
+
+    public static final String INSTRUMENTS_KEY = "Instruments";
+    public static final String VERSIONS_KEY = "InstrumentVersions";
+
+    private final Map<String, InstrumentJedisCache> instruments = new ConcurrentHashMap<>();
+    // Versions known to be in Redis; they never change, so need no invalidation
+    private final Map<String, InstrumentJedisCache> versions = new ConcurrentHashMap<>();
+
+    @Autowired
+    private UnifiedJedis unifiedJedis;
+
+    @Autowired
+    private Gson gson;
+
+    @Autowired
+    private TradeEventBus tradeEventBus;
+
+    @PostConstruct
+    public void init() {
+        tradeEventBus.subscribe(TradeEventBus.INSTRUMENT_CHANNEL, instruments::remove);
+        try {
+            Map<String, String> all = unifiedJedis.hgetAll(INSTRUMENTS_KEY);
+            for (Map.Entry<String, String> entry : all.entrySet()) {
+                instruments.put(entry.getKey(), gson.fromJson(entry.getValue(), InstrumentJedisCache.class));
+            }
+            log.info("Loaded {} instruments", instruments.size());
+        } catch (Exception e) {
+            log.warn("Could not load instruments, they will be read on demand: {}", e.getMessage());
+        }
+    }
+
+    public InstrumentJedisCache get(String symbol) {
+        InstrumentJedisCache instrument = instruments.get(symbol);
+        if (instrument == null && symbol != null) {
+            String json = unifiedJedis.hget(INSTRUMENTS_KEY, symbol);
+            if (json != null) {
+                instrument = gson.fromJson(json, InstrumentJedisCache.class);
+                instruments.put(symbol, instrument);
+            }
+        }
+        return instrument;
+    }
+
+    /**
+     * Stores the reference data of the trade if it is new or differs from the master.
+     */
+    public void register(TradeJedisCache trade) {
+        registerAll(List.of(trade));
+    }
+
+    /**
+     * Same as {@link #register} for a whole chunk: symbols not held locally are read with
+     * one HMGET and all changes are written and announced in one pipeline.
+     */
+    public void registerAll(Collection<? extends TradeJedisCache> trades) {
+        List<String> unknown = new ArrayList<>();
+        for (TradeJedisCache trade : trades) {
+            if (trade.getTckrSymb() != null && !instruments.containsKey(trade.getTckrSymb())) {
+                unknown.add(trade.getTckrSymb());
+            }
+        }
+        if (!unknown.isEmpty()) {
+            List<String> stored = unifiedJedis.hmget(INSTRUMENTS_KEY, unknown.toArray(new String[0]));
+            for (int i = 0; i < unknown.size(); i++) {
+                if (stored.get(i) != null) {
+                    instruments.put(unknown.get(i), gson.fromJson(stored.get(i), InstrumentJedisCache.class));
+                }
+            }
+        }
+
+        Map<String, String> changed = new HashMap<>();
+        Map<String, InstrumentJedisCache> newVersions = new HashMap<>();
+        for (TradeJedisCache trade : trades) {
+            if (trade.getTckrSymb() == null) {
+                continue;
+            }
+            InstrumentJedisCache instrument = toInstrument(trade);
+            String versionKey = versionKey(trade.getTckrSymb(), version(instrument));
+            if (!versions.containsKey(versionKey)) {
+                newVersions.put(versionKey, instrument);
+            }
+            if (!matches(instruments.get(trade.getTckrSymb()), trade)) {
+                instruments.put(trade.getTckrSymb(), instrument);
+                changed.put(trade.getTckrSymb(), gson.toJson(instrument));
+            }
+        }
+        if (changed.isEmpty() && newVersions.isEmpty()) {
+            return;
+        }
+        try (PipelineBase pipeline = unifiedJedis.pipelined()) {
+            if (!newVersions.isEmpty()) {
+                Map<String, String> json = new HashMap<>();
+                newVersions.forEach((versionKey, instrument) -> json.put(versionKey, gson.toJson(instrument)));
+                // Same key, same values: rewriting a version another writer stored is harmless
+                pipeline.hset(VERSIONS_KEY, json);
+            }
+            if (!changed.isEmpty()) {
+                pipeline.hset(INSTRUMENTS_KEY, changed);
+            }
+            for (String symbol : changed.keySet()) {
+                pipeline.publish(TradeEventBus.INSTRUMENT_CHANNEL, symbol);
+            }
+            pipeline.sync();
+        }
+        // Only once they are in Redis may bars be stored without them
+        versions.putAll(newVersions);
+    }
+
+    /**
+     * @return the version of the trade's reference data when that version is stored, so
+     * the bar can be stored without it, else 0
+     */
+    public long storedVersion(TradeJedisCache trade) {
+        if (trade.getTckrSymb() == null) {
+            return 0;
+        }
+        long version = version(toInstrument(trade));
+        return versions.containsKey(versionKey(trade.getTckrSymb(), version)) ? version : 0;
+    }
+
+    /**
+     * Fills the reference fields of a bar that was stored without them, from the version
+     * it was stored with.
+     */
+    public void enrich(TradeJedisCache trade, long version) {
+        String versionKey = versionKey(trade.getTckrSymb(), version);
+        InstrumentJedisCache instrument = versions.get(versionKey);
+        if (instrument == null) {
+            String json = unifiedJedis.hget(VERSIONS_KEY, versionKey);
+            if (json != null) {
+                instrument = gson.fromJson(json, InstrumentJedisCache.class);
+                versions.put(versionKey, instrument);
+            } else {
+                // The current data still serves when it is the same version
+                InstrumentJedisCache current = get(trade.getTckrSymb());
+                if (current != null && version(current) == version) {
+                    instrument = current;
+                }
+            }
+        }
+        if (instrument == null) {
+            log.warn("Instrument version {} missing, reference fields of the bar are left empty", versionKey);
+            return;
+        }
+        apply(trade, instrument);
+    }
+
+    /**
+     * Fills the reference fields of a bar trimmed before versions were stored, from the
+     * symbol's current data.
+     */
+    public void enrich(TradeJedisCache trade) {
+        InstrumentJedisCache instrument = get(trade.getTckrSymb());
+        if (instrument == null) {
+            log.warn("Instrument {} missing, reference fields of the bar are left empty", trade.getTckrSymb());
+            return;
+        }
+        apply(trade, instrument);
+    }
+
+    /**
+     * Hash of the reference values, the same in every instance; never 0.
+     */
+    public static long version(InstrumentJedisCache instrument) {
+        String values = String.join("\u0001", String.valueOf(instrument.getTckrSymb()),
+                String.valueOf(instrument.getSgmt()), String.valueOf(instrument.getSrc()),
+                String.valueOf(instrument.getFinInstrmTp()), String.valueOf(instrument.getFinInstrmId()),
+                String.valueOf(instrument.getISIN()), String.valueOf(instrument.getSctySrs()),
+                String.valueOf(instrument.getFinInstrmNm()), String.valueOf(instrument.getNewBrdLotQty()));
+        // 64 bit FNV-1a
+        long hash = 0xcbf29ce484222325L;
+        for (byte b : values.getBytes(StandardCharsets.UTF_8)) {
+            hash ^= b & 0xFF;
+            hash *= 0x100000001b3L;
+        }
+        return hash == 0 ? 1 : hash;
+    }
+
+    private static String versionKey(String symbol, long version) {
+        return symbol + ":" + Long.toHexString(version);
+    }
+
+    private static void apply(TradeJedisCache trade, InstrumentJedisCache instrument) {
+        trade.setSgmt(instrument.getSgmt());
+        trade.setSrc(instrument.getSrc());
+        trade.setFinInstrmTp(instrument.getFinInstrmTp());
+        trade.setFinInstrmId(instrument.getFinInstrmId());
+        trade.setISIN(instrument.getISIN());
+        trade.setSctySrs(instrument.getSctySrs());
+        trade.setFinInstrmNm(instrument.getFinInstrmNm());
+        trade.setNewBrdLotQty(instrument.getNewBrdLotQty());
+    }
+
+    private static boolean matches(InstrumentJedisCache instrument, TradeJedisCache trade) {
+        return instrument != null
+                && Objects.equals(instrument.getSgmt(), trade.getSgmt())
+                && Objects.equals(instrument.getSrc(), trade.getSrc())
+                && Objects.equals(instrument.getFinInstrmTp(), trade.getFinInstrmTp())
+                && Objects.equals(instrument.getFinInstrmId(), trade.getFinInstrmId())
+                && Objects.equals(instrument.getISIN(), trade.getISIN())
+                && Objects.equals(instrument.getSctySrs(), trade.getSctySrs())
+                && Objects.equals(instrument.getFinInstrmNm(), trade.getFinInstrmNm())
+                && Objects.equals(instrument.getNewBrdLotQty(), trade.getNewBrdLotQty());
+    }
+
+    static InstrumentJedisCache toInstrument(TradeJedisCache trade) {
+        InstrumentJedisCache instrument = new InstrumentJedisCache();
+        instrument.setTckrSymb(trade.getTckrSymb());
+        instrument.setSgmt(trade.getSgmt());
+        instrument.setSrc(trade.getSrc());
+        instrument.setFinInstrmTp(trade.getFinInstrmTp());
+        instrument.setFinInstrmId(trade.getFinInstrmId());
+        instrument.setISIN(trade.getISIN());
+        instrument.setSctySrs(trade.getSctySrs());
+        instrument.setFinInstrmNm(trade.getFinInstrmNm());
+        instrument.setNewBrdLotQty(trade.getNewBrdLotQty());
+        return instrument;
+    }
+}
@@ -0,0 +1,173 @@
+package com.tradingzone.services.redis.service;
+
+import com.tradingzone.services.redis.repositories.TradeJedisCache;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Heap cache of the last trade per symbol, used by {@link TradeJedisService#fetchLatestPrice}.
+ *
+ * Entries are dropped as soon as a writer publishes a price event for the symbol and
+ * otherwise expire after {@code trades.latest-price.cache.ttl-seconds}, which covers
+ * events lost while the subscription was down. A hit is a map lookup and returns the
+ * shared cached instance, so callers must treat it as read only.
+ *
+ * A load brackets its Redis read with {@link #stamp} and {@link #release}. Versions come
+ * from one counter shared by all symbols; an invalidation of a symbol with a load in
+ * flight leaves a marker with a new version, so the overlapping load is discarded, and
+ * the marker goes when the last load ends. Other invalidations just drop the entry.
+ * Writes take the cache's lock and evict the least recently written entry; the highest
+ * version evicted is kept as a floor that loads of uncached symbols must not predate.
+ */
+@Slf4j
+@Component
+public class LatestPriceCache {
+
+    private final Map<String, Entry> entries = new ConcurrentHashMap<>();
+    // Below, guarded by the cache
+    // Keys of the entries from least to most recently written
+    private final Set<String> order = new LinkedHashSet<>();
+    // Symbols with loads in flight and how many
+    private final Map<String, Integer> loading = new HashMap<>();
+    private long clock;
+    // Highest version of an evicted entry or marker
+    private long floor;
+
+    private final TradeEventBus tradeEventBus;
+
+    private final int maxSize;
+    private final long ttlNanos;
+
+    private final Counter hits;
+    private final Counter misses;
+    private final Counter evictions;
+
+    public LatestPriceCache(MeterRegistry meterRegistry,
+                            TradeEventBus tradeEventBus,
+                            @Value("${trades.latest-price.cache.max-size:5000}") int maxSize,
+                            @Value("${trades.latest-price.cache.ttl-seconds:30}") long ttlSeconds) {
+        this.tradeEventBus = tradeEventBus;
+        this.maxSize = maxSize;
+        this.ttlNanos = TimeUnit.SECONDS.toNanos(ttlSeconds);
+
+        this.hits = Counter.builder("trades.latest-price.cache").tag("result", "hit").register(meterRegistry);
+        this.misses = Counter.builder("trades.latest-price.cache").tag("result", "miss").register(meterRegistry);
+        this.evictions = Counter.builder("trades.latest-price.cache.evictions").register(meterRegistry);
+        meterRegistry.gaugeMapSize("trades.latest-price.cache.size", List.of(), entries);
+    }
+
+    @PostConstruct
+    public void init() {
+        tradeEventBus.subscribe(TradeEventBus.PRICE_CHANNEL, this::invalidate);
+    }
+
+    /**
+     * @return the cached trade, or null when absent, invalidated or expired
+     */
+    public TradeJedisCache get(String symbol) {
+        Entry entry = entries.get(symbol);
+        if (entry != null && entry.trade != null && System.nanoTime() - entry.loadedAt < ttlNanos) {
+            hits.increment();
+            return entry.trade;
+        }
+        misses.increment();
+        return null;
+    }
+
+    /**
+     * Starts a load of the symbol from Redis and returns the version to pass back to
+     * {@link #put}. A load that raced with an invalidation is then discarded instead of
+     * caching a stale bar. Every stamp must be followed by a {@link #release}.
+     */
+    public synchronized long stamp(String symbol) {
+        loading.merge(symbol, 1, Integer::sum);
+        return clock;
+    }
+
+    public synchronized void put(String symbol, TradeJedisCache trade, long stamp) {
+        Entry current = entries.get(symbol);
+        long version = current == null ? floor : current.version;
+        if (version <= stamp) {
+            write(symbol, new Entry(trade, stamp, System.nanoTime()));
+        }
+    }
+
+    /**
+     * Ends a load started with {@link #stamp}, whether or not it was put.
+     */
+    public synchronized void release(String symbol) {
+        Integer count = loading.get(symbol);
+        if (count == null) {
+            return;
+        }
+        if (count > 1) {
+            loading.put(symbol, count - 1);
+            return;
+        }
+        loading.remove(symbol);
+        Entry entry = entries.get(symbol);
+        if (entry != null && entry.trade == null) {
+            remove(symbol);
+        }
+    }
+
+    public synchronized void invalidate(String symbol) {
+        long version = ++clock;
+        if (loading.containsKey(symbol)) {
+            write(symbol, new Entry(null, version, 0));
+        } else {
+            remove(symbol);
+        }
+    }
+
+    public synchronized void clear() {
+        floor = Math.max(floor, clock);
+        entries.clear();
+        order.clear();
+    }
+
+    synchronized int size() {
+        return entries.size();
+    }
+
+    private void write(String symbol, Entry entry) {
+        if (entries.put(symbol, entry) != null) {
+            order.remove(symbol);
+        }
+        order.add(symbol);
+        while (entries.size() > maxSize) {
+            evictOldest();
+        }
+    }
+
+    private void remove(String symbol) {
+        if (entries.remove(symbol) != null) {
+            order.remove(symbol);
+        }
+    }
+
+    private void evictOldest() {
+        Iterator<String> oldest = order.iterator();
+        Entry evicted = entries.remove(oldest.next());
+        oldest.remove();
+        // Loads of the symbol stamped before this version must not be cached any more
+        floor = Math.max(floor, evicted.version);
+        evictions.increment();
+    }
+
+    private record Entry(TradeJedisCache trade, long version, long loadedAt) {
+    }
+}
@@ -0,0 +1,163 @@
+package com.tradingzone.services.redis.service;
+
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import redis.clients.jedis.PipelineBase;
+import redis.clients.jedis.UnifiedJedis;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Local copy of the "Trades" hash: every loaded symbol and the date of its latest bar.
+ *
+ * The hash is read once into an immutable {@link Snapshot} that all callers share. The
+ * load writer publishes on {@link TradeEventBus#SYMBOL_CHANNEL} after it updates the
+ * hash, which marks the snapshot stale on every instance; the next read reloads it.
+ * Snapshots also expire after {@code trades.symbol-index.ttl-seconds}, which covers
+ * events lost while the subscription was down. If a reload fails the previous snapshot
+ * is kept.
+ */
+@Slf4j
+@Component
+public class SymbolIndex {
+
+    public static final String TRADES_KEY = "Trades";
+
+    // Sets each symbol's date only when the hash holds none or an earlier one. Dates are
+    // compared by their digits, yyyyMMddHHmmss, so files finishing out of order cannot
+    // move a symbol back to an older day.
+    private static final String ADVANCE_SCRIPT =
+            "local function t(d) return tonumber((string.gsub(d, '%D', ''))) end "
+            + "for i = 1, #ARGV, 2 do "
+            + "local current = redis.call('HGET', KEYS[1], ARGV[i]) "
+            + "if not current or t(current) < t(ARGV[i + 1]) then "
+            + "redis.call('HSET', KEYS[1], ARGV[i], ARGV[i + 1]) end "
+            + "end return 0";
+
+    @Autowired
+    private UnifiedJedis unifiedJedis;
+
+    @Autowired
+    private TradeEventBus tradeEventBus;
+
+    @Value("${trades.symbol-index.ttl-seconds:60}")
+    private long ttlSeconds;
+
+    private final Object loadLock = new Object();
+
+    private volatile Snapshot snapshot;
+    private volatile boolean stale = true;
+
+    @PostConstruct
+    public void init() {
+        tradeEventBus.subscribe(TradeEventBus.SYMBOL_CHANNEL, message -> stale = true);
+    }
+
+    /**
+     * Queues an update of the hash at {@code key} that moves each symbol's latest date
+     * forward only.
+     */
+    public static void advanceLatestDates(PipelineBase pipeline, String key, Map<String, String> latestDates) {
+        List<String> args = new ArrayList<>(latestDates.size() * 2);
+        for (Map.Entry<String, String> entry : latestDates.entrySet()) {
+            args.add(entry.getKey());
+            args.add(entry.getValue());
+        }
+        pipeline.eval(ADVANCE_SCRIPT, List.of(key), args);
+    }
+
+    /**
+     * Records the date for the symbol unless a later one is already recorded; dates are
+     * in the fixed width format of the hash, so they compare as strings.
+     */
+    public static void keepLatest(Map<String, String> latestDates, String symbol, String date) {
+        latestDates.merge(symbol, date, (current, candidate) -> candidate.compareTo(current) > 0 ? candidate : current);
+    }
+
+    public Snapshot snapshot() {
+        Snapshot current = snapshot;
+        if (isFresh(current)) {
+            return current;
+        }
+        synchronized (loadLock) {
+            current = snapshot;
+            if (isFresh(current)) {
+                return current;
+            }
+            // Cleared before reading, so a write event that arrives during the load marks it stale again
+            stale = false;
+            try {
+                current = Snapshot.of(unifiedJedis.hgetAll(TRADES_KEY), System.nanoTime());
+                snapshot = current;
+                log.debug("Loaded {} symbols into the symbol index", current.symbols().size());
+            } catch (Exception e) {
+                stale = true;
+                log.warn("Could not load the symbol index, keeping the previous one: {}", e.getMessage());
+                if (current == null) {
+                    return Snapshot.of(Map.of(), System.nanoTime());
+                }
+            }
+            return current;
+        }
+    }
+
+    public List<String> symbols() {
+        return snapshot().symbols();
+    }
+
+    /**
+     * @return the latest bar date of the symbol as "yyyy-MM-dd HH:mm:ss", or null
+     */
+    public String latestDate(String symbol) {
+        return snapshot().latestDates().get(symbol);
+    }
+
+    /**
+     * @return the symbols whose latest bar is on the given "yyyy-MM-dd HH:mm:ss" date
+     */
+    public List<String> symbolsOn(String date) {
+        return snapshot().symbolsByDate().getOrDefault(date, List.of());
+    }
+
+    private boolean isFresh(Snapshot current) {
+        return current != null && !stale
+                && System.nanoTime() - current.loadedAt() < TimeUnit.SECONDS.toNanos(ttlSeconds);
+    }
+
+    /**
+     * Symbols sorted by name, their latest bar date without the JSON quotes the hash
+     * stores, and the symbols grouped by that date. All collections are unmodifiable.
+     */
+    public record Snapshot(List<String> symbols, Map<String, String> latestDates,
+                           Map<String, List<String>> symbolsByDate, long loadedAt) {
+
+        static Snapshot of(Map<String, String> hash, long loadedAt) {
+            Map<String, String> latestDates = new TreeMap<>();
+            Map<String, List<String>> byDate = new TreeMap<>();
+            for (Map.Entry<String, String> entry : hash.entrySet()) {
+                latestDates.put(entry.getKey(), unquote(entry.getValue()));
+            }
+            for (Map.Entry<String, String> entry : latestDates.entrySet()) {
+                byDate.computeIfAbsent(entry.getValue(), date -> new ArrayList<>()).add(entry.getKey());
+            }
+            byDate.replaceAll((date, symbols) -> List.copyOf(symbols));
+            return new Snapshot(List.copyOf(latestDates.keySet()), Collections.unmodifiableMap(latestDates),
+                    Collections.unmodifiableMap(byDate), loadedAt);
+        }
+
+        private static String unquote(String value) {
+            if (value != null && value.length() > 1 && value.startsWith("\"") && value.endsWith("\"")) {
+                return value.substring(1, value.length() - 1);
+            }
+            return value;
+        }
+    }
+}
@@ -0,0 +1,120 @@
+package com.tradingzone.services.redis.service;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+import redis.clients.jedis.JedisPubSub;
+import redis.clients.jedis.UnifiedJedis;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Consumer;
+
+/**
+ * Redis pub/sub fan-in for trade write events.
+ *
+ * Writers publish the affected symbol on a {@code trades:*} channel after they change a
+ * symbol's sorted set. A single background subscription receives every such message,
+ * from this instance or any other, and hands it to the listeners registered for that
+ * channel. Listeners run on the subscriber thread and must not block.
+ */
+@Slf4j
+@Component
+public class TradeEventBus {
+
+    public static final String PRICE_CHANNEL = "trades:price";
+    public static final String INSTRUMENT_CHANNEL = "trades:instruments";
+    // Published once per chunk after the Trades hash is updated
+    public static final String SYMBOL_CHANNEL = "trades:symbols";
+    // Published with the user id after a trade changed the user's positions
+    public static final String POSITION_CHANNEL = "trades:positions";
+
+    private static final String CHANNEL_PATTERN = "trades:*";
+    private static final long RECONNECT_DELAY_MILLIS = 5000;
+
+    @Autowired
+    private UnifiedJedis unifiedJedis;
+
+    private final Map<String, List<Consumer<String>>> listeners = new ConcurrentHashMap<>();
+
+    private volatile boolean running;
+    private volatile JedisPubSub pubSub;
+
+    public void subscribe(String channel, Consumer<String> listener) {
+        listeners.computeIfAbsent(channel, c -> new CopyOnWriteArrayList<>()).add(listener);
+    }
+
+    public void publish(String channel, String message) {
+        try {
+            unifiedJedis.publish(channel, message);
+        } catch (Exception e) {
+            // Subscribers fall back to their own expiry when an event is lost
+            log.warn("Failed to publish {} on {}: {}", message, channel, e.getMessage());
+        }
+    }
+
+    public void publishPrice(String symbol) {
+        publish(PRICE_CHANNEL, symbol);
+    }
+
+    @PostConstruct
+    public void start() {
+        running = true;
+        Thread subscriber = new Thread(this::listen, "trade-event-subscriber");
+        subscriber.setDaemon(true);
+        subscriber.start();
+    }
+
+    @PreDestroy
+    public void stop() {
+        running = false;
+        JedisPubSub current = pubSub;
+        if (current != null && current.isSubscribed()) {
+            current.punsubscribe();
+        }
+    }
+
+    private void listen() {
+        while (running) {
+            try {
+                pubSub = new JedisPubSub() {
+                    @Override
+                    public void onPMessage(String pattern, String channel, String message) {
+                        dispatch(channel, message);
+                    }
+                };
+                // Blocks until unsubscribed or the connection drops
+                unifiedJedis.psubscribe(pubSub, CHANNEL_PATTERN);
+            } catch (Exception e) {
+                if (!running) {
+                    break;
+                }
+                log.warn("Trade event subscription lost, retrying in {} ms: {}", RECONNECT_DELAY_MILLIS, e.getMessage());
+                try {
+                    Thread.sleep(RECONNECT_DELAY_MILLIS);
+                } catch (InterruptedException ie) {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+            }
+        }
+    }
+
+    private void dispatch(String channel, String message) {
+        List<Consumer<String>> channelListeners = listeners.get(channel);
+        if (channelListeners == null) {
+            return;
+        }
+        for (Consumer<String> listener : channelListeners) {
+            try {
+                listener.accept(message);
+            } catch (Exception e) {
+                log.error("Trade event listener failed on {} for {}", channel, message, e);
+            }
+        }
+    }
+}
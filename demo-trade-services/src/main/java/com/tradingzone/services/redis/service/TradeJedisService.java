@@ -3,17 +3,26 @@ package com.tradingzone.services.redis.service;
 import com.google.gson.Gson;
 import com.google.gson.JsonObject;
 import com.tradingzone.services.load.writer.TradeJedisWriter;
+import com.tradingzone.services.redis.codec.TradeCodec;
 import com.tradingzone.services.redis.repositories.TradeJedisCache;
+import com.tradingzone.services.trades.analytics.PriceAnalytics;
+import com.tradingzone.services.watchlist.service.WatchListService;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
+import redis.clients.jedis.Jedis;
+import redis.clients.jedis.JedisPooled;
+import redis.clients.jedis.Protocol;
+import redis.clients.jedis.Transaction;
 import redis.clients.jedis.UnifiedJedis;
 import redis.clients.jedis.params.ZAddParams;
+import redis.clients.jedis.resps.Tuple;
+import redis.clients.jedis.util.SafeEncoder;
 
-import java.math.BigDecimal;
-import java.math.MathContext;
-import java.math.RoundingMode;
-import java.text.DecimalFormat;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.time.ZoneId;
@@ -21,26 +30,68 @@ import java.time.ZonedDateTime;
 import java.time.format.DateTimeFormatter;
 import java.util.*;
 import java.util.concurrent.*;
+import java.util.function.Consumer;
 
 @Slf4j
 @Service
 public class TradeJedisService {
 
+    private static final int MIGRATE_ATTEMPTS = 10;
+
     @Autowired
     private UnifiedJedis unifiedJedis;
 
     @Autowired
     private Gson gson;
 
-    //Fetching from Trades hash
+    @Autowired
+    private TradeSnapshotEngine tradeSnapshotEngine;
+
+    @Autowired
+    private TradeCodec tradeCodec;
+
+    @Value("${trades.stream.page-size:500}")
+    private int streamPageSize;
+
+    @Autowired
+    private InstrumentMaster instrumentMaster;
+
+    @Autowired
+    private LatestPriceCache latestPriceCache;
+
+    @Autowired
+    private TradeEventBus tradeEventBus;
+
+    @Autowired
+    private SymbolIndex symbolIndex;
+
+    @Autowired
+    private WatchListService watchListService;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    private Timer singlePriceTimer;
+    private Timer batchPriceTimer;
+
+    @PostConstruct
+    public void init() {
+        singlePriceTimer = latestPriceTimer("single");
+        batchPriceTimer = latestPriceTimer("batch");
+    }
+
+    private Timer latestPriceTimer(String mode) {
+        return Timer.builder("trades.latest-price.fetch")
+                .description("Latency of a latest price lookup, one symbol or a batch of them, cache hits included")
+                .tag("mode", mode)
+                .publishPercentiles(0.5, 0.95, 0.99)
+                .register(meterRegistry);
+    }
+
+    //Fetching from the local copy of the Trades hash; the list is shared and unmodifiable
     public List<String> getSymbols() {
-        List<String> symbols = new ArrayList<String>();
-        Map<String,String> symMap = unifiedJedis.hgetAll("Trades");
-        if(symMap!=null || !symMap.isEmpty()) {
-            for (Map.Entry<String, String> entry : symMap.entrySet()) {
-                symbols.add(entry.getKey());
-            }
-        }else{
+        List<String> symbols = symbolIndex.symbols();
+        if(symbols.isEmpty()){
             log.error("No Symbols found in Trades cache");
         }
 
@@ -49,7 +100,7 @@ public class TradeJedisService {
 
     public String getLatestTradeDate(){
 
-        String latestDate = unifiedJedis.hget("Trades", "HDFCBANK");
+        String latestDate = unifiedJedis.hget(SymbolIndex.TRADES_KEY, "HDFCBANK");
         return latestDate;
     }
 
@@ -57,24 +108,11 @@ public class TradeJedisService {
 
         List<TradeJedisCache> trdFinalList = new ArrayList<TradeJedisCache>();
 
-        //double min = parseDate(dateString + " 00:00:00");
         double max = System.currentTimeMillis();
 
-        Map<String,String> symMap = unifiedJedis.hgetAll("Trades");
-        if(symMap!=null || !symMap.isEmpty()){
-            for (Map.Entry<String, String> entry : symMap.entrySet()){
-                List<TradeJedisCache> objectList = new ArrayList<TradeJedisCache>();
-                String dateString = entry.getValue().substring(1, 20);
-                double number = parseDate(dateString);
-                //List<String> trdList = unifiedJedis.zrevrangeByScore(entry.getKey(), number, Double.parseDouble("1729017000000"));
-                List<String> trdList = unifiedJedis.zrevrangeByScore(entry.getKey(), max , number);
-                for (String trd : trdList) {
-                    TradeJedisCache convertedObject = gson.fromJson(trd, TradeJedisCache.class);
-                    objectList.add(convertedObject);
-                }
-                if(objectList.getLast()!=null)
-                    trdFinalList.add(objectList.getLast());
-            }
+        // Each symbol's latest bar from its own latest trade date, one pipelined read per date
+        for (Map.Entry<String, List<String>> entry : symbolIndex.snapshot().symbolsByDate().entrySet()){
+            tradeSnapshotEngine.forEachLatestBar(entry.getValue(), max, parseDate(entry.getKey()), trdFinalList::add);
         }
 
         return trdFinalList;
@@ -82,75 +120,18 @@ public class TradeJedisService {
     }
 
     public List<TradeJedisCache> fetchAll( String cache, String key, String dateString){
-        List<TradeJedisCache> trdFinalList = new ArrayList<TradeJedisCache>();
 
         double min = parseDate(dateString);
         double max = System.currentTimeMillis();
-        //log.info("fetchAll before : {} {}  ", cache, key);
-        String symbols = unifiedJedis.hget(cache, key);
-        //log.info("fetchAll before : {} {} Symbols in Cache {} ", cache, key, symbols);
+        String[] symbols = watchListService.findSymbols(cache, key);
 
-        if (symbols == null || symbols.trim().isEmpty()) {
+        if (symbols.length == 0) {
             log.warn("No symbols found for cache: {} key: {}", cache, key);
-            return trdFinalList;
+            return new ArrayList<TradeJedisCache>();
         }
 
-        String[] symMap = symbols.split(",");
-
-        Map<String,String> symfullMap = unifiedJedis.hgetAll("Trades");
-        //log.info("fetchAll getALl Symbols in Trades {} ", symfullMap);
-
-            for (String symb :symMap){
-                //List<TradeJedisCache> objectList = new ArrayList<TradeJedisCache>();
-                //String dateString = entry.getValue().substring(1, 20);
-                
-                String symbolDate = symfullMap.get(symb);
-                log.info("Comparing dateString: '{}' with symbolDate: '{}' for symbol: {}", dateString, symbolDate, symb);
-
-                // Clean up symbolDate by removing quotes if present
-                if (symbolDate != null && symbolDate.startsWith("\"") && symbolDate.endsWith("\"")) {
-                    symbolDate = symbolDate.substring(1, symbolDate.length() - 1);
-                }
-                
-                // Clean up dateString by removing quotes if present
-                String cleanDateString = dateString;
-                if (cleanDateString != null && cleanDateString.startsWith("\"") && cleanDateString.endsWith("\"")) {
-                    cleanDateString = cleanDateString.substring(1, cleanDateString.length() - 1);
-                }
-
-                if(cleanDateString.equalsIgnoreCase(symbolDate)){
-                    try{
-                        //rev max min
-                        //List<String> trdList = unifiedJedis.zrevrangeByScore(symb, max , min,0,1);
-                        //log.info("zrevrangeByScore(symb, max , min) : {} {} {} {}", symb, max, min, dateString);
-                        //log.info("ZREVRANGEBYSCORE {} {} {}", symb, max, min);
-                        List<String> trdList = unifiedJedis.zrevrangeByScore(symb, max , min);
-                        //List<String> trdList = unifiedJedis.zrevrangeByScore(symb, max , min);
-                        log.info("Trade list for {}: {}", symb, trdList);
-                        if(trdList == null){
-                            log.warn("Symbol: {} - trdList is null", symb);
-                        }else if(trdList.isEmpty()){
-                            log.warn("Symbol: {} - trdList is empty", symb);
-                        }else{
-                            log.info("Symbol: {} - Found {} trades", symb, trdList.size());
-                            for (String trd : trdList) {
-                                TradeJedisCache convertedObject = gson.fromJson(trd, TradeJedisCache.class);
-                                trdFinalList.add(convertedObject);
-                                //log.info("fetchAll : {} {} found {} ", symb, dateString,  convertedObject);
-                                break;
-                            }
-                        }
-                    }catch(Exception ex){
-                        //Some symbols data not found on some dates eg DIGIDRIVE avail from 2024-10-08 00:00:00 not before
-                        log.error("Error processing symbol {}: {}", symb, ex.getMessage());
-                        //ex.printStackTrace();
-                    }
-                }
-
-            }
-
-
-        return trdFinalList;
+        //Some symbols data not found on some dates eg DIGIDRIVE avail from 2024-10-08 00:00:00 not before
+        return tradeSnapshotEngine.fetchLatestBars(symbolsTradedOn(symbols, dateString), max, min);
     }
 
     /**
@@ -158,116 +139,78 @@ public class TradeJedisService {
      * This makes watchlist consistent with trades/holdings for frontend price change effects
      */
     public List<TradeJedisCache> fetchWatchlistTrades(String cache, String key, String dateString){
-        List<TradeJedisCache> trdFinalList = new ArrayList<TradeJedisCache>();
 
         double min = parseDate(dateString);
         double max = System.currentTimeMillis();
         
-        String symbols = unifiedJedis.hget(cache, key);
+        String[] symbols = watchListService.findSymbols(cache, key);
 
-        if (symbols == null || symbols.trim().isEmpty()) {
+        if (symbols.length == 0) {
             log.warn("No symbols found for cache: {} key: {}", cache, key);
-            return trdFinalList;
+            return new ArrayList<TradeJedisCache>();
         }
 
-        String[] symMap = symbols.split(",");
-        Map<String,String> symfullMap = unifiedJedis.hgetAll("Trades");
+        List<TradeJedisCache> trdFinalList = tradeSnapshotEngine.fetchLatestBars(symbolsTradedOn(symbols, dateString), max, min);
+        for (TradeJedisCache trade : trdFinalList){
+            // Clear previous price to make it consistent with trades/holdings
+            trade.setPrvsClsgPric(null);
+        }
+
+        return trdFinalList;
+    }
 
-        for (String symb : symMap){
-            String symbolDate = symfullMap.get(symb);
+    /**
+     * The given symbols whose latest trade date is the requested date, in the given order.
+     */
+    private List<String> symbolsTradedOn(String[] symbols, String dateString){
+        Map<String,String> latestDates = symbolIndex.snapshot().latestDates();
+        String cleanDateString = unquote(dateString);
+        List<String> traded = new ArrayList<String>(symbols.length);
+        for (String symb : symbols){
+            String symbolDate = latestDates.get(symb);
             if(symbolDate == null){
                 log.warn("Symbol: {} - No date found in Trades cache", symb);
-                continue;
-            }
-
-            String cleanDateString = dateString;
-            if (cleanDateString != null && cleanDateString.startsWith("\"") && cleanDateString.endsWith("\"")) {
-                cleanDateString = cleanDateString.substring(1, cleanDateString.length() - 1);
-            }
-
-            if(cleanDateString.equalsIgnoreCase(symbolDate)){
-                try{
-                    List<String> trdList = unifiedJedis.zrevrangeByScore(symb, max , min);
-                    log.info("Trade list for {}: {}", symb, trdList);
-                    if(trdList == null){
-                        log.warn("Symbol: {} - trdList is null", symb);
-                    }else if(trdList.isEmpty()){
-                        log.warn("Symbol: {} - trdList is empty", symb);
-                    }else{
-                        log.info("Symbol: {} - Found {} trades", symb, trdList.size());
-                        for (String trd : trdList) {
-                            TradeJedisCache convertedObject = gson.fromJson(trd, TradeJedisCache.class);
-                            // Clear previous price to make it consistent with trades/holdings
-                            convertedObject.setPrvsClsgPric(null);
-                            trdFinalList.add(convertedObject);
-                            break;
-                        }
-                    }
-                }catch(Exception ex){
-                    log.error("Error processing symbol {}: {}", symb, ex.getMessage());
-                }
+            }else if(symbolDate.equalsIgnoreCase(cleanDateString)){
+                traded.add(symb);
+            }else{
+                log.debug("Symbol: {} - latest trade date {} is not {}", symb, symbolDate, cleanDateString);
             }
         }
-
-        return trdFinalList;
+        return traded;
     }
 
     public List<TradeJedisCache> fetchAllByDate( String dateString, boolean live){
-
         List<TradeJedisCache> trdFinalList = new ArrayList<TradeJedisCache>();
+        forEachByDate(dateString, live, trdFinalList::add);
+        return trdFinalList;
+    }
+
+    /**
+     * Streaming form of {@link #fetchAllByDate}: bars are handed to the consumer one
+     * pipeline batch at a time instead of being collected first.
+     */
+    public void forEachByDate( String dateString, boolean live, Consumer<TradeJedisCache> consumer){
 
         double min = parseDate(dateString );
         double max = System.currentTimeMillis();
-        //List<TradeJedisCache> objectList = new ArrayList<TradeJedisCache>();
-
-        Map<String,String> symMap = unifiedJedis.hgetAll("Trades");
-        if(symMap!=null || !symMap.isEmpty()){
-            for (Map.Entry<String, String> entry : symMap.entrySet()){
-
-                try{
-
-                    List<String> trdList = new ArrayList<>();
-                    //rev max min
-                    //List<String> trdList = unifiedJedis.zrevrangeByScore(entry.getKey(), max , min,0,1);
-                    if(live){
-                        String entryValue = entry.getValue();
-                        // Clean up entryValue by removing quotes if present
-                        if (entryValue != null && entryValue.startsWith("\"") && entryValue.endsWith("\"")) {
-                            entryValue = entryValue.substring(1, entryValue.length() - 1);
-                        }
-                        
-                        // Clean up dateString by removing quotes if present
-                        String cleanDateString = dateString;
-                        if (cleanDateString != null && cleanDateString.startsWith("\"") && cleanDateString.endsWith("\"")) {
-                            cleanDateString = cleanDateString.substring(1, cleanDateString.length() - 1);
-                        }
-                        
-                        if(cleanDateString.equalsIgnoreCase(entryValue)){
-                            trdList = unifiedJedis.zrevrangeByScore(entry.getKey(), max , min);
-                        }
-
-                    }else{
-                        trdList = unifiedJedis.zrevrangeByScore(entry.getKey(), min , min);
-                    }
 
-                    if(trdList == null){
-                        System.out.println("Symbol: " + entry.getKey() );
-                    }else{
-                        for (String trd : trdList) {
-                            TradeJedisCache convertedObject = gson.fromJson(trd, TradeJedisCache.class);
-                            trdFinalList.add(convertedObject);
-                            break;
-                        }
-                    }
+        SymbolIndex.Snapshot index = symbolIndex.snapshot();
+        if(index.symbols().isEmpty()){
+            log.error("No Symbols found in Trades cache");
+            return;
+        }
 
-                }catch(Exception ex){
-                    //Some symbols data not found on some dates eg DIGIDRIVE avail from 2024-10-08 00:00:00 not before
-                    //ex.printStackTrace();
-                }
-            }
+        if(!live){
+            tradeSnapshotEngine.forEachLatestBar(index.symbols(), min, min, consumer);
+            return;
         }
 
-        return trdFinalList;
+        // Live view only shows symbols whose latest trade date matches the requested date
+        String cleanDateString = unquote(dateString);
+        if(cleanDateString == null){
+            return;
+        }
+        tradeSnapshotEngine.forEachLatestBar(index.symbolsByDate().getOrDefault(cleanDateString, List.of()), max, min, consumer);
 
     }
 
@@ -294,56 +237,137 @@ public class TradeJedisService {
 
 
     public TradeJedisCache fetchSymbol(String symbol, String dateString){
-        List<TradeJedisCache> objectList = new ArrayList<TradeJedisCache>();
         double number = parseDate(dateString + " 00:00:00");
-        double max = System.currentTimeMillis();
 
-        List<String> trdList = unifiedJedis.zrevrangeByScore(symbol, number, Double.parseDouble("1729017000000"));
-        for (String trd : trdList) {
-            TradeJedisCache convertedObject = gson.fromJson(trd, TradeJedisCache.class);
-            objectList.add(convertedObject);
-        }
-        return objectList.getLast();
+        return tradeSnapshotEngine.latestBar(symbol, number, Double.parseDouble("1729017000000"));
 
     }
 
     public TradeJedisCache fetchLatestPrice(String symbol){
+        long start = System.nanoTime();
+
+        TradeJedisCache cached = latestPriceCache.get(symbol);
+        if(cached != null){
+            singlePriceTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+            return cached;
+        }
 
+        long stamp = latestPriceCache.stamp(symbol);
         double min = 0;
         double max = System.currentTimeMillis();
 
-        List<String> trdList = unifiedJedis.zrevrangeByScore(symbol, max, min);
+        TradeJedisCache convertedObject;
+        try {
+            convertedObject = tradeSnapshotEngine.latestBar(symbol, max, min);
+            if(convertedObject != null){
+                latestPriceCache.put(symbol, convertedObject, stamp);
+            }
+        } finally {
+            latestPriceCache.release(symbol);
+        }
 
-        if(trdList != null && !trdList.isEmpty()){
-            TradeJedisCache convertedObject = gson.fromJson(trdList.getFirst(), TradeJedisCache.class);
-            return convertedObject;
+        singlePriceTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        return convertedObject;
+    }
+
+    /**
+     * Latest bar of each symbol, in the order given. Symbols not in the latest price cache
+     * are read in one pipelined call and cached; symbols without any bar are left out.
+     */
+    public Map<String, TradeJedisCache> fetchLatestPrices(Collection<String> symbols){
+        long start = System.nanoTime();
+
+        Map<String, TradeJedisCache> prices = new LinkedHashMap<String, TradeJedisCache>();
+        Map<String, Long> stamps = new LinkedHashMap<String, Long>();
+        for (String symbol : symbols){
+            TradeJedisCache cached = latestPriceCache.get(symbol);
+            if(cached != null){
+                prices.put(symbol, cached);
+            }else if(!stamps.containsKey(symbol)){
+                // Placeholder keeps the requested order once the bar is read
+                prices.put(symbol, null);
+                stamps.put(symbol, latestPriceCache.stamp(symbol));
+            }
         }
 
-        return null;
+        if(!stamps.isEmpty()){
+            try {
+                tradeSnapshotEngine.forEachSymbolLatestBar(new ArrayList<String>(stamps.keySet()), System.currentTimeMillis(), 0,
+                        (symbol, trade) -> {
+                            latestPriceCache.put(symbol, trade, stamps.get(symbol));
+                            prices.put(symbol, trade);
+                        });
+            } finally {
+                stamps.keySet().forEach(latestPriceCache::release);
+            }
+            prices.values().removeIf(Objects::isNull);
+        }
+
+        batchPriceTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        return prices;
     }
 
     public List<TradeJedisCache> fetchSymbolHistory(String symbol,  String timeRange){
         log.info("In fetchSymbolHistory() {} {} ", symbol, timeRange);
         List<TradeJedisCache> objectList = new ArrayList<TradeJedisCache>();
-        double min = parseDate("2024-09-16 00:00:00");
+        double min = historyRangeStart(timeRange);
+
+        double max = System.currentTimeMillis();
 
-        switch (timeRange){
-            case "90d" :  min = parseDateLastXDays( 90); break;
-            case "30d" :  min = parseDateLastXDays( 30); break;
-            case "7d" :  min = parseDateLastXDays( 7); break;
-            default : min = parseDate("2024-09-16 00:00:00");
 
+        List<byte[]> trdList = unifiedJedis.zrangeByScore(tradeCodec.key(symbol), min, max);
+        for (byte[] trd : trdList) {
+            TradeJedisCache convertedObject = tradeCodec.decode(trd);
+            objectList.add(convertedObject);
         }
+        return objectList;
+    }
 
+    /**
+     * Streaming form of {@link #fetchSymbolHistory}: reads the range in pages of
+     * trades.stream.page-size members and hands each bar to the consumer as it is decoded.
+     *
+     * Each page starts at the last score read rather than at an offset from the start of
+     * the range, so a page costs O(log N + page) however deep into the history it is, and
+     * members written meanwhile do not shift the pages. Only members sharing the last score
+     * are skipped by offset.
+     */
+    public void forEachSymbolHistory(String symbol, String timeRange, Consumer<TradeJedisCache> consumer){
+        double min = historyRangeStart(timeRange);
         double max = System.currentTimeMillis();
+        byte[] key = tradeCodec.key(symbol);
+        byte[] upper = Protocol.toByteArray(max);
+        int pageSize = Math.max(1, streamPageSize);
+
+        double cursor = min;
+        // Members at the cursor score already handed out
+        int skip = 0;
+        while (true){
+            List<Tuple> page = unifiedJedis.zrangeByScoreWithScores(key, Protocol.toByteArray(cursor), upper, skip, pageSize);
+            for (Tuple trd : page) {
+                consumer.accept(tradeCodec.decode(trd.getBinaryElement()));
+            }
+            if(page.size() < pageSize){
+                break;
+            }
 
+            double last = page.getLast().getScore();
+            int atLast = 0;
+            for (int i = page.size() - 1; i >= 0 && page.get(i).getScore() == last; i--) {
+                atLast++;
+            }
+            skip = last == cursor && atLast == page.size() ? skip + atLast : atLast;
+            cursor = last;
+        }
+    }
 
-        List<String> trdList = unifiedJedis.zrangeByScore(symbol, min, max);
-        for (String trd : trdList) {
-            TradeJedisCache convertedObject = gson.fromJson(trd, TradeJedisCache.class);
-            objectList.add(convertedObject);
+    public long historyRangeStart(String timeRange){
+        switch (timeRange){
+            case "90d" :  return parseDateLastXDays( 90);
+            case "30d" :  return parseDateLastXDays( 30);
+            case "7d" :  return parseDateLastXDays( 7);
+            default : return parseDate("2024-09-16 00:00:00");
         }
-        return objectList;
     }
 
     public List<TradeJedisCache> fetchSymbolHistoryRev(String symbol, String dateString){
@@ -352,9 +376,9 @@ public class TradeJedisService {
         double max = System.currentTimeMillis();
 
 
-        List<String> trdList = unifiedJedis.zrevrangeByScore(symbol, max, min);
-        for (String trd : trdList) {
-            TradeJedisCache convertedObject = gson.fromJson(trd, TradeJedisCache.class);
+        List<byte[]> trdList = unifiedJedis.zrevrangeByScore(tradeCodec.key(symbol), max, min);
+        for (byte[] trd : trdList) {
+            TradeJedisCache convertedObject = tradeCodec.decode(trd);
             objectList.add(convertedObject);
         }
         return objectList;
@@ -371,9 +395,9 @@ public class TradeJedisService {
         double min = parseDate(dateString) ;
         double max = System.currentTimeMillis();
 
-        List<String> trdList = unifiedJedis.zrangeByScore(symbol, min, max,0,1);
-        for (String trd : trdList) {
-            TradeJedisCache convertedObject = gson.fromJson(trd, TradeJedisCache.class);
+        List<byte[]> trdList = unifiedJedis.zrangeByScore(tradeCodec.key(symbol), min, max,0,1);
+        for (byte[] trd : trdList) {
+            TradeJedisCache convertedObject = tradeCodec.decode(trd);
             objectList.add(convertedObject);
             break;
         }
@@ -392,41 +416,118 @@ public class TradeJedisService {
             double rangeMax = oldLTP + randomValue;
             double randomRangeValue = rangeMin + (rangeMax - rangeMin) * randomValue;
             //double newLTP = Double.valueOf(randomRangeValue);
-            BigDecimal bd = new BigDecimal(randomRangeValue).setScale(2, RoundingMode.HALF_UP);
-            double newLTP = bd.doubleValue();
+            double newLTP = PriceAnalytics.round(randomRangeValue);
 
             toUpdateCache.setLastPric(newLTP);
             setPriceChange(toUpdateCache);
 
             double updatedScore =  ZonedDateTime.of(toUpdateCache.getTradDt().plusSeconds(30), ZoneId.systemDefault()).toInstant().toEpochMilli();
 
-            unifiedJedis.zadd(toUpdateCache.getTckrSymb(),
+            unifiedJedis.zadd(tradeCodec.key(toUpdateCache.getTckrSymb()),
                     updatedScore,
-                    gson.toJson(toUpdateCache),
+                    tradeCodec.encode(toUpdateCache),
                     new ZAddParams().lt());
+            tradeEventBus.publishPrice(toUpdateCache.getTckrSymb());
 
         }
         return toUpdateCache;
     }
 
-    private void setPriceChange(TradeJedisCache tradeCache){
-        DecimalFormat df = new DecimalFormat("#,###.##");
-        MathContext mc = new MathContext(2);
-
-        if(tradeCache.getLastPric() != null && tradeCache.getPrvsClsgPric() != null ){
-            BigDecimal lp = new BigDecimal(tradeCache.getLastPric());
-            BigDecimal cp = new BigDecimal(tradeCache.getPrvsClsgPric());
-            BigDecimal chngeDbl = lp.subtract(cp, mc);
-            chngeDbl.setScale(2, RoundingMode.UP);
-            tradeCache.setChngePric(chngeDbl);
-            MathContext pctmc = new MathContext(1);
-            BigDecimal changePct = (chngeDbl.divide(lp,pctmc)).multiply(new BigDecimal("100"),pctmc);
-            changePct.setScale(2, RoundingMode.UP);
-            tradeCache.setChngePricPct(changePct);
-        }else{
-            System.out.println("LastPric or PrvsClsgPric is null : "+ tradeCache.toString());
+    /**
+     * Rewrites every bar that is not stored the way it would be written today: in the
+     * trades.codec.write format and, with trades.instrument.split, without instrument data.
+     * Each symbol is read under WATCH and swapped in one MULTI, so readers never see it
+     * without its bars; when a writer changes the symbol in between, EXEC is aborted and
+     * the symbol is read again, so no stale bar is written back next to the new one.
+     * Returns the rewritten member count and the MEMORY USAGE of the symbol sorted sets
+     * before and after, for comparing the encodings on real data.
+     */
+    public Map<String, Object> migrateTradeEncoding(){
+        long migrated = 0;
+        long memoryBefore = 0;
+        long memoryAfter = 0;
+
+        Set<String> symbols = unifiedJedis.hkeys("Trades");
+        for (String symbol : symbols){
+            byte[] key = tradeCodec.key(symbol);
+            Long before = unifiedJedis.memoryUsage(key);
+            memoryBefore += before == null ? 0 : before;
+
+            int count;
+            try {
+                count = migrateSymbolEncoding(key);
+            }catch(Exception ex){
+                log.error("Error migrating encoding of symbol {}: {}", symbol, ex.getMessage());
+                continue;
+            }
+
+            if(count > 0){
+                tradeEventBus.publishPrice(symbol);
+            }
+            migrated += count;
+            Long after = unifiedJedis.memoryUsage(key);
+            memoryAfter += after == null ? 0 : after;
         }
 
+        log.info("Migrated {} trade members of {} symbols to {}, memory {} -> {} bytes",
+                migrated, symbols.size(), tradeCodec.writeFormat(), memoryBefore, memoryAfter);
+
+        Map<String, Object> result = new LinkedHashMap<String, Object>();
+        result.put("format", tradeCodec.writeFormat());
+        result.put("symbols", symbols.size());
+        result.put("migratedMembers", migrated);
+        result.put("memoryBeforeBytes", memoryBefore);
+        result.put("memoryAfterBytes", memoryAfter);
+        return result;
+    }
+
+    // Rewrites the members of one symbol and returns how many were rewritten
+    private int migrateSymbolEncoding(byte[] key) {
+        // WATCH, the read and the MULTI have to share one connection
+        try (Jedis jedis = new Jedis(((JedisPooled) unifiedJedis).getPool().getResource())) {
+            for (int attempt = 1; attempt <= MIGRATE_ATTEMPTS; attempt++) {
+                jedis.watch(key);
+                List<Tuple> members = jedis.zrangeWithScores(key, 0, -1);
+                if(!members.isEmpty()){
+                    instrumentMaster.register(tradeCodec.decode(members.getLast().getBinaryElement()));
+                }
+                int count = 0;
+                try (Transaction transaction = jedis.multi()) {
+                    for (Tuple member : members){
+                        byte[] current = member.getBinaryElement();
+                        byte[] migratedMember = tradeCodec.migrate(current);
+                        if(migratedMember != null){
+                            transaction.zrem(key, current);
+                            transaction.zadd(key, member.getScore(), migratedMember);
+                            count++;
+                        }
+                    }
+                    if(count == 0){
+                        // Also drops the WATCH
+                        transaction.discard();
+                        return 0;
+                    }
+                    if(transaction.exec() != null){
+                        return count;
+                    }
+                }
+                log.debug("Symbol {} changed while migrating, attempt {}", SafeEncoder.encode(key), attempt);
+            }
+        }
+        throw new IllegalStateException("symbol kept changing, tried " + MIGRATE_ATTEMPTS + " times");
+    }
+
+    private void setPriceChange(TradeJedisCache tradeCache) {
+        if (!PriceAnalytics.applyTick(tradeCache)) {
+            log.warn("LastPric or PrvsClsgPric is null: {}", tradeCache.getTckrSymb());
+        }
+    }
+
+    private String unquote(String value){
+        if (value != null && value.length() > 1 && value.startsWith("\"") && value.endsWith("\"")) {
+            return value.substring(1, value.length() - 1);
+        }
+        return value;
     }
 
     private long parseDate(String dateString) {
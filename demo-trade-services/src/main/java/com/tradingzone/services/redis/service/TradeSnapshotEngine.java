@@ -0,0 +1,127 @@
+package com.tradingzone.services.redis.service;
+
+import com.tradingzone.services.redis.codec.TradeCodec;
+import com.tradingzone.services.redis.repositories.TradeJedisCache;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import redis.clients.jedis.PipelineBase;
+import redis.clients.jedis.Response;
+import redis.clients.jedis.UnifiedJedis;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BiConsumer;
+import java.util.function.Consumer;
+
+/**
+ * Fetches the latest bar of many symbols in a handful of pipelined round trips
+ * instead of one blocking ZREVRANGEBYSCORE per symbol.
+ *
+ * Symbols are sent in batches of {@code trades.snapshot.pipeline-depth} commands per
+ * pipeline. The pipeline round trips of every call are recorded in the
+ * {@code trades.snapshot.fetch} timer. A batch that fails is logged and left out.
+ */
+@Slf4j
+@Component
+public class TradeSnapshotEngine {
+
+    @Autowired
+    private UnifiedJedis unifiedJedis;
+
+    @Autowired
+    private TradeCodec tradeCodec;
+
+    @Value("${trades.snapshot.pipeline-depth:500}")
+    private int pipelineDepth;
+
+    private final Timer snapshotTimer;
+
+    public TradeSnapshotEngine(MeterRegistry meterRegistry) {
+        this.snapshotTimer = Timer.builder("trades.snapshot.fetch")
+                .description("Latency of a pipelined multi-symbol latest bar read")
+                .publishPercentileHistogram()
+                .publishPercentiles(0.5, 0.95, 0.99)
+                .register(meterRegistry);
+    }
+
+    /**
+     * Returns the highest scored bar within [min, max] for each symbol, in the order of
+     * the given symbols. Symbols without a bar in range, or whose key cannot be read,
+     * are left out.
+     */
+    public List<TradeJedisCache> fetchLatestBars(List<String> symbols, double max, double min) {
+        List<TradeJedisCache> trdFinalList = new ArrayList<TradeJedisCache>(symbols.size());
+        forEachLatestBar(symbols, max, min, trdFinalList::add);
+        return trdFinalList;
+    }
+
+    /**
+     * Returns the highest scored bar of one symbol within [min, max], or null if there is
+     * none. Only that member is sent back (LIMIT 0 1) and decoded.
+     */
+    public TradeJedisCache latestBar(String symbol, double max, double min) {
+        List<byte[]> trdList = unifiedJedis.zrevrangeByScore(tradeCodec.key(symbol), max, min, 0, 1);
+        if (trdList == null || trdList.isEmpty()) {
+            return null;
+        }
+        return tradeCodec.decode(trdList.getFirst());
+    }
+
+    /**
+     * Same as {@link #fetchLatestBars} but hands each bar to the consumer as soon as its
+     * pipeline batch is back, so only one batch is held in memory.
+     */
+    public void forEachLatestBar(List<String> symbols, double max, double min, Consumer<TradeJedisCache> consumer) {
+        forEachSymbolLatestBar(symbols, max, min, (symbol, trade) -> consumer.accept(trade));
+    }
+
+    /**
+     * Same as {@link #forEachLatestBar} with the symbol each bar was read for.
+     */
+    public void forEachSymbolLatestBar(List<String> symbols, double max, double min, BiConsumer<String, TradeJedisCache> consumer) {
+        int depth = Math.max(1, pipelineDepth);
+        // Only the round trips are timed, not the consumer, which may be writing to a client
+        long fetchNanos = 0;
+
+        for (int from = 0; from < symbols.size(); from += depth) {
+            List<String> batch = symbols.subList(from, Math.min(from + depth, symbols.size()));
+            List<Response<List<byte[]>>> responses = new ArrayList<>(batch.size());
+
+            long started = System.nanoTime();
+            try (PipelineBase pipeline = unifiedJedis.pipelined()) {
+                for (String symbol : batch) {
+                    responses.add(pipeline.zrevrangeByScore(tradeCodec.key(symbol), max, min, 0, 1));
+                }
+                pipeline.sync();
+            } catch (Exception ex) {
+                // Leave out this batch, like a symbol that cannot be read, and go on with the rest
+                log.warn("Skipping {} symbols from {}: {}", batch.size(), batch.getFirst(), ex.getMessage());
+                continue;
+            } finally {
+                fetchNanos += System.nanoTime() - started;
+            }
+
+            for (int i = 0; i < batch.size(); i++) {
+                TradeJedisCache trade;
+                try {
+                    List<byte[]> trdList = responses.get(i).get();
+                    if (trdList == null || trdList.isEmpty()) {
+                        continue;
+                    }
+                    trade = tradeCodec.decode(trdList.getFirst());
+                } catch (Exception ex) {
+                    //Some symbols data not found on some dates eg DIGIDRIVE avail from 2024-10-08 00:00:00 not before
+                    log.debug("Skipping symbol {}: {}", batch.get(i), ex.getMessage());
+                    continue;
+                }
+                consumer.accept(batch.get(i), trade);
+            }
+        }
+        snapshotTimer.record(fetchNanos, TimeUnit.NANOSECONDS);
+    }
+}
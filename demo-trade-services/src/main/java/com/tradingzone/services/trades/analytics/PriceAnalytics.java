@@ -0,0 +1,125 @@
+package com.tradingzone.services.trades.analytics;
+
+import com.tradingzone.services.redis.repositories.TradeJedisCache;
+
+import java.math.BigDecimal;
+
+/**
+ * Price change, change percent and day range of a bar, worked out on primitives.
+ *
+ * Prices are rounded half-up to paise (hundredths) first and the arithmetic is done on
+ * those scaled longs, so a change is exact to the paisa and nothing is allocated. The
+ * change percent is taken against the last price, as the bars have always stored it,
+ * and rounded half-up to 2 decimals. {@link BigDecimal}s are only built at the edge, for
+ * the cached bar's fields.
+ */
+public final class PriceAnalytics {
+
+    public static final int SCALE = 2;
+
+    private static final long ONE = 100;
+
+    private PriceAnalytics() {
+    }
+
+    public static long toHundredths(double value) {
+        return Math.round(value * ONE);
+    }
+
+    /**
+     * The price rounded half-up to paise.
+     */
+    public static double round(double value) {
+        return toHundredths(value) / (double) ONE;
+    }
+
+    /**
+     * Last price minus previous close, in paise.
+     */
+    public static long changeHundredths(double lastPric, double prvsClsgPric) {
+        return toHundredths(lastPric) - toHundredths(prvsClsgPric);
+    }
+
+    /**
+     * Change as a percent of the last price, in hundredths of a percent; 0 at a zero price.
+     */
+    public static long changePctHundredths(double lastPric, double prvsClsgPric) {
+        long last = toHundredths(lastPric);
+        return percentOf(last - toHundredths(prvsClsgPric), last);
+    }
+
+    /**
+     * part as a percent of whole, in hundredths of a percent rounded half-up; 0 when
+     * whole is 0. Both amounts in the same unit, e.g. paise.
+     */
+    public static long percentOf(long part, long whole) {
+        if (whole == 0) {
+            return 0;
+        }
+        return divideHalfUp(part * ONE * ONE, whole);
+    }
+
+    public static double change(double lastPric, double prvsClsgPric) {
+        return changeHundredths(lastPric, prvsClsgPric) / (double) ONE;
+    }
+
+    public static double changePct(double lastPric, double prvsClsgPric) {
+        return changePctHundredths(lastPric, prvsClsgPric) / (double) ONE;
+    }
+
+    /**
+     * High minus low, in paise.
+     */
+    public static long dayRangeHundredths(double hghPric, double lwPric) {
+        return toHundredths(hghPric) - toHundredths(lwPric);
+    }
+
+    public static double dayRange(double hghPric, double lwPric) {
+        return dayRangeHundredths(hghPric, lwPric) / (double) ONE;
+    }
+
+    public static BigDecimal decimal(long hundredths) {
+        return BigDecimal.valueOf(hundredths, SCALE);
+    }
+
+    /**
+     * Sets the change fields of a cached bar from its last price and previous close.
+     * Returns false, leaving the bar untouched, when either price is missing.
+     */
+    public static boolean applyChange(TradeJedisCache trade) {
+        if (trade.getLastPric() == null || trade.getPrvsClsgPric() == null) {
+            return false;
+        }
+        double lastPric = trade.getLastPric();
+        double prvsClsgPric = trade.getPrvsClsgPric();
+        trade.setChngePric(decimal(changeHundredths(lastPric, prvsClsgPric)));
+        trade.setChngePricPct(decimal(changePctHundredths(lastPric, prvsClsgPric)));
+        return true;
+    }
+
+    /**
+     * For a bar whose last price just moved: recomputes the change and widens the day's
+     * high and low to take in the new price.
+     */
+    public static boolean applyTick(TradeJedisCache trade) {
+        Double lastPric = trade.getLastPric();
+        if (lastPric != null) {
+            if (trade.getHghPric() == null || lastPric > trade.getHghPric()) {
+                trade.setHghPric(lastPric);
+            }
+            if (trade.getLwPric() == null || lastPric < trade.getLwPric()) {
+                trade.setLwPric(lastPric);
+            }
+        }
+        return applyChange(trade);
+    }
+
+    private static long divideHalfUp(long dividend, long divisor) {
+        long quotient = dividend / divisor;
+        long remainder = dividend % divisor;
+        if (Math.abs(remainder) * 2 >= Math.abs(divisor)) {
+            quotient += Long.signum(dividend) * Long.signum(divisor);
+        }
+        return quotient;
+    }
+}
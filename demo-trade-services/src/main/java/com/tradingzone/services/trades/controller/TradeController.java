@@ -6,9 +6,14 @@ import com.tradingzone.services.redis.repositories.TradeCache;
 import com.tradingzone.services.redis.repositories.TradeJedisCache;
 import com.tradingzone.services.redis.service.TradeJedisService;
 import com.tradingzone.services.redis.service.TradeRedisService;
+import com.tradingzone.services.trades.history.HistorySeries;
+import com.tradingzone.services.trades.history.TradeHistoryService;
+import com.tradingzone.services.trades.stream.TradeStreamWriter;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import jakarta.servlet.http.HttpServletRequest;
 import java.util.List;
@@ -23,6 +28,12 @@ public class TradeController {
     @Autowired
     private UserAuthService userAuthService;
 
+    @Autowired
+    private TradeHistoryService tradeHistoryService;
+
+    @Autowired
+    private TradeStreamWriter tradeStreamWriter;
+
     // Commented out - Not used by UI, unprotected APIs
     /*
     @GetMapping("/tradingzone/trades")
@@ -71,6 +82,22 @@ public class TradeController {
         return tradeJedisService.fetchSymbolHistory(symbol, timeRange);
     }
 
+    @GetMapping("/tradingzone/tradesByDate/stream")
+    public ResponseEntity<StreamingResponseBody> streamTradesByDate( @RequestParam String date, @RequestParam boolean live){
+        log.info("In TradeController.streamTradesByDate() date {} live {}", date, live);
+        return tradeStreamWriter.stream("tradesByDate", bar -> tradeJedisService.forEachByDate(date, live, bar));
+    }
+
+    @GetMapping("/tradingzone/tradeshistory/{symbol}/{timeRange}/stream")
+    public ResponseEntity<StreamingResponseBody> streamTradeHistory(@PathVariable String symbol , @PathVariable String timeRange){
+        return tradeStreamWriter.stream("tradeshistory", bar -> tradeJedisService.forEachSymbolHistory(symbol, timeRange, bar));
+    }
+
+    @GetMapping("/tradingzone/tradeshistory/{symbol}/{timeRange}/columns")
+    public HistorySeries getTradeHistoryColumns(@PathVariable String symbol , @PathVariable String timeRange){
+        return tradeHistoryService.fetchColumns(symbol, timeRange);
+    }
+
     // Protected endpoints for authenticated users
     @GetMapping("/tradingzone/my/trades")
     public List<TradeJedisCache> getMyTrades(HttpServletRequest request){
@@ -0,0 +1,307 @@
+package com.tradingzone.services.trades.history;
+
+import com.tradingzone.services.redis.repositories.TradeJedisCache;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.time.ZoneId;
+import java.time.ZonedDateTime;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Function;
+import java.util.stream.Stream;
+
+/**
+ * Local daily bar history, one memory-mapped file per symbol.
+ *
+ * A file holds a 16 byte header (magic, version, row count, capacity) followed by six
+ * column blocks of {@code capacity} 8 byte values: time, open, high, low, close and volume.
+ * Rows are kept sorted by time, one per trading day, and writing an existing day replaces
+ * it. The load job and the tick path write here; Redis stays the source for the current
+ * day. Files are a cache that can always be rebuilt from TRADES, see {@link HistoryRebuildService}.
+ * Writes and reads of other threads wait while a rebuild runs, so none land in a file
+ * that is being deleted.
+ */
+@Slf4j
+@Component
+public class ColumnarHistoryStore {
+
+    private static final int MAGIC = 0x54484331;
+    private static final int VERSION = 1;
+    private static final int HEADER_BYTES = 16;
+    private static final int INITIAL_CAPACITY = 256;
+
+    private static final int TIME = 0;
+    private static final int OPEN = 1;
+    private static final int HIGH = 2;
+    private static final int LOW = 3;
+    private static final int CLOSE = 4;
+    private static final int VOLUME = 5;
+    private static final int COLUMNS = 6;
+
+    @Value("${trades.history.store.enabled:false}")
+    private boolean enabled;
+
+    @Value("${trades.history.store.dir:./data/history}")
+    private String dir;
+
+    private final Map<String, SymbolFile> files = new ConcurrentHashMap<>();
+    // Shared by writes and reads, held exclusively by a rebuild
+    private final ReentrantReadWriteLock storeLock = new ReentrantReadWriteLock();
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Writes the trade as the bar of its trading day. The close is the last traded price,
+     * and high/low are widened to include it so intraday ticks stay consistent.
+     */
+    public void upsert(TradeJedisCache trade) {
+        if (!enabled || trade == null || trade.getTradDt() == null || trade.getTckrSymb() == null) {
+            return;
+        }
+        double close = trade.getLastPric() != null ? trade.getLastPric() : value(trade.getClsPric());
+        double high = Math.max(value(trade.getHghPric()), close);
+        double low = trade.getLwPric() != null ? Math.min(trade.getLwPric(), close) : close;
+        long volume = trade.getTtlTradgVol() == null ? 0 : trade.getTtlTradgVol().longValue();
+        long time = ZonedDateTime.of(trade.getTradDt(), ZoneId.systemDefault()).toInstant().toEpochMilli();
+
+        upsert(trade.getTckrSymb(), time, value(trade.getOpnPric()), high, low, close, volume);
+    }
+
+    public void upsert(String symbol, long time, double open, double high, double low, double close, long volume) {
+        if (!enabled) {
+            return;
+        }
+        storeLock.readLock().lock();
+        try {
+            file(symbol, true).upsert(time, open, high, low, close, volume);
+        } catch (Exception e) {
+            log.error("Failed to write history of {}", symbol, e);
+        } finally {
+            storeLock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Runs the reader over the bars with from <= time <= to while the symbol is read locked.
+     *
+     * @return the reader result, or null when the store is disabled or has no file for the symbol
+     */
+    public <T> T read(String symbol, long from, long to, Function<HistoryColumns, T> reader) {
+        if (!enabled) {
+            return null;
+        }
+        storeLock.readLock().lock();
+        try {
+            SymbolFile file = file(symbol, false);
+            return file == null ? null : file.read(from, to, reader);
+        } finally {
+            storeLock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Deletes every symbol file and runs the loader, which refills the store through
+     * {@link #upsert}. Other threads neither write nor read until it returns.
+     */
+    public <T> T rebuild(Callable<T> loader) throws Exception {
+        storeLock.writeLock().lock();
+        try {
+            clear();
+            return loader.call();
+        } finally {
+            storeLock.writeLock().unlock();
+        }
+    }
+
+    private void clear() throws IOException {
+        for (SymbolFile file : files.values()) {
+            file.close();
+        }
+        files.clear();
+        Path root = Paths.get(dir);
+        if (Files.isDirectory(root)) {
+            try (Stream<Path> paths = Files.list(root)) {
+                for (Path path : paths.filter(p -> p.toString().endsWith(".col")).toList()) {
+                    Files.delete(path);
+                }
+            }
+        }
+    }
+
+    @PreDestroy
+    public void close() {
+        for (SymbolFile file : files.values()) {
+            file.close();
+        }
+    }
+
+    private SymbolFile file(String symbol, boolean create) {
+        SymbolFile file = files.get(symbol);
+        if (file != null) {
+            return file;
+        }
+        Path path = Paths.get(dir, symbol + ".col");
+        if (!create && !Files.exists(path)) {
+            return null;
+        }
+        return files.computeIfAbsent(symbol, s -> new SymbolFile(path));
+    }
+
+    private static double value(Double value) {
+        return value == null ? 0 : value;
+    }
+
+    private static final class SymbolFile {
+
+        private final Path path;
+        private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+        private FileChannel channel;
+        private MappedByteBuffer buffer;
+        private int count;
+        private int capacity;
+
+        SymbolFile(Path path) {
+            this.path = path;
+            try {
+                Files.createDirectories(path.getParent());
+                boolean exists = Files.exists(path) && Files.size(path) >= HEADER_BYTES;
+                channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+                if (exists) {
+                    buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, channel.size());
+                    if (buffer.getInt(0) != MAGIC || buffer.getInt(4) != VERSION) {
+                        throw new IOException("Unknown history file format " + path);
+                    }
+                    count = buffer.getInt(8);
+                    capacity = buffer.getInt(12);
+                } else {
+                    capacity = INITIAL_CAPACITY;
+                    buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, size(capacity));
+                    buffer.putInt(0, MAGIC);
+                    buffer.putInt(4, VERSION);
+                    buffer.putInt(8, 0);
+                    buffer.putInt(12, capacity);
+                }
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+
+        void upsert(long time, double open, double high, double low, double close, long volume) throws IOException {
+            lock.writeLock().lock();
+            try {
+                int index = lowerBound(time);
+                if (index == count || buffer.getLong(offset(TIME, index)) != time) {
+                    if (count == capacity) {
+                        grow();
+                    }
+                    shiftRight(index);
+                    count++;
+                }
+                buffer.putLong(offset(TIME, index), time);
+                buffer.putDouble(offset(OPEN, index), open);
+                buffer.putDouble(offset(HIGH, index), high);
+                buffer.putDouble(offset(LOW, index), low);
+                buffer.putDouble(offset(CLOSE, index), close);
+                buffer.putLong(offset(VOLUME, index), volume);
+                buffer.putInt(8, count);
+            } finally {
+                lock.writeLock().unlock();
+            }
+        }
+
+        <T> T read(long from, long to, Function<HistoryColumns, T> reader) {
+            lock.readLock().lock();
+            try {
+                int start = lowerBound(from);
+                int end = lowerBound(to == Long.MAX_VALUE ? to : to + 1);
+                int size = Math.max(0, end - start);
+                return reader.apply(new HistoryColumns(size,
+                        buffer.slice(offset(TIME, start), size * 8).asLongBuffer(),
+                        buffer.slice(offset(OPEN, start), size * 8).asDoubleBuffer(),
+                        buffer.slice(offset(HIGH, start), size * 8).asDoubleBuffer(),
+                        buffer.slice(offset(LOW, start), size * 8).asDoubleBuffer(),
+                        buffer.slice(offset(CLOSE, start), size * 8).asDoubleBuffer(),
+                        buffer.slice(offset(VOLUME, start), size * 8).asLongBuffer()));
+            } finally {
+                lock.readLock().unlock();
+            }
+        }
+
+        void close() {
+            lock.writeLock().lock();
+            try {
+                buffer.force();
+                channel.close();
+            } catch (IOException e) {
+                log.warn("Failed to close history file {}: {}", path, e.getMessage());
+            } finally {
+                lock.writeLock().unlock();
+            }
+        }
+
+        /** First row whose time is >= the given time */
+        private int lowerBound(long time) {
+            int low = 0;
+            int high = count;
+            while (low < high) {
+                int mid = (low + high) >>> 1;
+                if (buffer.getLong(offset(TIME, mid)) < time) {
+                    low = mid + 1;
+                } else {
+                    high = mid;
+                }
+            }
+            return low;
+        }
+
+        private void shiftRight(int index) {
+            for (int column = 0; column < COLUMNS; column++) {
+                for (int i = count - 1; i >= index; i--) {
+                    buffer.putLong(offset(column, i + 1), buffer.getLong(offset(column, i)));
+                }
+            }
+        }
+
+        /**
+         * Doubles the capacity in place. Column blocks move to higher offsets, so copying
+         * from the last column down never overwrites a block that has not moved yet.
+         */
+        private void grow() throws IOException {
+            int newCapacity = capacity * 2;
+            MappedByteBuffer grown = channel.map(FileChannel.MapMode.READ_WRITE, 0, size(newCapacity));
+            for (int column = COLUMNS - 1; column > 0; column--) {
+                int from = HEADER_BYTES + column * capacity * 8;
+                int to = HEADER_BYTES + column * newCapacity * 8;
+                for (int i = count - 1; i >= 0; i--) {
+                    grown.putLong(to + i * 8, grown.getLong(from + i * 8));
+                }
+            }
+            grown.putInt(12, newCapacity);
+            buffer = grown;
+            capacity = newCapacity;
+        }
+
+        private int offset(int column, int row) {
+            return HEADER_BYTES + (column * capacity + row) * 8;
+        }
+
+        private static long size(int capacity) {
+            return HEADER_BYTES + (long) COLUMNS * capacity * 8;
+        }
+    }
+}
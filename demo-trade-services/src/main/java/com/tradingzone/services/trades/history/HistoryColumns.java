@@ -0,0 +1,17 @@
+package com.tradingzone.services.trades.history;
+
+import java.nio.DoubleBuffer;
+import java.nio.LongBuffer;
+
+/**
+ * Zero-copy view of a range of one symbol's history columns. The buffers are slices of
+ * the mapped file and are only valid inside {@link ColumnarHistoryStore#read}.
+ */
+public record HistoryColumns(int size,
+                             LongBuffer time,
+                             DoubleBuffer open,
+                             DoubleBuffer high,
+                             DoubleBuffer low,
+                             DoubleBuffer close,
+                             LongBuffer volume) {
+}
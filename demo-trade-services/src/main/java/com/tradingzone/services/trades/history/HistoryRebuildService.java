@@ -0,0 +1,61 @@
+package com.tradingzone.services.trades.history;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+
+import javax.sql.DataSource;
+import java.sql.Timestamp;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Recreates the columnar history files from the TRADES table.
+ */
+@Slf4j
+@Service
+public class HistoryRebuildService {
+
+    private static final String SELECT_BARS =
+            "SELECT TckrSymb, TradDt, OpnPric, HghPric, LwPric, LastPric, TtlTradgVol FROM TRADES"
+                    // Each symbol's rows arrive together and in time order, so every insert appends
+                    + " ORDER BY TckrSymb, TradDt";
+
+    @Autowired
+    private DataSource dataSource;
+
+    @Autowired
+    private ColumnarHistoryStore columnarHistoryStore;
+
+    public synchronized long rebuild() throws Exception {
+        if (!columnarHistoryStore.isEnabled()) {
+            log.warn("History store is disabled, nothing to rebuild");
+            return 0;
+        }
+        long start = System.currentTimeMillis();
+
+        // Integer.MIN_VALUE makes MySQL Connector/J stream rows instead of buffering the table
+        JdbcTemplate streamingTemplate = new JdbcTemplate(dataSource);
+        streamingTemplate.setFetchSize(Integer.MIN_VALUE);
+
+        AtomicLong rows = new AtomicLong();
+        // The load job and ticks wait for the rebuild instead of writing into deleted files
+        columnarHistoryStore.rebuild(() -> {
+            streamingTemplate.query(SELECT_BARS, rs -> {
+                Timestamp tradDt = rs.getTimestamp("TradDt");
+                columnarHistoryStore.upsert(rs.getString("TckrSymb"),
+                        tradDt.getTime(),
+                        rs.getDouble("OpnPric"),
+                        rs.getDouble("HghPric"),
+                        rs.getDouble("LwPric"),
+                        rs.getDouble("LastPric"),
+                        rs.getLong("TtlTradgVol"));
+                rows.incrementAndGet();
+            });
+            return null;
+        });
+
+        log.info("Rebuilt history store from {} TRADES rows in {} ms", rows.get(), System.currentTimeMillis() - start);
+        return rows.get();
+    }
+}
@@ -0,0 +1,13 @@
+package com.tradingzone.services.trades.history;
+
+/**
+ * Chart payload: one primitive array per column, index aligned, time in epoch millis.
+ */
+public record HistorySeries(String symbol,
+                            long[] t,
+                            double[] o,
+                            double[] h,
+                            double[] l,
+                            double[] c,
+                            long[] v) {
+}
@@ -0,0 +1,111 @@
+package com.tradingzone.services.trades.history;
+
+import com.tradingzone.services.redis.repositories.TradeJedisCache;
+import com.tradingzone.services.redis.service.TradeJedisService;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+import java.time.ZoneId;
+import java.time.ZonedDateTime;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Serves chart history as primitive columns: past days from the local columnar store,
+ * the current day from Redis.
+ */
+@Slf4j
+@Service
+public class TradeHistoryService {
+
+    @Autowired
+    private ColumnarHistoryStore columnarHistoryStore;
+
+    @Autowired
+    private TradeJedisService tradeJedisService;
+
+    public HistorySeries fetchColumns(String symbol, String timeRange) {
+        long min = tradeJedisService.historyRangeStart(timeRange);
+        long max = System.currentTimeMillis();
+
+        HistorySeries stored = columnarHistoryStore.read(symbol, min, max, columns -> toSeries(symbol, columns));
+        if (stored == null) {
+            return fromRedis(symbol, tradeJedisService.fetchSymbolHistory(symbol, timeRange));
+        }
+        return withLatest(stored, tradeJedisService.fetchLatestPrice(symbol));
+    }
+
+    private HistorySeries toSeries(String symbol, HistoryColumns columns) {
+        int size = columns.size();
+        long[] t = new long[size];
+        double[] o = new double[size];
+        double[] h = new double[size];
+        double[] l = new double[size];
+        double[] c = new double[size];
+        long[] v = new long[size];
+        columns.time().get(t);
+        columns.open().get(o);
+        columns.high().get(h);
+        columns.low().get(l);
+        columns.close().get(c);
+        columns.volume().get(v);
+        return new HistorySeries(symbol, t, o, h, l, c, v);
+    }
+
+    /**
+     * Redis holds the live version of the current day, so its latest bar replaces the
+     * stored bar of the same day or is appended after the stored days.
+     */
+    private HistorySeries withLatest(HistorySeries series, TradeJedisCache latest) {
+        if (latest == null || latest.getTradDt() == null) {
+            return series;
+        }
+        long time = ZonedDateTime.of(latest.getTradDt(), ZoneId.systemDefault()).toInstant().toEpochMilli();
+        int size = series.t().length;
+        if (size > 0 && series.t()[size - 1] > time) {
+            return series;
+        }
+        int index = size > 0 && series.t()[size - 1] == time ? size - 1 : size;
+        HistorySeries merged = index == size ? grow(series, size + 1) : series;
+        setBar(merged, index, time, latest);
+        return merged;
+    }
+
+    private HistorySeries fromRedis(String symbol, List<TradeJedisCache> trades) {
+        HistorySeries series = grow(new HistorySeries(symbol, new long[0], new double[0], new double[0],
+                new double[0], new double[0], new long[0]), trades.size());
+        int size = 0;
+        for (TradeJedisCache trade : trades) {
+            long time = ZonedDateTime.of(trade.getTradDt(), ZoneId.systemDefault()).toInstant().toEpochMilli();
+            // Dummy ticks share the day of the bar they update, the later member wins
+            int index = size > 0 && series.t()[size - 1] == time ? size - 1 : size++;
+            setBar(series, index, time, trade);
+        }
+        return size == trades.size() ? series : grow(series, size);
+    }
+
+    private static HistorySeries grow(HistorySeries series, int size) {
+        return new HistorySeries(series.symbol(),
+                Arrays.copyOf(series.t(), size),
+                Arrays.copyOf(series.o(), size),
+                Arrays.copyOf(series.h(), size),
+                Arrays.copyOf(series.l(), size),
+                Arrays.copyOf(series.c(), size),
+                Arrays.copyOf(series.v(), size));
+    }
+
+    private static void setBar(HistorySeries series, int index, long time, TradeJedisCache trade) {
+        double close = trade.getLastPric() != null ? trade.getLastPric() : value(trade.getClsPric());
+        series.t()[index] = time;
+        series.o()[index] = value(trade.getOpnPric());
+        series.h()[index] = Math.max(value(trade.getHghPric()), close);
+        series.l()[index] = trade.getLwPric() != null ? Math.min(trade.getLwPric(), close) : close;
+        series.c()[index] = close;
+        series.v()[index] = trade.getTtlTradgVol() == null ? 0 : trade.getTtlTradgVol().longValue();
+    }
+
+    private static double value(Double value) {
+        return value == null ? 0 : value;
+    }
+}
@@ -0,0 +1,210 @@
+package com.tradingzone.services.trades.stream;
+
+import io.micrometer.core.instrument.Counter;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.BiFunction;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+/**
+ * Sends server-sent events to many streams from a small pool, so a slow client only holds
+ * back its own events.
+ *
+ * Each stream holds one pending value of type {@code P}: values offered while a send is
+ * in progress are merged into it instead of queuing. At most one send per stream runs at
+ * a time. The pool has room for a bounded number of waiting streams; when it is full the
+ * value stays pending and {@link #check} schedules it again. {@link #check} also closes
+ * a stream whose send has been stuck for the stall timeout, or whose pending value has
+ * waited longer than the lag limit, and interrupts its sender so the thread comes back.
+ */
+@Slf4j
+public class ConflatingSseSender<V, P> {
+
+    private final String name;
+    private final long stallNanos;
+    private final long maxLagNanos;
+    private final BiFunction<P, V, P> merge;
+    private final Counter slowConsumers;
+    private final ThreadPoolTaskExecutor executor;
+    private final Set<Stream<P>> streams = ConcurrentHashMap.newKeySet();
+
+    /**
+     * @param merge merges an offered value into the pending one, which is null when
+     *              nothing is pending
+     */
+    public ConflatingSseSender(String name, int threads, int queueCapacity, long stallTimeoutMillis, long maxLagMillis,
+                               BiFunction<P, V, P> merge, Counter slowConsumers) {
+        this.name = name;
+        this.stallNanos = TimeUnit.MILLISECONDS.toNanos(stallTimeoutMillis);
+        this.maxLagNanos = TimeUnit.MILLISECONDS.toNanos(maxLagMillis);
+        this.merge = merge;
+        this.slowConsumers = slowConsumers;
+
+        executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(threads);
+        executor.setMaxPoolSize(threads);
+        executor.setQueueCapacity(queueCapacity);
+        executor.setThreadNamePrefix(name + "-sender-");
+        executor.initialize();
+    }
+
+    /**
+     * @param label   names the stream in the log
+     * @param toEvent turns the pending value into the event to send
+     * @param onSent  called with each value once it is sent
+     * @param onClose called once when the stream closes, for whatever reason
+     */
+    public Stream<P> open(String label, SseEmitter emitter, Function<P, SseEmitter.SseEventBuilder> toEvent,
+                          Consumer<P> onSent, Runnable onClose) {
+        Stream<P> stream = new Stream<>(label, emitter, toEvent, onSent, onClose);
+        streams.add(stream);
+        emitter.onCompletion(() -> close(stream));
+        emitter.onTimeout(emitter::complete);
+        emitter.onError(e -> close(stream));
+        return stream;
+    }
+
+    public void offer(Stream<P> stream, V value) {
+        synchronized (stream) {
+            if (stream.pending == null) {
+                stream.pendingSince = System.nanoTime();
+            }
+            stream.pending = merge.apply(stream.pending, value);
+        }
+        schedule(stream);
+    }
+
+    /**
+     * Stops sending to the stream; the emitter is left to the caller.
+     */
+    public void close(Stream<P> stream) {
+        if (streams.remove(stream)) {
+            stream.onClose.run();
+        }
+    }
+
+    /**
+     * Closes the streams that fell behind and retries the ones the full pool turned away.
+     */
+    public void check() {
+        long now = System.nanoTime();
+        for (Stream<P> stream : streams) {
+            long started = stream.sendStarted;
+            long waiting = stream.pendingSince();
+            if (started != 0 && now - started > stallNanos) {
+                dropSlowConsumer(stream, "send stalled");
+            } else if (waiting != 0 && now - waiting > maxLagNanos) {
+                dropSlowConsumer(stream, "events waiting too long");
+            } else if (waiting != 0 && !stream.draining.get()) {
+                schedule(stream);
+            }
+        }
+    }
+
+    public void shutdown() {
+        executor.shutdown();
+        streams.forEach(stream -> stream.emitter.complete());
+    }
+
+    private void schedule(Stream<P> stream) {
+        if (stream.draining.compareAndSet(false, true)) {
+            try {
+                stream.drain = executor.submit(() -> drain(stream));
+            } catch (TaskRejectedException e) {
+                // Every sender is busy and the queue is full, the value stays pending
+                stream.draining.set(false);
+            }
+        }
+    }
+
+    private void drain(Stream<P> stream) {
+        try {
+            while (true) {
+                P value;
+                synchronized (stream) {
+                    if (!streams.contains(stream)) {
+                        // Closed, maybe for stalling just as its send got through
+                        stream.emitter.complete();
+                        return;
+                    }
+                    if (stream.pending == null) {
+                        stream.draining.set(false);
+                        return;
+                    }
+                    value = stream.pending;
+                    stream.pending = null;
+                    stream.pendingSince = 0;
+                }
+                stream.sendStarted = System.nanoTime();
+                stream.emitter.send(stream.toEvent.apply(value));
+                stream.sendStarted = 0;
+                stream.onSent.accept(value);
+            }
+        } catch (Exception e) {
+            // Client went away, or the send was interrupted for stalling
+            log.debug("Dropping {} stream of {}: {}", name, stream.label, e.getMessage());
+            stream.sendStarted = 0;
+            close(stream);
+            stream.emitter.completeWithError(e);
+        }
+    }
+
+    private void dropSlowConsumer(Stream<P> stream, String reason) {
+        if (streams.contains(stream)) {
+            log.warn("Closing {} stream of {}: {}", name, stream.label, reason);
+            slowConsumers.increment();
+            close(stream);
+            if (stream.sendStarted != 0) {
+                // The emitter is held by the stuck send; interrupting it fails the write,
+                // and the sender ends the response
+                Future<?> drain = stream.drain;
+                if (drain != null) {
+                    drain.cancel(true);
+                }
+            } else {
+                stream.emitter.complete();
+            }
+        }
+    }
+
+    public static final class Stream<P> {
+
+        private final String label;
+        private final SseEmitter emitter;
+        private final Function<P, SseEmitter.SseEventBuilder> toEvent;
+        private final Consumer<P> onSent;
+        private final Runnable onClose;
+        // Pending value and when it was first offered, 0 when none; guarded by the stream
+        private P pending;
+        private long pendingSince;
+        private final AtomicBoolean draining = new AtomicBoolean();
+        private volatile long sendStarted;
+        private volatile Future<?> drain;
+
+        private Stream(String label, SseEmitter emitter, Function<P, SseEmitter.SseEventBuilder> toEvent,
+                       Consumer<P> onSent, Runnable onClose) {
+            this.label = label;
+            this.emitter = emitter;
+            this.toEvent = toEvent;
+            this.onSent = onSent;
+            this.onClose = onClose;
+        }
+
+        public SseEmitter emitter() {
+            return emitter;
+        }
+
+        private synchronized long pendingSince() {
+            return pendingSince;
+        }
+    }
+}
@@ -0,0 +1,87 @@
+package com.tradingzone.services.trades.stream;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.tradingzone.services.redis.repositories.TradeJedisCache;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+/**
+ * Writes trades as NDJSON (one JSON document per line) while they are read from Redis,
+ * so a response never holds more than the producer's current batch in memory.
+ *
+ * The first line is flushed immediately and later lines every {@code trades.stream.flush-every}
+ * bars. Time to first byte is recorded per endpoint in the {@code trades.stream.ttfb} timer.
+ */
+@Slf4j
+@Component
+public class TradeStreamWriter {
+
+    private final ObjectWriter objectWriter;
+    private final MeterRegistry meterRegistry;
+
+    @Value("${trades.stream.flush-every:200}")
+    private int flushEvery;
+
+    public TradeStreamWriter(ObjectMapper objectMapper, MeterRegistry meterRegistry) {
+        this.objectWriter = objectMapper.writerFor(TradeJedisCache.class);
+        this.meterRegistry = meterRegistry;
+    }
+
+    /**
+     * @param endpoint tag for the time to first byte timer
+     * @param producer feeds every bar of the response to the given consumer
+     */
+    public ResponseEntity<StreamingResponseBody> stream(String endpoint, Consumer<Consumer<TradeJedisCache>> producer) {
+        long requestStart = System.nanoTime();
+        Timer ttfb = Timer.builder("trades.stream.ttfb")
+                .description("Time from request to the first streamed bar")
+                .tag("endpoint", endpoint)
+                .publishPercentiles(0.5, 0.95, 0.99)
+                .register(meterRegistry);
+
+        StreamingResponseBody body = out -> {
+            int every = Math.max(1, flushEvery);
+            int[] written = {0};
+            try {
+                producer.accept(trade -> {
+                    try {
+                        out.write(objectWriter.writeValueAsBytes(trade));
+                        out.write('\n');
+                        if (++written[0] == 1) {
+                            out.flush();
+                            ttfb.record(System.nanoTime() - requestStart, TimeUnit.NANOSECONDS);
+                        } else if (written[0] % every == 0) {
+                            out.flush();
+                        }
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                });
+            } catch (UncheckedIOException e) {
+                // Usually the client went away, stop reading from Redis
+                log.debug("Stopped {} stream after {} bars: {}", endpoint, written[0], e.getMessage());
+                return;
+            }
+            if (written[0] == 0) {
+                ttfb.record(System.nanoTime() - requestStart, TimeUnit.NANOSECONDS);
+            }
+            out.flush();
+        };
+
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_NDJSON)
+                .body(body);
+    }
+}
@@ -3,10 +3,15 @@ package com.tradingzone.services.watchlist.controller;
 import com.tradingzone.services.auth.UserAuthService;
 import com.tradingzone.services.redis.repositories.TradeJedisCache;
 import com.tradingzone.services.redis.service.TradeJedisService;
+import com.tradingzone.services.watchlist.service.QuoteHub;
 import com.tradingzone.services.watchlist.service.WatchListService;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
 import jakarta.servlet.http.HttpServletRequest;
 import java.util.List;
@@ -27,6 +32,9 @@ public class WatchListController {
     @Autowired
     private UserAuthService userAuthService;
 
+    @Autowired
+    private QuoteHub quoteHub;
+
     // Commented out - Not used by UI, unprotected APIs
     /*
     @GetMapping("/symbols")
@@ -165,6 +173,30 @@ public class WatchListController {
         return tradeJedisService.fetchWatchlistTrades("hash:watchlist", key, date);
     }
 
+    /**
+     * Server-sent "quotes" events: every symbol of the watchlist on connect, then only the
+     * quotes that changed
+     */
+    @GetMapping(path = "/my/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public ResponseEntity<SseEmitter> streamMyWatchlist(HttpServletRequest request,
+                                                        @RequestParam(defaultValue = "1") int watchlistId){
+        String authToken = extractAuthToken(request);
+        Integer tradingUserId = userAuthService.getTradingUserId(authToken);
+
+        if (tradingUserId == null) {
+            log.warn("Could not determine trading user ID from auth token");
+            return ResponseEntity.status(HttpStatus.UNAUTHORIZED).build();
+        }
+
+        String key = tradingUserId + ":" + watchlistId;
+        String[] symbols = watchListService.findSymbols("hash:watchlist", key);
+        if (symbols.length == 0 && !watchListService.hasWatchlist("hash:watchlist", key)) {
+            log.warn("No watchlist {} to stream", key);
+            return ResponseEntity.notFound().build();
+        }
+        return ResponseEntity.ok(quoteHub.subscribe(key, symbols));
+    }
+
     @PostMapping("/my/watchlist/{watchlistId}")
     public boolean createMyWatchlist(HttpServletRequest request, @PathVariable int watchlistId){
         String authToken = extractAuthToken(request);
@@ -265,7 +297,11 @@ public class WatchListController {
         }
         
         log.info("Adding symbol {} to authenticated user {} watchlist {}", symbol, tradingUserId, watchlistId);
-        return watchListService.addSymbol("hash:watchlist", key, symbol);
+        boolean added = watchListService.addSymbol("hash:watchlist", key, symbol);
+        if (added) {
+            quoteHub.watchlistChanged(key, watchListService.getSymbols("hash:watchlist", key));
+        }
+        return added;
     }
 
     @PutMapping("/my/remove/{symbol}")
@@ -282,7 +318,11 @@ public class WatchListController {
         
         String key = tradingUserId + ":" + watchlistId;
         log.info("Removing symbol {} from authenticated user {} watchlist {}", symbol, tradingUserId, watchlistId);
-        return watchListService.removeSymbol("hash:watchlist", key, symbol);
+        boolean removed = watchListService.removeSymbol("hash:watchlist", key, symbol);
+        if (removed) {
+            quoteHub.watchlistChanged(key, watchListService.getSymbols("hash:watchlist", key));
+        }
+        return removed;
     }
 
     private String extractAuthToken(HttpServletRequest request) {
@@ -0,0 +1,249 @@
+package com.tradingzone.services.watchlist.service;
+
+import com.tradingzone.services.redis.repositories.TradeJedisCache;
+import com.tradingzone.services.redis.service.TradeEventBus;
+import com.tradingzone.services.redis.service.TradeJedisService;
+import com.tradingzone.services.trades.stream.ConflatingSseSender;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.MediaType;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskScheduler;
+import org.springframework.stereotype.Service;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Pushes watchlist quotes over server-sent events as prices change.
+ *
+ * The hub listens once on {@link TradeEventBus#PRICE_CHANNEL} and keeps an index of
+ * symbol to open connections; price events for symbols nobody watches are ignored.
+ * Every {@code trades.quotes.interval-ms} the changed symbols are read in one pipelined
+ * call and offered to each connection watching them.
+ *
+ * Quotes go out through a {@link ConflatingSseSender}: each connection holds at most one
+ * pending quote per symbol, so ticks arriving while a send is in progress replace older
+ * ones instead of queuing. A connection whose oldest pending quote has waited
+ * {@code trades.quotes.max-lag-ms}, or whose send has been stuck for
+ * {@code trades.quotes.stall-timeout-ms}, is closed; the client reconnects and starts
+ * from a fresh snapshot.
+ */
+@Slf4j
+@Service
+public class QuoteHub {
+
+    @Autowired
+    private TradeJedisService tradeJedisService;
+
+    @Autowired
+    private TradeEventBus tradeEventBus;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Value("${trades.quotes.interval-ms:250}")
+    private long intervalMillis;
+
+    @Value("${trades.quotes.sender-threads:4}")
+    private int senderThreads;
+
+    @Value("${trades.quotes.sender-queue:1024}")
+    private int senderQueue;
+
+    @Value("${trades.quotes.max-lag-ms:5000}")
+    private long maxLagMillis;
+
+    @Value("${trades.quotes.stall-timeout-ms:10000}")
+    private long stallTimeoutMillis;
+
+    @Value("${trades.quotes.timeout-ms:1800000}")
+    private long timeoutMillis;
+
+    private final Set<Connection> connections = ConcurrentHashMap.newKeySet();
+    // Watched symbol to the connections watching it
+    private final Map<String, Set<Connection>> watchers = new ConcurrentHashMap<>();
+    private final Set<String> dirtySymbols = ConcurrentHashMap.newKeySet();
+
+    private ThreadPoolTaskScheduler scheduler;
+    private ConflatingSseSender<Quote, Map<String, Quote>> sender;
+
+    private Counter sentCounter;
+    private Counter conflatedCounter;
+    private Counter slowConsumerCounter;
+
+    @PostConstruct
+    public void init() {
+        sentCounter = Counter.builder("trades.quotes.sent")
+                .description("Quotes sent to watchlist streams")
+                .register(meterRegistry);
+        conflatedCounter = Counter.builder("trades.quotes.conflated")
+                .description("Quotes replaced by a newer one before they were sent")
+                .register(meterRegistry);
+        slowConsumerCounter = Counter.builder("trades.quotes.slow-consumers")
+                .description("Watchlist streams closed for falling behind")
+                .register(meterRegistry);
+        Gauge.builder("trades.quotes.connections", connections, Set::size)
+                .description("Open watchlist streams")
+                .register(meterRegistry);
+
+        sender = new ConflatingSseSender<>("quote", senderThreads, senderQueue, stallTimeoutMillis, maxLagMillis,
+                this::conflate, slowConsumerCounter);
+
+        scheduler = new ThreadPoolTaskScheduler();
+        scheduler.setPoolSize(1);
+        scheduler.setThreadNamePrefix("quote-hub-");
+        scheduler.initialize();
+        scheduler.scheduleWithFixedDelay(this::tick, Duration.ofMillis(intervalMillis));
+
+        tradeEventBus.subscribe(TradeEventBus.PRICE_CHANNEL, symbol -> {
+            if (watchers.containsKey(symbol)) {
+                dirtySymbols.add(symbol);
+            }
+        });
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        scheduler.shutdown();
+        sender.shutdown();
+    }
+
+    /**
+     * Opens a stream of "quotes" events for the watchlist: the current quote of every
+     * symbol first, then the quotes that changed.
+     */
+    public SseEmitter subscribe(String watchlistKey, String[] symbols) {
+        Connection connection = new Connection(watchlistKey);
+        connection.stream = sender.open("watchlist " + watchlistKey, new SseEmitter(timeoutMillis),
+                batch -> SseEmitter.event().name("quotes")
+                        .data(new ArrayList<>(batch.values()), MediaType.APPLICATION_JSON),
+                batch -> sentCounter.increment(batch.size()),
+                () -> close(connection));
+
+        connections.add(connection);
+        watch(connection, symbols);
+        log.info("Quote stream opened for watchlist {} with {} symbols", watchlistKey, symbols.length);
+        return connection.stream.emitter();
+    }
+
+    /**
+     * Points the open streams of the watchlist at its new symbols and sends the quotes
+     * of the ones added.
+     */
+    public void watchlistChanged(String watchlistKey, String[] symbols) {
+        for (Connection connection : connections) {
+            if (connection.watchlistKey.equals(watchlistKey)) {
+                unwatch(connection);
+                watch(connection, symbols);
+            }
+        }
+    }
+
+    private void watch(Connection connection, String[] symbols) {
+        Set<String> added = new HashSet<>(Arrays.asList(symbols));
+        added.removeAll(connection.symbols);
+        connection.symbols = Set.of(Arrays.stream(symbols).distinct().toArray(String[]::new));
+        for (String symbol : connection.symbols) {
+            watchers.computeIfAbsent(symbol, s -> ConcurrentHashMap.newKeySet()).add(connection);
+        }
+        if (!added.isEmpty()) {
+            scheduler.execute(() -> tradeJedisService.fetchLatestPrices(added)
+                    .forEach((symbol, trade) -> offer(connection, Quote.of(symbol, trade))));
+        }
+    }
+
+    private void unwatch(Connection connection) {
+        for (String symbol : connection.symbols) {
+            watchers.computeIfPresent(symbol, (s, watching) -> {
+                watching.remove(connection);
+                return watching.isEmpty() ? null : watching;
+            });
+        }
+    }
+
+    private void close(Connection connection) {
+        if (connections.remove(connection)) {
+            unwatch(connection);
+            log.info("Quote stream closed for watchlist {}", connection.watchlistKey);
+        }
+    }
+
+    private void tick() {
+        try {
+            sender.check();
+
+            Set<String> symbols = new HashSet<>();
+            for (String symbol : dirtySymbols) {
+                if (dirtySymbols.remove(symbol)) {
+                    symbols.add(symbol);
+                }
+            }
+            if (symbols.isEmpty()) {
+                return;
+            }
+
+            for (Map.Entry<String, TradeJedisCache> price : tradeJedisService.fetchLatestPrices(symbols).entrySet()) {
+                Quote quote = Quote.of(price.getKey(), price.getValue());
+                for (Connection connection : watchers.getOrDefault(price.getKey(), Set.of())) {
+                    offer(connection, quote);
+                }
+            }
+        } catch (Exception e) {
+            // Keep the schedule alive, the next tick starts over
+            log.error("Quote hub tick failed", e);
+        }
+    }
+
+    private void offer(Connection connection, Quote quote) {
+        sender.offer(connection.stream, quote);
+    }
+
+    /**
+     * Keeps the latest unsent quote per symbol.
+     */
+    private Map<String, Quote> conflate(Map<String, Quote> pending, Quote quote) {
+        Map<String, Quote> batch = pending == null ? new LinkedHashMap<>() : pending;
+        if (batch.put(quote.tckrSymb(), quote) != null) {
+            conflatedCounter.increment();
+        }
+        return batch;
+    }
+
+    /**
+     * The price fields of a bar a watchlist row shows.
+     */
+    public record Quote(String tckrSymb, LocalDateTime tradDt, Double lastPric, Double opnPric, Double hghPric,
+                        Double lwPric, BigDecimal chngePric, BigDecimal chngePricPct) {
+
+        static Quote of(String symbol, TradeJedisCache trade) {
+            return new Quote(symbol, trade.getTradDt(), trade.getLastPric(), trade.getOpnPric(),
+                    trade.getHghPric(), trade.getLwPric(), trade.getChngePric(), trade.getChngePricPct());
+        }
+    }
+
+    private static final class Connection {
+
+        private final String watchlistKey;
+        private volatile Set<String> symbols = Set.of();
+        private ConflatingSseSender.Stream<Map<String, Quote>> stream;
+
+        private Connection(String watchlistKey) {
+            this.watchlistKey = watchlistKey;
+        }
+    }
+}
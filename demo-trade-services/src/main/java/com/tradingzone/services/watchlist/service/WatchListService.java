@@ -1,151 +1,156 @@
 package com.tradingzone.services.watchlist.service;
 
 import com.google.gson.Gson;
+import jakarta.annotation.PostConstruct;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
+import redis.clients.jedis.PipelineBase;
+import redis.clients.jedis.Response;
+import redis.clients.jedis.Transaction;
 import redis.clients.jedis.UnifiedJedis;
+import redis.clients.jedis.params.ScanParams;
+import redis.clients.jedis.params.ZAddParams;
+import redis.clients.jedis.resps.ScanResult;
 
+import java.util.Arrays;
 import java.util.HashMap;
-import java.util.Map;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
 
+/**
+ * Watchlists in Redis, one sorted set of symbols per watchlist.
+ *
+ * Watchlist {@code <userId>:<id>} of cache {@code hash:watchlist} keeps its symbols in
+ * {@code zset:watchlist:<userId>:<id>}, scored by when they were added so they list in
+ * the order added, and is named in its user's index {@code set:watchlist:<userId>}. The
+ * index is what makes a watchlist exist, so an empty one is kept even though Redis drops
+ * an empty sorted set. Adding and removing a symbol are a single ZADD NX or ZREM.
+ *
+ * Watchlists still stored as comma-joined strings in the cache hash are moved over all
+ * at once by {@link #migrateLegacyWatchlists} at startup, and otherwise the first time
+ * they are read. Listing a user's watchlists only scans the legacy hash until it is
+ * found empty.
+ */
 @Slf4j
 @Service
 public class WatchListService {
 
+    private static final String[] DEFAULT_SYMBOLS = {"CHEMPLASTS", "HDFCBANK", "RELIANCE", "SWIGGY", "INFY"};
+
     @Autowired
     private UnifiedJedis unifiedJedis;
 
     @Autowired
     private Gson gson;
 
+    // Set once hash:watchlist is found empty; legacy entries are not written any more
+    private volatile boolean legacyMigrated;
+
+    @PostConstruct
+    public void init() {
+        try {
+            migrateLegacyWatchlists("hash:watchlist");
+        } catch (Exception e) {
+            log.warn("Could not migrate legacy watchlists, they will be moved as they are read: {}", e.getMessage());
+        }
+    }
+
     public String[] getSymbols(String cache, String key) {
 
-        String[] symMap = new String[0];
-        
-        String symbols = unifiedJedis.hget(cache, key);
-
-        if (symbols != null && !symbols.trim().isEmpty()) {
-            // Split by comma and filter out empty strings
-            String[] rawSymbols = symbols.split(",");
-            symMap = java.util.Arrays.stream(rawSymbols)
-                .map(String::trim)
-                .filter(s -> !s.isEmpty())
-                .toArray(String[]::new);
-        } else if (symbols != null) {
-            // Watchlist exists but is empty
-            log.debug("cache {} key {} is empty", cache, key);
-        } else {
-            // Watchlist doesn't exist, create it (only first watchlist gets default symbols)
-            log.info("Watchlist not found for cache: {} key: {}, creating", cache, key);
-            if (createWatchlist(cache, key)) {
-                // Re-fetch the symbols after creation
-                symbols = unifiedJedis.hget(cache, key);
-                if (symbols != null && !symbols.trim().isEmpty()) {
-                    String[] rawSymbols = symbols.split(",");
-                    symMap = java.util.Arrays.stream(rawSymbols)
-                        .map(String::trim)
-                        .filter(s -> !s.isEmpty())
-                        .toArray(String[]::new);
-                }
-            } else {
-                log.error("Failed to create watchlist for cache: {} key: {}", cache, key);
-            }
+        if (exists(cache, key)) {
+            return symbols(cache, key);
         }
 
-        return symMap;
+        // Watchlist doesn't exist, create it (only first watchlist gets default symbols)
+        log.info("Watchlist not found for cache: {} key: {}, creating", cache, key);
+        if (!createWatchlist(cache, key)) {
+            log.error("Failed to create watchlist for cache: {} key: {}", cache, key);
+            return new String[0];
+        }
+        return symbols(cache, key);
     }
 
-    public boolean addSymbol(String cache, String key, String symbol ) {
+    /**
+     * The watchlist's symbols in the order added, empty when there is no such watchlist.
+     * Unlike {@link #getSymbols} a missing watchlist is not created.
+     */
+    public String[] findSymbols(String cache, String key) {
+        return exists(cache, key) ? symbols(cache, key) : new String[0];
+    }
 
-        String symbols = unifiedJedis.hget(cache, key);
+    public boolean hasWatchlist(String cache, String key) {
+        return exists(cache, key);
+    }
 
-        if (symbols != null ) {
-            // Handle empty watchlist case
-            if (symbols.trim().isEmpty()) {
-                unifiedJedis.hset(cache, key, symbol);
-                log.info("cache {} key {} symbol {} added to empty watchlist successfully.",cache,key, symbol);
-                return true;
-            }
-            
-            if ( !symbols.contains(symbol)) {
-                symbols = symbols + "," + symbol;
-                unifiedJedis.hset(cache, key, symbols);
-                log.info("cache {} key {} symbol {} added successfully.",cache,key, symbol);
-            }else{
-                log.error("cache {} key {} symbol already exists symbol {} ",cache,key, symbol);
-                return false;
-            }
-        }else{
+    public boolean addSymbol(String cache, String key, String symbol ) {
+
+        if (!exists(cache, key)) {
             log.error("cache {} key {} not found ",cache,key);
             return false;
         }
+
+        long added = unifiedJedis.zadd(symbolsKey(cache, key), System.currentTimeMillis(), symbol, ZAddParams.zAddParams().nx());
+        if (added == 0) {
+            log.error("cache {} key {} symbol already exists symbol {} ",cache,key, symbol);
+            return false;
+        }
+        log.info("cache {} key {} symbol {} added successfully.",cache,key, symbol);
         return true;
     }
 
     public boolean removeSymbol(String cache, String key, String symbol ) {
 
-        String symbols = unifiedJedis.hget(cache, key);
-
-        if (symbols != null ) {
-            if ( symbols.contains(symbol)) {
-                // Split by comma, remove the symbol, and rejoin
-                String[] symbolArray = symbols.split(",");
-                StringBuilder newSymbols = new StringBuilder();
-                
-                for (String sym : symbolArray) {
-                    String trimmedSym = sym.trim();
-                    if (!trimmedSym.isEmpty() && !trimmedSym.equals(symbol)) {
-                        if (newSymbols.length() > 0) {
-                            newSymbols.append(",");
-                        }
-                        newSymbols.append(trimmedSym);
-                    }
-                }
-                
-                // Update the cache with cleaned symbols
-                String result = newSymbols.toString();
-                // Keep empty watchlists instead of deleting them to prevent data loss on Redis restarts
-                // Empty watchlists are represented as empty strings ""
-                unifiedJedis.hset(cache, key, result);
-                
-                log.info("cache {} key {} symbol {} removed succesfully.",cache,key, symbol);
-            }else{
-                log.error("cache {} key {} symbol doesnt exists symbol {} ",cache,key, symbol);
-                return false;
-            }
-        }else{
+        if (!exists(cache, key)) {
             log.error("cache {} key {} not found ",cache,key);
             return false;
         }
+
+        // An empty watchlist stays in the user's index after its last symbol goes
+        if (unifiedJedis.zrem(symbolsKey(cache, key), symbol) == 0) {
+            log.error("cache {} key {} symbol doesnt exists symbol {} ",cache,key, symbol);
+            return false;
+        }
+        log.info("cache {} key {} symbol {} removed succesfully.",cache,key, symbol);
         return true;
     }
 
     public Map<String, String[]> getUserWatchlists(String tradingUserId) {
         Map<String, String[]> userWatchlists = new HashMap<>();
-        
+        String cache = "hash:watchlist";
+
         try {
+            // Only while the legacy hash still has entries
+            if (!legacyMigrated) {
+                if (unifiedJedis.exists(cache)) {
+                    migrateLegacyWatchlists(cache, tradingUserId);
+                } else {
+                    legacyMigrated = true;
+                }
+            }
+
             // Ensure the first watchlist exists for the user
             ensureFirstWatchlistExists(tradingUserId);
-            
-            // Get all watchlists for the user
-            String pattern = tradingUserId + ":*";
-            Set<String> keys = unifiedJedis.hkeys("hash:watchlist");
-            
-            for (String key : keys) {
-                if (key.startsWith(tradingUserId + ":")) {
-                    String[] symbols = getSymbols("hash:watchlist", key);
-                    userWatchlists.put(key, symbols);
+
+            Set<String> keys = unifiedJedis.smembers(indexKey(cache, tradingUserId));
+            Map<String, Response<List<String>>> responses = new HashMap<>();
+            try (PipelineBase pipeline = unifiedJedis.pipelined()) {
+                for (String key : keys) {
+                    responses.put(key, pipeline.zrange(symbolsKey(cache, key), 0, -1));
                 }
+                pipeline.sync();
             }
-            
+            for (Map.Entry<String, Response<List<String>>> entry : responses.entrySet()) {
+                userWatchlists.put(entry.getKey(), entry.getValue().get().toArray(new String[0]));
+            }
+
             log.info("Found {} watchlists for user: {}", userWatchlists.size(), tradingUserId);
         } catch (Exception e) {
             log.error("Error getting watchlists for user {}: {}", tradingUserId, e.getMessage());
         }
-        
+
         return userWatchlists;
     }
 
@@ -154,12 +159,11 @@ public class WatchListService {
      */
     private void ensureFirstWatchlistExists(String tradingUserId) {
         String firstWatchlistKey = tradingUserId + ":1";
-        String existingWatchlist = unifiedJedis.hget("hash:watchlist", firstWatchlistKey);
-        
-        if (existingWatchlist == null) {
+
+        if (!exists("hash:watchlist", firstWatchlistKey)) {
             log.info("First watchlist doesn't exist for user: {}, creating with default symbols", tradingUserId);
             createWatchlist("hash:watchlist", firstWatchlistKey);
-        } else if (existingWatchlist.isEmpty() || existingWatchlist.trim().isEmpty()) {
+        } else if (unifiedJedis.zcard(symbolsKey("hash:watchlist", firstWatchlistKey)) == 0) {
             log.info("First watchlist exists but is empty for user: {}, adding default symbols", tradingUserId);
             addDefaultSymbols("hash:watchlist", firstWatchlistKey);
         }
@@ -172,10 +176,16 @@ public class WatchListService {
                 log.warn("Services not healthy, skipping watchlist deletion for cache: {} key: {}", cache, key);
                 return false;
             }
-            
+
             log.info("Deleting watchlist cache: {} key: {}", cache, key);
-            Long result = unifiedJedis.hdel(cache, key);
-            boolean deleted = result != null && result > 0;
+            boolean deleted = false;
+            if (exists(cache, key)) {
+                try (Transaction transaction = unifiedJedis.multi()) {
+                    transaction.srem(indexKey(cache, userId(key)), key);
+                    transaction.del(symbolsKey(cache, key));
+                    deleted = ((Long) transaction.exec().get(0)) > 0;
+                }
+            }
             log.info("Watchlist deletion result: {} for cache: {} key: {}", deleted, cache, key);
             return deleted;
         } catch (Exception e) {
@@ -202,19 +212,15 @@ public class WatchListService {
                 log.warn("Services not healthy, skipping watchlist creation for cache: {} key: {}", cache, key);
                 return false;
             }
-            
+
             log.info("Creating watchlist cache: {} key: {}", cache, key);
-            
-            // Check if watchlist already exists
-            String existingWatchlist = unifiedJedis.hget(cache, key);
-            if (existingWatchlist != null) {
+
+            // Check if watchlist already exists, the index add settles concurrent creates
+            if (exists(cache, key) || unifiedJedis.sadd(indexKey(cache, userId(key)), key) == 0) {
                 log.info("Watchlist already exists for cache: {} key: {}", cache, key);
                 return true;
             }
-            
-            // Create empty watchlist
-            unifiedJedis.hset(cache, key, "");
-            
+
             // Only add default symbols to the first watchlist (ID: 1)
             if (key.endsWith(":1")) {
                 addDefaultSymbols(cache, key);
@@ -222,7 +228,7 @@ public class WatchListService {
             } else {
                 log.info("Successfully created empty watchlist for cache: {} key: {}", cache, key);
             }
-            
+
             return true;
         } catch (Exception e) {
             log.error("Error creating watchlist cache: {} key: {}: {}", cache, key, e.getMessage());
@@ -235,13 +241,9 @@ public class WatchListService {
      */
     private void addDefaultSymbols(String cache, String key) {
         try {
-            String[] defaultSymbols = {"CHEMPLASTS", "HDFCBANK", "RELIANCE", "SWIGGY", "INFY"};
-            
-            for (String symbol : defaultSymbols) {
-                addSymbol(cache, key, symbol);
-            }
-            
-            log.info("Added {} default symbols to watchlist cache: {} key: {}", defaultSymbols.length, cache, key);
+            unifiedJedis.zadd(symbolsKey(cache, key), scores(DEFAULT_SYMBOLS, System.currentTimeMillis()), ZAddParams.zAddParams().nx());
+
+            log.info("Added {} default symbols to watchlist cache: {} key: {}", DEFAULT_SYMBOLS.length, cache, key);
         } catch (Exception e) {
             log.error("Error adding default symbols to watchlist cache: {} key: {}: {}", cache, key, e.getMessage());
         }
@@ -251,40 +253,39 @@ public class WatchListService {
         try {
             // Get all existing watchlists for the user
             Map<String, String[]> userWatchlists = getUserWatchlists(tradingUserId);
-            
+
             // Create a sorted list of watchlist IDs
             List<Integer> watchlistIds = userWatchlists.keySet().stream()
                 .map(key -> Integer.parseInt(key.split(":")[1]))
                 .sorted()
                 .collect(java.util.stream.Collectors.toList());
-            
+
+            String indexKey = indexKey("hash:watchlist", tradingUserId);
+
             // Renumber watchlists starting from 1
             for (int i = 0; i < watchlistIds.size(); i++) {
                 int oldId = watchlistIds.get(i);
                 int newId = i + 1;
-                
+
                 if (oldId != newId) {
                     String oldKey = tradingUserId + ":" + oldId;
                     String newKey = tradingUserId + ":" + newId;
-                    
-                    // Get symbols from old watchlist
-                    String[] symbols = getSymbols("hash:watchlist", oldKey);
-                    
-                    // Create new watchlist with symbols
-                    if (symbols.length > 0) {
-                        String symbolsString = String.join(",", symbols);
-                        unifiedJedis.hset("hash:watchlist", newKey, symbolsString);
-                    } else {
-                        unifiedJedis.hset("hash:watchlist", newKey, "");
+
+                    // An empty watchlist has no sorted set to move
+                    boolean hasSymbols = userWatchlists.get(oldKey).length > 0;
+                    try (Transaction transaction = unifiedJedis.multi()) {
+                        if (hasSymbols) {
+                            transaction.rename(symbolsKey("hash:watchlist", oldKey), symbolsKey("hash:watchlist", newKey));
+                        }
+                        transaction.srem(indexKey, oldKey);
+                        transaction.sadd(indexKey, newKey);
+                        transaction.exec();
                     }
-                    
-                    // Delete old watchlist
-                    unifiedJedis.hdel("hash:watchlist", oldKey);
-                    
+
                     log.info("Renumbered watchlist {} to {} for user {}", oldId, newId, tradingUserId);
                 }
             }
-            
+
             log.info("Successfully renumbered watchlists for user {}", tradingUserId);
             return true;
         } catch (Exception e) {
@@ -292,4 +293,96 @@ public class WatchListService {
             return false;
         }
     }
+
+    /**
+     * Moves every watchlist still in the legacy hash of the cache to sorted sets and
+     * returns the number moved.
+     */
+    public int migrateLegacyWatchlists(String cache) {
+        Map<String, String> legacy = unifiedJedis.hgetAll(cache);
+        for (Map.Entry<String, String> entry : legacy.entrySet()) {
+            store(cache, entry.getKey(), legacySymbols(entry.getValue()));
+        }
+        log.info("Migrated {} watchlists of cache {} to sorted sets", legacy.size(), cache);
+        return legacy.size();
+    }
+
+    // The user's watchlists still in the legacy hash
+    private void migrateLegacyWatchlists(String cache, String tradingUserId) {
+        ScanParams params = new ScanParams().match(tradingUserId + ":*").count(500);
+        String cursor = ScanParams.SCAN_POINTER_START;
+        do {
+            ScanResult<Map.Entry<String, String>> page = unifiedJedis.hscan(cache, cursor, params);
+            for (Map.Entry<String, String> entry : page.getResult()) {
+                store(cache, entry.getKey(), legacySymbols(entry.getValue()));
+            }
+            cursor = page.getCursor();
+        } while (!ScanParams.SCAN_POINTER_START.equals(cursor));
+    }
+
+    private boolean exists(String cache, String key) {
+        if (unifiedJedis.sismember(indexKey(cache, userId(key)), key)) {
+            return true;
+        }
+        String legacy = unifiedJedis.hget(cache, key);
+        if (legacy == null) {
+            return false;
+        }
+        store(cache, key, legacySymbols(legacy));
+        return true;
+    }
+
+    // Writes a legacy watchlist as a sorted set, keeping its order, and drops it from the hash
+    private void store(String cache, String key, String[] symbols) {
+        try (Transaction transaction = unifiedJedis.multi()) {
+            transaction.sadd(indexKey(cache, userId(key)), key);
+            if (symbols.length > 0) {
+                transaction.zadd(symbolsKey(cache, key), scores(symbols, 0), ZAddParams.zAddParams().nx());
+            }
+            transaction.hdel(cache, key);
+            transaction.exec();
+        }
+        log.info("Migrated watchlist cache: {} key: {} with {} symbols", cache, key, symbols.length);
+    }
+
+    private String[] symbols(String cache, String key) {
+        return unifiedJedis.zrange(symbolsKey(cache, key), 0, -1).toArray(new String[0]);
+    }
+
+    private static Map<String, Double> scores(String[] symbols, long first) {
+        Map<String, Double> scores = new LinkedHashMap<>();
+        for (String symbol : symbols) {
+            scores.putIfAbsent(symbol, (double) (first + scores.size()));
+        }
+        return scores;
+    }
+
+    /**
+     * The symbols of a legacy comma-joined watchlist, trimmed and without blanks.
+     */
+    static String[] legacySymbols(String symbols) {
+        return Arrays.stream(symbols.split(","))
+            .map(String::trim)
+            .filter(s -> !s.isEmpty())
+            .toArray(String[]::new);
+    }
+
+    // hash:watchlist and 3:1 -> zset:watchlist:3:1
+    static String symbolsKey(String cache, String key) {
+        return "zset:" + name(cache) + ":" + key;
+    }
+
+    // hash:watchlist and 3 -> set:watchlist:3
+    static String indexKey(String cache, String userId) {
+        return "set:" + name(cache) + ":" + userId;
+    }
+
+    private static String name(String cache) {
+        return cache.startsWith("hash:") ? cache.substring("hash:".length()) : cache;
+    }
+
+    private static String userId(String key) {
+        int colon = key.indexOf(':');
+        return colon < 0 ? key : key.substring(0, colon);
+    }
 }
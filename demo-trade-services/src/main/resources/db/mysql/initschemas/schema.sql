@@ -37,6 +37,16 @@ CREATE TABLE IF NOT EXISTS TRADES (
   INDEX(TradDt, FinInstrmId,TckrSymb)
 ) engine=InnoDB;
 
+-- Last successful load of each S3 object; unchanged objects (same ETag and size) are skipped
+CREATE TABLE IF NOT EXISTS LOAD_MANIFEST (
+    S3Key VARCHAR(255) NOT NULL,
+    ETag VARCHAR(64) NOT NULL,
+    Size BIGINT UNSIGNED NOT NULL,
+    JobExecutionId BIGINT NOT NULL,
+    LoadedAt TIMESTAMP NOT NULL,
+   PRIMARY KEY (S3Key)
+) engine=InnoDB;
+
 --CREATE TABLE IF NOT EXISTS HOLDINGS (
 --   UsrId INT(20) UNSIGNED NOT NULL,
 --   TckrSymb VARCHAR(10) NOT NULL,
@@ -60,6 +70,24 @@ CREATE TABLE IF NOT EXISTS HOLDINGS (
     INDEX idx_usr_symb (UsrId, TckrSymb)
 ) ENGINE=InnoDB;
 
+-- Running position per user and symbol folded from HOLDINGS; SumCost is the cost of the quantity still held
+CREATE TABLE IF NOT EXISTS POSITIONS (
+    UsrId INT(20) UNSIGNED NOT NULL,
+    TckrSymb VARCHAR(10) NOT NULL,
+    Qty INT NOT NULL,
+    SumCost DECIMAL(20,4) NOT NULL,
+    RealizedPnl DECIMAL(20,4) NOT NULL,
+    UpdatedAt TIMESTAMP NOT NULL,
+   PRIMARY KEY (UsrId, TckrSymb)
+) engine=InnoDB;
+
+-- One row per user with positions, locked by each of the user's trades and rebuilds so they apply one at a time
+CREATE TABLE IF NOT EXISTS POSITION_USERS (
+    UsrId INT(20) UNSIGNED NOT NULL,
+    Writes BIGINT NOT NULL,
+   PRIMARY KEY (UsrId)
+) engine=InnoDB;
+
 INSERT INTO HOLDINGS (UsrId, TckrSymb, Pric, Qty, TradDt, Action)
 VALUES (3, 'HDFCBANK', 1980.10, 10, '2025-06-09 00:00:00', 'B')
 ON DUPLICATE KEY UPDATE
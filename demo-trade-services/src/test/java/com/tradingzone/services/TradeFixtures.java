@@ -0,0 +1,54 @@
+package com.tradingzone.services;
+
+import com.google.gson.Gson;
+import com.google.gson.GsonBuilder;
+import com.tradingzone.services.load.util.LocalDateTimeTypeAdapter;
+import com.tradingzone.services.redis.repositories.TradeJedisCache;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.time.LocalDateTime;
+
+/**
+ * Shared sample data for tests and benchmarks, shaped like a bhavcopy EQ row.
+ */
+public final class TradeFixtures {
+
+    private TradeFixtures() {
+    }
+
+    public static Gson gson() {
+        return new GsonBuilder()
+                .registerTypeAdapter(LocalDateTime.class, new LocalDateTimeTypeAdapter())
+                .create();
+    }
+
+    public static TradeJedisCache trade(String symbol, double lastPric) {
+        TradeJedisCache trade = new TradeJedisCache();
+        trade.setTradDt(LocalDateTime.of(2024, 10, 8, 0, 0, 0));
+        trade.setBizDt(LocalDateTime.of(2024, 10, 8, 0, 0, 0));
+        trade.setSgmt("CM");
+        trade.setSrc("NSE");
+        trade.setFinInstrmTp("STK");
+        trade.setFinInstrmId(1333);
+        trade.setISIN("INE040A01034");
+        trade.setTckrSymb(symbol);
+        trade.setSctySrs("EQ");
+        trade.setFinInstrmNm(symbol + " LIMITED");
+        trade.setOpnPric(lastPric - 12.5);
+        trade.setHghPric(lastPric + 8.2);
+        trade.setLwPric(lastPric - 15.35);
+        trade.setClsPric(lastPric);
+        trade.setLastPric(lastPric);
+        trade.setPrvsClsgPric(lastPric - 16.05);
+        trade.setSttlmPric(lastPric);
+        trade.setChngePric(new BigDecimal("16"));
+        trade.setChngePricPct(new BigDecimal("1"));
+        trade.setTtlTradgVol(new BigInteger("12345678"));
+        trade.setTtlTrfVal(2.0587654321E10);
+        trade.setTtlNbOfTxsExctd("234567");
+        trade.setSsnId("F1");
+        trade.setNewBrdLotQty(1);
+        return trade;
+    }
+}
@@ -0,0 +1,77 @@
+package com.tradingzone.services.holdings.service;
+
+import com.tradingzone.services.TradeFixtures;
+import com.tradingzone.services.holdings.data.HoldingValue;
+import com.tradingzone.services.holdings.data.Holdings;
+import com.tradingzone.services.holdings.repositories.PositionEntity;
+import com.tradingzone.services.trades.stream.ConflatingSseSender;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+public class HoldingsStreamServiceTest {
+
+    @Test
+    void deltaKeepsOnlyTheChangedSymbolsAndAllTotals() {
+        Holdings delta = HoldingsStreamService.delta(
+                List.of(position(1, "INFY", 10, "15000"), position(1, "TCS", 2, "7000")),
+                Map.of("INFY", TradeFixtures.trade("INFY", 1600.00), "TCS", TradeFixtures.trade("TCS", 3600.00)),
+                Set.of("TCS"));
+
+        assertEquals(List.of("TCS"), delta.getTransactionlist().stream().map(HoldingValue::getTckrSymb).toList());
+        assertEquals(new BigDecimal("22000.00"), delta.getTotInvestment());
+        assertEquals(new BigDecimal("23200.00"), delta.getTotCurrValue());
+    }
+
+    @Test
+    void aFullUpdateAbsorbsTheChangedSymbols() {
+        HoldingsStreamService.Update pending = HoldingsStreamService.Update.merge(null,
+                new HoldingsStreamService.Update(false, Set.of("INFY")));
+        pending = HoldingsStreamService.Update.merge(pending, new HoldingsStreamService.Update(false, Set.of("TCS")));
+        assertEquals(new HoldingsStreamService.Update(false, Set.of("INFY", "TCS")), pending);
+
+        pending = HoldingsStreamService.Update.merge(pending, HoldingsStreamService.Update.FULL);
+        assertEquals(HoldingsStreamService.Update.FULL,
+                HoldingsStreamService.Update.merge(pending, new HoldingsStreamService.Update(false, Set.of("INFY"))));
+    }
+
+    @Test
+    void usersWithoutStreamsArePrunedFromTheSymbolIndex() {
+        HoldingsStreamService service = new HoldingsStreamService();
+        ReflectionTestUtils.setField(service, "sender", new ConflatingSseSender<>("holdings", 1, 1, 10000, 10000,
+                HoldingsStreamService.Update::merge, new SimpleMeterRegistry().counter("slow-consumers")));
+        HoldingsStreamService.Stream first = service.open(1, new SseEmitter());
+        HoldingsStreamService.Stream second = service.open(2, new SseEmitter());
+        HoldingsStreamService.Stream secondAgain = service.open(2, new SseEmitter());
+        service.index(first.subscriber(), List.of(position(1, "INFY", 1, "1"), position(1, "TCS", 1, "1")));
+        service.index(second.subscriber(), List.of(position(2, "INFY", 1, "1")));
+
+        // User 2 still has a stream open
+        service.close(second);
+        assertEquals(Set.of(), service.prune());
+
+        service.close(secondAgain);
+        assertEquals(Set.of(2), service.prune());
+        assertEquals(Set.of(1), service.holders("INFY"));
+        assertEquals(Set.of(1), service.holders("TCS"));
+
+        service.close(first);
+        assertEquals(Set.of(1), service.prune());
+        assertEquals(Set.of(), service.holders("INFY"));
+    }
+
+    private static PositionEntity position(int userId, String symbol, int qty, String sumCost) {
+        PositionEntity position = new PositionEntity(userId, symbol);
+        position.setQty(qty);
+        position.setSumCost(new BigDecimal(sumCost));
+        return position;
+    }
+}
@@ -0,0 +1,164 @@
+package com.tradingzone.services.holdings.service;
+
+import com.tradingzone.services.TradeFixtures;
+import com.tradingzone.services.holdings.data.HoldingValue;
+import com.tradingzone.services.holdings.data.Holdings;
+import com.tradingzone.services.holdings.repositories.PositionEntity;
+import com.tradingzone.services.redis.repositories.TradeJedisCache;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.math.BigDecimal;
+import java.math.MathContext;
+import java.math.RoundingMode;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Valuing a whole portfolio: the BigDecimal fold HoldingsService used to run per
+ * position against {@link PortfolioValuator}. Runs with the GC profiler, so
+ * gc.alloc.rate.norm shows the bytes allocated per valuation.
+ * Run with: mvn test-compile exec:java -Dexec.classpathScope=test
+ *   -Dexec.mainClass=com.tradingzone.services.holdings.service.PortfolioValuatorBenchmark
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class PortfolioValuatorBenchmark {
+
+    @Param({"1000"})
+    private int positions;
+
+    private List<PositionEntity> portfolio;
+    private Map<String, TradeJedisCache> prices;
+
+    @Setup
+    public void setup() {
+        portfolio = new ArrayList<PositionEntity>(positions);
+        prices = new HashMap<String, TradeJedisCache>();
+        for (int i = 0; i < positions; i++) {
+            String symbol = "SYM" + i;
+            double lastPric = 100 + i * 1.37;
+            PositionEntity position = new PositionEntity(3, symbol);
+            position.setQty(1 + i % 200);
+            position.setSumCost(BigDecimal.valueOf(lastPric * 0.97).multiply(BigDecimal.valueOf(position.getQty())));
+            portfolio.add(position);
+
+            TradeJedisCache trade = TradeFixtures.trade(symbol, lastPric);
+            prices.put(symbol, trade);
+        }
+    }
+
+    @Benchmark
+    public Holdings bigDecimal() {
+        List<HoldingValue> lst = new ArrayList<HoldingValue>();
+        for (PositionEntity position : portfolio) {
+            lst.add(legacyAverageCostSymbol(position, prices.get(position.getTckrSymb())));
+        }
+        return legacyAverageCostTotal(lst);
+    }
+
+    @Benchmark
+    public Holdings fixedPoint() {
+        return PortfolioValuator.value(portfolio, prices);
+    }
+
+    // HoldingsService.averageCostSymbol before the valuator
+    private static HoldingValue legacyAverageCostSymbol(PositionEntity position, TradeJedisCache trade) {
+        HoldingValue holdingValue = new HoldingValue();
+        holdingValue.setId(position.getTckrSymb());
+        holdingValue.setTckrSymb(position.getTckrSymb());
+
+        int qty = position.getQty();
+        BigDecimal sum = position.getSumCost();
+
+        holdingValue.setAvgQty(qty);
+        holdingValue.setRealizedPnl(position.getRealizedPnl().setScale(2, RoundingMode.HALF_UP));
+        if (qty > 0) {
+            holdingValue.setAvgCost(sum.divide(BigDecimal.valueOf(qty), 2, RoundingMode.UP));
+            holdingValue.setTotCost(sum.setScale(2, RoundingMode.UP));
+            holdingValue.setLastPric(trade.getLastPric());
+            holdingValue.setCurrValue((new BigDecimal(qty * holdingValue.getLastPric())).setScale(2, RoundingMode.UP));
+            holdingValue.setPnl(holdingValue.getCurrValue().subtract(holdingValue.getTotCost()));
+            holdingValue.setNetChng(holdingValue.getCurrValue().subtract(holdingValue.getTotCost()));
+
+            MathContext pctmc = new MathContext(1);
+            BigDecimal changePct = BigDecimal.ZERO;
+            if (holdingValue.getCurrValue().compareTo(BigDecimal.ZERO) != 0) {
+                changePct = (holdingValue.getNetChng().divide(holdingValue.getCurrValue(), pctmc)).multiply(new BigDecimal("100"));
+                changePct = changePct.setScale(2, RoundingMode.UP);
+            }
+            holdingValue.setNetChngPct(changePct);
+
+            holdingValue.setPrvsClsgPric(trade.getPrvsClsgPric());
+            holdingValue.setChngePric(trade.getChngePric());
+            holdingValue.setDayChng(trade.getChngePric().setScale(2, RoundingMode.UP));
+            holdingValue.setDayChng((trade.getChngePric().multiply(new BigDecimal(qty))).setScale(2, RoundingMode.UP));
+            holdingValue.setDayChngPct(trade.getChngePricPct());
+        }
+        return holdingValue;
+    }
+
+    // HoldingsService.averageCostTotal before the valuator
+    private static Holdings legacyAverageCostTotal(List<HoldingValue> lst) {
+        Holdings holdings = new Holdings();
+        holdings.setTransactionlist(lst);
+
+        BigDecimal totCost = BigDecimal.ZERO;
+        BigDecimal totCurrVal = BigDecimal.ZERO;
+        BigDecimal totNetChng = BigDecimal.ZERO;
+        BigDecimal totDayChng = BigDecimal.ZERO;
+        for (HoldingValue holdingValue : lst) {
+            totCost = totCost.add(holdingValue.getTotCost());
+            totCurrVal = totCurrVal.add(holdingValue.getCurrValue());
+            totNetChng = totNetChng.add(holdingValue.getNetChng());
+            totDayChng = totDayChng.add(holdingValue.getDayChng());
+        }
+        holdings.setTotInvestment(totCost);
+        holdings.setTotCurrValue(totCurrVal);
+        holdings.setTotPnl(totNetChng);
+        holdings.setTotNetChng(totNetChng);
+        holdings.setTotDayChng(totDayChng);
+
+        MathContext pctmc = new MathContext(2);
+        BigDecimal netChngPct = BigDecimal.ZERO;
+        BigDecimal dayChngPct = BigDecimal.ZERO;
+        if (holdings.getTotInvestment().compareTo(BigDecimal.ZERO) != 0) {
+            netChngPct = (holdings.getTotNetChng().divide(holdings.getTotInvestment(), pctmc)).multiply(new BigDecimal("100"));
+            netChngPct = netChngPct.setScale(2, RoundingMode.UP);
+            dayChngPct = (holdings.getTotDayChng().divide(holdings.getTotInvestment(), pctmc)).multiply(new BigDecimal("100"));
+            dayChngPct = dayChngPct.setScale(2, RoundingMode.UP);
+        }
+        holdings.setTotNetChngPct(netChngPct);
+        holdings.setTotDayChngPct(dayChngPct);
+
+        BigDecimal totPnlPct = BigDecimal.ZERO;
+        if (holdings.getTotInvestment().compareTo(BigDecimal.ZERO) != 0) {
+            totPnlPct = (holdings.getTotPnl().divide(holdings.getTotInvestment(), pctmc)).multiply(new BigDecimal("100"));
+            totPnlPct = totPnlPct.setScale(2, RoundingMode.UP);
+        }
+        holdings.setTotPnlPct(totPnlPct);
+        return holdings;
+    }
+
+    public static void main(String[] args) throws Exception {
+        new Runner(new OptionsBuilder().include(PortfolioValuatorBenchmark.class.getSimpleName()).addProfiler("gc").build()).run();
+    }
+}
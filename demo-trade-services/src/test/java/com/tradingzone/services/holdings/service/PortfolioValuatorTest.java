@@ -0,0 +1,60 @@
+package com.tradingzone.services.holdings.service;
+
+import com.tradingzone.services.TradeFixtures;
+import com.tradingzone.services.holdings.data.HoldingValue;
+import com.tradingzone.services.holdings.data.Holdings;
+import com.tradingzone.services.holdings.repositories.PositionEntity;
+import com.tradingzone.services.redis.repositories.TradeJedisCache;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+public class PortfolioValuatorTest {
+
+    @Test
+    void valuesPositionsAndTotalsToThePaisa() {
+        Holdings holdings = PortfolioValuator.value(
+                List.of(position("HDFCBANK", 10, "16523.00"), position("TCS", 3, "10000.0001"), position("INFY", 5, "7500")),
+                Map.of("HDFCBANK", trade("HDFCBANK", 1668.30, 1652.25), "TCS", trade("TCS", 3400.00, 3350.00)));
+
+        // INFY has no price and is left out
+        assertEquals(2, holdings.getTransactionlist().size());
+
+        HoldingValue hdfc = holdings.getTransactionlist().get(0);
+        assertEquals(new BigDecimal("1652.30"), hdfc.getAvgCost());
+        assertEquals(new BigDecimal("16683.00"), hdfc.getCurrValue());
+        assertEquals(new BigDecimal("160.00"), hdfc.getPnl());
+        assertEquals(new BigDecimal("0.96"), hdfc.getNetChngPct());
+        assertEquals(new BigDecimal("160.50"), hdfc.getDayChng());
+
+        // Cost and average cost round up to the paisa
+        HoldingValue tcs = holdings.getTransactionlist().get(1);
+        assertEquals(new BigDecimal("10000.01"), tcs.getTotCost());
+        assertEquals(new BigDecimal("3333.34"), tcs.getAvgCost());
+        assertEquals(new BigDecimal("199.99"), tcs.getNetChng());
+
+        assertEquals(new BigDecimal("26523.01"), holdings.getTotInvestment());
+        assertEquals(new BigDecimal("26883.00"), holdings.getTotCurrValue());
+        assertEquals(new BigDecimal("359.99"), holdings.getTotPnl());
+        assertEquals(new BigDecimal("1.36"), holdings.getTotPnlPct());
+        assertEquals(new BigDecimal("310.50"), holdings.getTotDayChng());
+        assertEquals(new BigDecimal("1.17"), holdings.getTotDayChngPct());
+    }
+
+    private static PositionEntity position(String symbol, int qty, String sumCost) {
+        PositionEntity position = new PositionEntity(3, symbol);
+        position.setQty(qty);
+        position.setSumCost(new BigDecimal(sumCost));
+        return position;
+    }
+
+    private static TradeJedisCache trade(String symbol, double lastPric, double prvsClsgPric) {
+        TradeJedisCache trade = TradeFixtures.trade(symbol, lastPric);
+        trade.setPrvsClsgPric(prvsClsgPric);
+        return trade;
+    }
+}
@@ -0,0 +1,56 @@
+package com.tradingzone.services.holdings.service;
+
+import com.tradingzone.services.holdings.repositories.HoldingEntity;
+import com.tradingzone.services.holdings.repositories.PositionEntity;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+public class PositionServiceTest {
+
+    @Test
+    void sellsRelieveAverageCostAndBookRealizedPnl() {
+        PositionEntity position = new PositionEntity(3, "HDFCBANK");
+
+        PositionService.apply(position, trade("B", 10, 100.00));
+        PositionService.apply(position, trade("B", 10, 110.00));
+        assertEquals(20, position.getQty());
+        assertEquals(0, new BigDecimal("2100").compareTo(position.getSumCost()));
+
+        // Average cost 105: selling 5 at 120 books 75
+        PositionService.apply(position, trade("S", 5, 120.00));
+        assertEquals(15, position.getQty());
+        assertEquals(0, new BigDecimal("1575").compareTo(position.getSumCost()));
+        assertEquals(0, new BigDecimal("75").compareTo(position.getRealizedPnl()));
+
+        PositionService.apply(position, trade("SELL", 15, 100.00));
+        assertEquals(0, position.getQty());
+        assertEquals(0, BigDecimal.ZERO.compareTo(position.getSumCost()));
+        assertEquals(0, BigDecimal.ZERO.compareTo(position.getRealizedPnl()));
+    }
+
+    @Test
+    void quantityOverTheHeldOneCarriesNoCost() {
+        PositionEntity position = new PositionEntity(3, "TCS");
+
+        PositionService.apply(position, trade("B", 2, 50.00));
+        PositionService.apply(position, trade("S", 5, 60.00));
+        assertEquals(-3, position.getQty());
+        assertEquals(0, new BigDecimal("20").compareTo(position.getRealizedPnl()));
+
+        // Back above 0 only the one share past the short counts as cost
+        PositionService.apply(position, trade("B", 4, 70.00));
+        assertEquals(1, position.getQty());
+        assertEquals(0, new BigDecimal("70").compareTo(position.getSumCost()));
+    }
+
+    private static HoldingEntity trade(String action, int qty, double price) {
+        HoldingEntity trade = new HoldingEntity();
+        trade.setAction(action);
+        trade.setQty(qty);
+        trade.setPric(price);
+        return trade;
+    }
+}
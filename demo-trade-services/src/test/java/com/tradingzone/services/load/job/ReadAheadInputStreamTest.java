@@ -0,0 +1,75 @@
+package com.tradingzone.services.load.job;
+
+import org.junit.jupiter.api.Test;
+import org.reactivestreams.Subscription;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class ReadAheadInputStreamTest {
+
+    private static final int CHUNK = 1024;
+
+    @Test
+    void readsAheadOnlyUpToTheLimit() throws Exception {
+        byte[] body = new byte[100 * CHUNK];
+        Arrays.fill(body, (byte) 'x');
+        body[body.length - 1] = 'y';
+
+        ReadAheadInputStream stream = new ReadAheadInputStream(4 * CHUNK);
+        ChunkedBody publisher = new ChunkedBody(stream, body);
+        stream.onSubscribe(publisher);
+
+        // Nothing read yet: the body is throttled once the limit is buffered
+        assertEquals(4, publisher.delivered);
+        assertTrue(stream.buffered() <= 4 * CHUNK);
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        byte[] buffer = new byte[300];
+        int n;
+        while ((n = stream.read(buffer)) != -1) {
+            out.write(buffer, 0, n);
+            // A chunk is only requested below the limit, so at most one chunk overshoots it
+            assertTrue(stream.buffered() < 5 * CHUNK);
+        }
+        assertArrayEquals(body, out.toByteArray());
+    }
+
+    /**
+     * Publishes the body in fixed chunks, synchronously from request() like some SDK
+     * publishers do.
+     */
+    private static final class ChunkedBody implements Subscription {
+
+        private final ReadAheadInputStream subscriber;
+        private final byte[] body;
+        private int delivered;
+
+        ChunkedBody(ReadAheadInputStream subscriber, byte[] body) {
+            this.subscriber = subscriber;
+            this.body = body;
+        }
+
+        @Override
+        public void request(long n) {
+            for (long i = 0; i < n; i++) {
+                int from = delivered * CHUNK;
+                if (from >= body.length) {
+                    subscriber.onComplete();
+                    return;
+                }
+                delivered++;
+                subscriber.onNext(ByteBuffer.wrap(body, from, Math.min(CHUNK, body.length - from)).slice());
+            }
+        }
+
+        @Override
+        public void cancel() {
+        }
+    }
+}
@@ -0,0 +1,83 @@
+package com.tradingzone.services.load.job;
+
+import com.tradingzone.services.load.processor.Trade;
+import com.tradingzone.services.load.reader.TradeCsv;
+import com.tradingzone.services.load.reader.ZipCsvFlatFileItemReader;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.batch.item.ExecutionContext;
+import org.springframework.test.util.ReflectionTestUtils;
+import software.amazon.awssdk.core.async.AsyncRequestBody;
+import software.amazon.awssdk.services.s3.S3AsyncClient;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Round trip through a LocalStack S3, e.g. the one prepared by localstack-script.sh.
+ * Run with: mvn test -Dtest=S3ObjectPrefetcherLocalStackTest -Dlocalstack.endpoint=http://localhost:4566
+ */
+@EnabledIfSystemProperty(named = "localstack.endpoint", matches = ".+")
+public class S3ObjectPrefetcherLocalStackTest {
+
+    private static final String BUCKET = "trades-prefetch-test";
+
+    @Test
+    void streamsEveryObjectInOrder() throws Exception {
+        String endpoint = System.getProperty("localstack.endpoint");
+        // LocalStack accepts any credentials
+        System.setProperty("aws.accessKeyId", System.getProperty("aws.accessKeyId", "test"));
+        System.setProperty("aws.secretAccessKey", System.getProperty("aws.secretAccessKey", "test"));
+
+        List<String> keys = List.of("BhavCopy1.csv.zip", "BhavCopy2.csv.zip", "BhavCopy3.csv.zip");
+        try (S3AsyncClient s3 = S3Actions.buildAsyncClient(endpoint)) {
+            s3.createBucket(b -> b.bucket(BUCKET)).exceptionally(e -> null).join();
+            for (String key : keys) {
+                s3.putObject(b -> b.bucket(BUCKET).key(key), AsyncRequestBody.fromBytes(zip(key))).join();
+            }
+        }
+
+        S3ObjectPrefetcher prefetcher = new S3ObjectPrefetcher();
+        ReflectionTestUtils.setField(prefetcher, "endpoint", endpoint);
+        ReflectionTestUtils.setField(prefetcher, "prefetch", 2);
+        ReflectionTestUtils.setField(prefetcher, "readAheadBytes", 64 * 1024L);
+
+        List<String> symbols = new ArrayList<>();
+        try {
+            prefetcher.forEach(BUCKET, keys, key -> {
+                ZipCsvFlatFileItemReader<Trade> reader = new ZipCsvFlatFileItemReader<Trade>(prefetcher.resource(BUCKET, key));
+                try {
+                    reader.open(new ExecutionContext());
+                    Trade trade;
+                    while ((trade = reader.read()) != null) {
+                        symbols.add(trade.getTckrSymb());
+                    }
+                    reader.close();
+                } catch (Exception e) {
+                    throw new RuntimeException(e);
+                }
+            });
+        } finally {
+            prefetcher.close();
+        }
+
+        assertEquals(List.of("BhavCopy1.csv.zip", "BhavCopy2.csv.zip", "BhavCopy3.csv.zip"), symbols);
+    }
+
+    private static byte[] zip(String symbol) throws Exception {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (ZipOutputStream out = new ZipOutputStream(bytes)) {
+            out.putNextEntry(new ZipEntry("BhavCopy.csv"));
+            String csv = String.join(",", TradeCsv.NAMES) + "\n2024-10-08,,,,,,," + symbol + "\n";
+            out.write(csv.getBytes(StandardCharsets.UTF_8));
+            out.closeEntry();
+        }
+        return bytes.toByteArray();
+    }
+}
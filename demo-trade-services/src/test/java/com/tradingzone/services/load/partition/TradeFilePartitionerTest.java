@@ -0,0 +1,51 @@
+package com.tradingzone.services.load.partition;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.batch.item.ExecutionContext;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Map;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+public class TradeFilePartitionerTest {
+
+    @TempDir
+    Path dir;
+
+    @Test
+    void splitsDataLinesOfAllEntriesIntoContiguousRanges() throws Exception {
+        Path zip = dir.resolve("BhavCopy.csv.zip");
+        try (ZipOutputStream out = new ZipOutputStream(Files.newOutputStream(zip))) {
+            writeEntry(out, "BhavCopy1.csv", 6);
+            writeEntry(out, "BhavCopy2.csv", 4);
+        }
+
+        Map<String, ExecutionContext> partitions = new TradeFilePartitioner(zip.toString()).partition(3);
+
+        assertEquals(3, partitions.size());
+        int next = 0;
+        for (int i = 0; i < partitions.size(); i++) {
+            ExecutionContext context = partitions.get("partition" + i);
+            assertEquals(zip.toString(), context.getString(TradeFilePartitioner.FILE_PATH));
+            assertEquals(next, context.getInt(TradeFilePartitioner.START_LINE));
+            next += context.getInt(TradeFilePartitioner.LINE_COUNT);
+        }
+        assertEquals(10, next);
+    }
+
+    private static void writeEntry(ZipOutputStream out, String name, int rows) throws Exception {
+        out.putNextEntry(new ZipEntry(name));
+        StringBuilder csv = new StringBuilder("TradDt,BizDt\n");
+        for (int i = 0; i < rows; i++) {
+            csv.append("2024-10-08,2024-10-08\n");
+        }
+        out.write(csv.toString().getBytes(StandardCharsets.UTF_8));
+        out.closeEntry();
+    }
+}
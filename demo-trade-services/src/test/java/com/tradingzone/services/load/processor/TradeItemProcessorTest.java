@@ -0,0 +1,37 @@
+package com.tradingzone.services.load.processor;
+
+import com.tradingzone.services.load.reader.TradeLineMapper;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigInteger;
+import java.time.LocalDateTime;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+public class TradeItemProcessorTest {
+
+    private static final String EQ_ROW = "2024-10-08,2024-10-08,CM,NSE,STK,1594,INE009A01021,INFY,EQ,,,,,INFOSYS LIMITED,1900.00,1925.55,1890.10,1921.35,1920.00,1890.40,,1921.35,,,6543210,12567891234.55,154321,F1,1,,,,,";
+
+    private final TradeItemProcessor processor = new TradeItemProcessor();
+
+    @Test
+    void parsesEveryValueOnce() throws Exception {
+        TradeRecord trade = processor.process(new TradeLineMapper().mapLine(EQ_ROW, 1));
+
+        assertEquals(LocalDateTime.of(2024, 10, 8, 0, 0), trade.getTradDt());
+        assertNull(trade.getXpryDt());
+        assertEquals(1594, trade.getFinInstrmId());
+        assertEquals(1920.00, trade.getLastPric());
+        assertNull(trade.getUndrlygPric());
+        assertEquals(BigInteger.valueOf(6543210), trade.getTtlTradgVol());
+        assertEquals(1, trade.getNewBrdLotQty());
+        assertEquals(29.6, trade.getChngePric());
+        assertEquals(1.54, trade.getChngePricPct());
+    }
+
+    @Test
+    void filtersOtherSeries() throws Exception {
+        assertNull(processor.process(new TradeLineMapper().mapLine(EQ_ROW.replace(",EQ,", ",BE,"), 1)));
+    }
+}
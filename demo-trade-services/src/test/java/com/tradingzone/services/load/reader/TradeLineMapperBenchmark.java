@@ -0,0 +1,85 @@
+package com.tradingzone.services.load.reader;
+
+import com.tradingzone.services.load.processor.Trade;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.batch.item.file.LineMapper;
+import org.springframework.batch.item.file.mapping.BeanWrapperFieldSetMapper;
+import org.springframework.batch.item.file.mapping.DefaultLineMapper;
+import org.springframework.batch.item.file.transform.DelimitedLineTokenizer;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Lines/sec of the hand-written mapper against the tokenizer and BeanWrapper mapper it
+ * replaced.
+ * Run with: mvn test-compile exec:java -Dexec.classpathScope=test
+ *   -Dexec.mainClass=com.tradingzone.services.load.reader.TradeLineMapperBenchmark
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class TradeLineMapperBenchmark {
+
+    private static final int LINES = 1000;
+
+    @Param({"beanwrapper", "handwritten"})
+    private String mapper;
+
+    private LineMapper<Trade> lineMapper;
+    private String[] lines;
+
+    @Setup
+    public void setup() {
+        lineMapper = "beanwrapper".equals(mapper) ? beanWrapperMapper() : new TradeLineMapper();
+        lines = new String[LINES];
+        for (int i = 0; i < LINES; i++) {
+            lines[i] = TradeLineMapperTest.EQ_ROW.replace("INFY", "SYM" + i).replace("1920.00", (1900 + i % 50) + ".25");
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(LINES)
+    public void mapLine(Blackhole blackhole) throws Exception {
+        for (int i = 0; i < LINES; i++) {
+            blackhole.consume(lineMapper.mapLine(lines[i], i));
+        }
+    }
+
+    /**
+     * The mapper the readers used before {@link TradeLineMapper}.
+     */
+    static LineMapper<Trade> beanWrapperMapper() {
+        DelimitedLineTokenizer tokenizer = new DelimitedLineTokenizer(DelimitedLineTokenizer.DELIMITER_COMMA);
+        tokenizer.setNames(TradeCsv.NAMES);
+        tokenizer.setStrict(false);
+
+        BeanWrapperFieldSetMapper<Trade> fieldSetMapper = new BeanWrapperFieldSetMapper<>();
+        fieldSetMapper.setTargetType(Trade.class);
+
+        DefaultLineMapper<Trade> lineMapper = new DefaultLineMapper<>();
+        lineMapper.setLineTokenizer(tokenizer);
+        lineMapper.setFieldSetMapper(fieldSetMapper);
+        return lineMapper;
+    }
+
+    public static void main(String[] args) throws Exception {
+        new Runner(new OptionsBuilder().include(TradeLineMapperBenchmark.class.getSimpleName()).build()).run();
+    }
+}
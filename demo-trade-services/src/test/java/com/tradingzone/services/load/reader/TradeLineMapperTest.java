@@ -0,0 +1,39 @@
+package com.tradingzone.services.load.reader;
+
+import com.tradingzone.services.load.processor.Trade;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+public class TradeLineMapperTest {
+
+    static final String EQ_ROW = "2024-10-08,2024-10-08,CM,NSE,STK,1594,INE009A01021,INFY,EQ,,,,,INFOSYS LIMITED,1900.00,1925.55,1890.10,1921.35,1920.00,1898.40,,1921.35,,,6543210,12567891234.55,154321,F1,1,,,,,";
+
+    private final TradeLineMapper mapper = new TradeLineMapper();
+
+    @Test
+    void mapsTheSameTradeAsTheBeanWrapperMapper() throws Exception {
+        String[] lines = {
+                EQ_ROW,
+                " 2024-10-08 , 2024-10-08 ,CM,NSE,STK,1594,INE009A01021, INFY ,EQ",
+                "2024-10-08,2024-10-08,CM,NSE,STK,1594,INE009A01021,INFY,EQ,,,,,\"INFOSYS, \"\"LTD\"\"\",1900.00",
+                "2024-10-08,,,,,,,TCS",
+                ""
+        };
+        for (String line : lines) {
+            assertEquals(TradeLineMapperBenchmark.beanWrapperMapper().mapLine(line, 1), mapper.mapLine(line, 1), line);
+        }
+    }
+
+    @Test
+    void readsEveryColumn() {
+        Trade trade = mapper.mapLine(EQ_ROW, 1);
+
+        assertEquals("INFY", trade.getTckrSymb());
+        assertEquals("INFOSYS LIMITED", trade.getFinInstrmNm());
+        assertEquals("1920.00", trade.getLastPric());
+        assertEquals("6543210", trade.getTtlTradgVol());
+        assertEquals("1", trade.getNewBrdLotQty());
+        assertEquals("", trade.getRsvd4());
+    }
+}
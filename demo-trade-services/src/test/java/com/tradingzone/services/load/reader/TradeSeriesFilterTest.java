@@ -0,0 +1,72 @@
+package com.tradingzone.services.load.reader;
+
+import com.tradingzone.services.load.processor.Trade;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.batch.item.ExecutionContext;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class TradeSeriesFilterTest {
+
+    @TempDir
+    Path dir;
+
+    @Test
+    void matchesOnlyTheWholeSeriesColumn() {
+        TradeSeriesFilter filter = new TradeSeriesFilter(new SimpleMeterRegistry());
+
+        assertTrue(filter.test(row("INFY", "EQ")));
+        assertTrue(filter.test("2024-10-08,,,,,,,INFY,EQ"));
+        assertFalse(filter.test(row("INFY", "EQX")));
+        assertFalse(filter.test(row("EQ", "BE")));
+        assertFalse(filter.test("2024-10-08,,,,,,,INFY"));
+    }
+
+    @Test
+    void readerDropsOtherSeriesAndCountsThemOnce() throws Exception {
+        Path zip = dir.resolve("BhavCopy.csv.zip");
+        try (ZipOutputStream out = new ZipOutputStream(Files.newOutputStream(zip))) {
+            out.putNextEntry(new ZipEntry("BhavCopy.csv"));
+            String csv = String.join(",", TradeCsv.NAMES) + "\n"
+                    + row("INFY", "BE") + "\n" + row("INFY", "EQ") + "\n"
+                    + row("TCS", "EQ") + "\n" + row("GOLDBEES", "GB") + "\n"
+                    + row("HDFCBANK", "EQ") + "\n";
+            out.write(csv.getBytes(StandardCharsets.UTF_8));
+            out.closeEntry();
+        }
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+
+        // Like a second partition: starts after the first EQ row
+        ZipCsvFlatFileItemReader<Trade> reader = new ZipCsvFlatFileItemReader<Trade>(zip.toString());
+        reader.setSeriesFilter(new TradeSeriesFilter(registry));
+        reader.setLinesToSkip(1);
+        reader.open(new ExecutionContext());
+        List<String> symbols = new ArrayList<>();
+        Trade trade;
+        while ((trade = reader.read()) != null) {
+            symbols.add(trade.getTckrSymb());
+        }
+        reader.close();
+
+        assertEquals(List.of("TCS", "HDFCBANK"), symbols);
+        // The BE row was passed over while skipping to the start line and is not counted
+        assertEquals(0, registry.find("trades.load.filtered").tag("series", "BE").counters().size());
+        assertEquals(1.0, registry.get("trades.load.filtered").tag("series", "GB").counter().count());
+    }
+
+    private static String row(String symbol, String series) {
+        return "2024-10-08,2024-10-08,CM,NSE,STK,1594,INE009A01021," + symbol + "," + series + ",,,,,INFOSYS LIMITED,1900.0";
+    }
+}
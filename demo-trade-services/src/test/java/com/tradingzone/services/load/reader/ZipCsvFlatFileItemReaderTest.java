@@ -0,0 +1,59 @@
+package com.tradingzone.services.load.reader;
+
+import com.tradingzone.services.load.processor.Trade;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.batch.item.ExecutionContext;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+public class ZipCsvFlatFileItemReaderTest {
+
+    private static final String HEADER = String.join(",", TradeCsv.NAMES);
+
+    @TempDir
+    Path dir;
+
+    @Test
+    void readsEveryEntryAndRestartsFromTheSavedItemCount() throws Exception {
+        Path zip = dir.resolve("BhavCopy.csv.zip");
+        try (ZipOutputStream out = new ZipOutputStream(Files.newOutputStream(zip))) {
+            // The first entry has no trailing newline, its last row must not join the next header
+            writeEntry(out, "BhavCopy1.csv", HEADER + "\n2024-10-08,,,,,,,INFY\n2024-10-08,,,,,,,TCS");
+            writeEntry(out, "BhavCopy2.csv", HEADER + "\n2024-10-08,,,,,,,HDFCBANK\n");
+        }
+
+        ZipCsvFlatFileItemReader<Trade> reader = new ZipCsvFlatFileItemReader<Trade>(zip.toString());
+        ExecutionContext executionContext = new ExecutionContext();
+        reader.open(executionContext);
+        assertEquals("INFY", reader.read().getTckrSymb());
+        reader.update(executionContext);
+        reader.close();
+
+        ZipCsvFlatFileItemReader<Trade> restarted = new ZipCsvFlatFileItemReader<Trade>(zip.toString());
+        restarted.open(executionContext);
+        List<String> symbols = new ArrayList<>();
+        Trade trade;
+        while ((trade = restarted.read()) != null) {
+            symbols.add(trade.getTckrSymb());
+        }
+        restarted.close();
+
+        assertEquals(List.of("TCS", "HDFCBANK"), symbols);
+        assertEquals(0, Files.list(dir).filter(p -> !p.equals(zip)).count());
+    }
+
+    private static void writeEntry(ZipOutputStream out, String name, String content) throws Exception {
+        out.putNextEntry(new ZipEntry(name));
+        out.write(content.getBytes(StandardCharsets.UTF_8));
+        out.closeEntry();
+    }
+}
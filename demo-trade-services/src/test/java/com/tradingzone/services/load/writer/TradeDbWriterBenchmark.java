@@ -0,0 +1,129 @@
+package com.tradingzone.services.load.writer;
+
+import com.tradingzone.services.DemoTradeServicesApplication;
+import com.tradingzone.services.load.processor.Trade;
+import com.tradingzone.services.load.processor.TradeItemProcessor;
+import com.tradingzone.services.load.processor.TradeRecord;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.batch.item.Chunk;
+import org.springframework.batch.item.ItemWriter;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Rows per second written to TRADES by the JPA and JDBC batch writers, one chunk per
+ * transaction as in the load step. Needs the MySQL and Redis the application normally
+ * runs against; rows are written under a 1999-01-01 trade date and removed afterwards.
+ * Run with: mvn test-compile exec:java -Dexec.classpathScope=test
+ *   -Dexec.mainClass=com.tradingzone.services.load.writer.TradeDbWriterBenchmark
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 2, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+public class TradeDbWriterBenchmark {
+
+    private static final int CHUNK = 250;
+    private static final String BENCH_DATE = "1999-01-01";
+
+    @Param({"jpa", "jdbc"})
+    private String writer;
+
+    private ConfigurableApplicationContext context;
+    private ItemWriter<TradeRecord> itemWriter;
+    private TransactionTemplate transactionTemplate;
+    private Chunk<TradeRecord> chunk;
+
+    @Setup
+    public void setup() {
+        context = new SpringApplicationBuilder(DemoTradeServicesApplication.class)
+                .web(WebApplicationType.NONE)
+                .properties("dummy.service.auto-start.enabled=false")
+                .run();
+        itemWriter = "jdbc".equals(writer) ? context.getBean(TradeJdbcBatchWriter.class) : context.getBean(TradeJpaWriter.class);
+        transactionTemplate = new TransactionTemplate(context.getBean(PlatformTransactionManager.class));
+
+        List<TradeRecord> trades = new ArrayList<TradeRecord>(CHUNK);
+        for (int i = 0; i < CHUNK; i++) {
+            trades.add(TradeItemProcessor.convert(trade(900000 + i)));
+        }
+        chunk = new Chunk<TradeRecord>(trades);
+    }
+
+    @TearDown
+    public void tearDown() {
+        context.getBean(JdbcTemplate.class).update("DELETE FROM TRADES WHERE TradDt = ?", BENCH_DATE + " 00:00:00");
+        context.close();
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(CHUNK)
+    public void writeChunk() {
+        transactionTemplate.executeWithoutResult(status -> {
+            try {
+                itemWriter.write(chunk);
+            } catch (Exception e) {
+                throw new RuntimeException(e);
+            }
+        });
+    }
+
+    private static Trade trade(int finInstrmId) {
+        Trade trade = new Trade();
+        trade.setTradDt(BENCH_DATE);
+        trade.setBizDt(BENCH_DATE);
+        trade.setSgmt("CM");
+        trade.setSrc("NSE");
+        trade.setFinInstrmTp("STK");
+        trade.setFinInstrmId(String.valueOf(finInstrmId));
+        trade.setISIN("INE040A01034");
+        trade.setTckrSymb("BENCH" + finInstrmId % 10000);
+        trade.setSctySrs("EQ");
+        trade.setXpryDt("");
+        trade.setFininstrmActlXpryDt("");
+        trade.setStrkPric("");
+        trade.setFinInstrmNm("BENCH LIMITED");
+        trade.setOpnPric("1655.80");
+        trade.setHghPric("1676.50");
+        trade.setLwPric("1652.95");
+        trade.setClsPric("1668.30");
+        trade.setLastPric("1668.30");
+        trade.setPrvsClsgPric("1652.25");
+        trade.setUndrlygPric("");
+        trade.setSttlmPric("1668.30");
+        trade.setTtlTradgVol("12345678");
+        trade.setTtlTrfVal("20587654321.00");
+        trade.setTtlNbOfTxsExctd("234567");
+        trade.setSsnId("F1");
+        trade.setNewBrdLotQty("1");
+        return trade;
+    }
+
+    public static void main(String[] args) throws Exception {
+        new Runner(new OptionsBuilder().include(TradeDbWriterBenchmark.class.getSimpleName()).build()).run();
+    }
+}
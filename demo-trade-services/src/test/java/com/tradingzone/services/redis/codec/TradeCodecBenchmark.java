@@ -0,0 +1,62 @@
+package com.tradingzone.services.redis.codec;
+
+import com.tradingzone.services.TradeFixtures;
+import com.tradingzone.services.redis.repositories.TradeJedisCache;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Encode/decode cost of one sorted set member, JSON against binary.
+ * Run with: mvn test-compile exec:java -Dexec.classpathScope=test
+ *   -Dexec.mainClass=com.tradingzone.services.redis.codec.TradeCodecBenchmark
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class TradeCodecBenchmark {
+
+    @Param({"json", "binary"})
+    private String format;
+
+    private TradeCodec codec;
+    private TradeJedisCache trade;
+    private byte[] member;
+
+    @Setup
+    public void setup() {
+        codec = new TradeCodec(TradeFixtures.gson(), format);
+        trade = TradeFixtures.trade("HDFCBANK", 1668.3);
+        member = codec.encode(trade);
+        System.out.println(format + " member size " + member.length + " bytes");
+    }
+
+    @Benchmark
+    public byte[] encode() {
+        return codec.encode(trade);
+    }
+
+    @Benchmark
+    public TradeJedisCache decode() {
+        return codec.decode(member);
+    }
+
+    public static void main(String[] args) throws Exception {
+        new Runner(new OptionsBuilder().include(TradeCodecBenchmark.class.getSimpleName()).build()).run();
+    }
+}
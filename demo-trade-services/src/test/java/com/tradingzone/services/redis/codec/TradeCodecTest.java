@@ -0,0 +1,91 @@
+package com.tradingzone.services.redis.codec;
+
+import com.tradingzone.services.TradeFixtures;
+import com.tradingzone.services.redis.repositories.InstrumentJedisCache;
+import com.tradingzone.services.redis.repositories.TradeJedisCache;
+import com.tradingzone.services.redis.service.InstrumentMaster;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class TradeCodecTest {
+
+    private final TradeCodec binaryCodec = new TradeCodec(TradeFixtures.gson(), "binary");
+    private final TradeCodec jsonCodec = new TradeCodec(TradeFixtures.gson(), "json");
+
+    @Test
+    void binaryRoundTrip() {
+        TradeJedisCache trade = TradeFixtures.trade("HDFCBANK", 1668.3);
+        trade.setChngePric(new BigDecimal("-12.35"));
+        trade.setTtlTradgVol(new BigInteger("123456789012345678901234567890"));
+
+        TradeJedisCache decoded = binaryCodec.decode(binaryCodec.encode(trade));
+
+        assertEquals(trade, decoded);
+        assertNull(decoded.getRsvd1());
+    }
+
+    @Test
+    void readsBothFormats() {
+        TradeJedisCache trade = TradeFixtures.trade("INFY", 1912.45);
+
+        assertEquals(trade, binaryCodec.decode(jsonCodec.encode(trade)));
+        assertEquals(trade, jsonCodec.decode(binaryCodec.encode(trade)));
+        assertTrue(binaryCodec.migrate(jsonCodec.encode(trade))[0] == BinaryTradeSerializer.MAGIC);
+        assertNull(binaryCodec.migrate(binaryCodec.encode(trade)));
+    }
+
+    @Test
+    void internsDictionaryFields() {
+        TradeJedisCache first = binaryCodec.decode(binaryCodec.encode(TradeFixtures.trade("TCS", 4200.0)));
+        TradeJedisCache second = binaryCodec.decode(binaryCodec.encode(TradeFixtures.trade("TCS", 4201.5)));
+
+        assertSame(first.getTckrSymb(), second.getTckrSymb());
+        assertSame(first.getISIN(), second.getISIN());
+    }
+
+    @Test
+    void binaryIsSmallerThanJson() {
+        TradeJedisCache trade = TradeFixtures.trade("HDFCBANK", 1668.3);
+        int json = jsonCodec.encode(trade).length;
+        int binary = binaryCodec.encode(trade).length;
+
+        System.out.println(" json bytes " + json + " binary bytes " + binary);
+        assertTrue(binary * 2 < json);
+    }
+
+    @Test
+    void splitBarCarriesItsInstrumentVersion() {
+        BinaryTradeSerializer serializer = new BinaryTradeSerializer();
+        TradeJedisCache trade = TradeFixtures.trade("HDFCBANK", 1668.3);
+
+        byte[] member = serializer.encode(trade, TradeField.REFERENCE_FIELDS, 0x1234_5678_9abc_def0L);
+        TradeJedisCache decoded = serializer.decode(member);
+
+        assertEquals(0x1234_5678_9abc_def0L, BinaryTradeSerializer.instrumentVersion(member));
+        assertEquals(0, BinaryTradeSerializer.instrumentVersion(serializer.encode(trade)));
+        assertNull(decoded.getISIN());
+        assertEquals(trade.getTckrSymb(), decoded.getTckrSymb());
+        assertEquals(trade.getLastPric(), decoded.getLastPric());
+    }
+
+    @Test
+    void instrumentVersionFollowsTheValues() {
+        InstrumentJedisCache instrument = new InstrumentJedisCache();
+        instrument.setTckrSymb("HDFCBANK");
+        instrument.setISIN("INE040A01034");
+        instrument.setFinInstrmNm("HDFC BANK LTD");
+        long version = InstrumentMaster.version(instrument);
+
+        assertEquals(version, InstrumentMaster.version(instrument));
+        instrument.setFinInstrmNm("HDFC BANK LIMITED");
+        assertNotEquals(version, InstrumentMaster.version(instrument));
+    }
+}
@@ -0,0 +1,109 @@
+package com.tradingzone.services.redis.service;
+
+import com.tradingzone.services.TradeFixtures;
+import com.tradingzone.services.redis.codec.TradeCodec;
+import com.tradingzone.services.redis.repositories.TradeJedisCache;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import redis.clients.jedis.HostAndPort;
+import redis.clients.jedis.JedisPooled;
+
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Latency of reading a symbol's latest bar with the full score range, as the services
+ * used to, against the LIMIT 0 1 read of {@link TradeSnapshotEngine#latestBar}. Setup
+ * prints the bytes each form transfers. Needs a Redis at redis.host/redis.port
+ * (localhost:6379); a BENCH symbol is written with the given number of daily bars and
+ * removed afterwards.
+ * Run with: mvn test-compile exec:java -Dexec.classpathScope=test
+ *   -Dexec.mainClass=com.tradingzone.services.redis.service.LatestBarReadBenchmark
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class LatestBarReadBenchmark {
+
+    private static final String SYMBOL = "BENCHLATEST";
+
+    @Param({"30", "250", "1000"})
+    private int bars;
+
+    private JedisPooled jedis;
+    private TradeCodec codec;
+    private byte[] key;
+    private double max;
+
+    @Setup
+    public void setup() {
+        jedis = new JedisPooled(new HostAndPort(System.getProperty("redis.host", "localhost"),
+                Integer.getInteger("redis.port", 6379)));
+        codec = new TradeCodec(TradeFixtures.gson(), "binary");
+        key = codec.key(SYMBOL);
+        jedis.del(key);
+
+        Map<byte[], Double> members = new HashMap<byte[], Double>();
+        LocalDateTime day = LocalDateTime.of(2024, 10, 8, 0, 0, 0);
+        for (int i = 0; i < bars; i++) {
+            TradeJedisCache trade = TradeFixtures.trade(SYMBOL, 1600 + i * 0.05);
+            trade.setTradDt(day.minusDays(i));
+            trade.setBizDt(day.minusDays(i));
+            members.put(codec.encode(trade), (double) day.minusDays(i).atZone(ZoneId.systemDefault()).toInstant().toEpochMilli());
+        }
+        jedis.zadd(key, members);
+        max = System.currentTimeMillis();
+
+        System.out.println(bars + " bars: full range " + bytes(jedis.zrevrangeByScore(key, max, 0))
+                + " bytes, bounded " + bytes(jedis.zrevrangeByScore(key, max, 0, 0, 1)) + " bytes per call");
+    }
+
+    @TearDown
+    public void tearDown() {
+        jedis.del(key);
+        jedis.close();
+    }
+
+    @Benchmark
+    public TradeJedisCache fullRange() {
+        List<byte[]> trdList = jedis.zrevrangeByScore(key, max, 0);
+        return codec.decode(trdList.getFirst());
+    }
+
+    @Benchmark
+    public TradeJedisCache bounded() {
+        List<byte[]> trdList = jedis.zrevrangeByScore(key, max, 0, 0, 1);
+        return codec.decode(trdList.getFirst());
+    }
+
+    private static long bytes(List<byte[]> members) {
+        long total = 0;
+        for (byte[] member : members) {
+            total += member.length;
+        }
+        return total;
+    }
+
+    public static void main(String[] args) throws Exception {
+        new Runner(new OptionsBuilder().include(LatestBarReadBenchmark.class.getSimpleName()).build()).run();
+    }
+}
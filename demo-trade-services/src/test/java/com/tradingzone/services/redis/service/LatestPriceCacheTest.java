@@ -0,0 +1,73 @@
+package com.tradingzone.services.redis.service;
+
+import com.tradingzone.services.TradeFixtures;
+import com.tradingzone.services.redis.repositories.TradeJedisCache;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+public class LatestPriceCacheTest {
+
+    private final TradeJedisCache trade = TradeFixtures.trade("TCS", 4200.5);
+
+    @Test
+    void firstLoadOverlappingAnInvalidationIsDiscarded() {
+        LatestPriceCache cache = cache(10);
+
+        long stamp = cache.stamp("TCS");
+        cache.invalidate("TCS");
+        cache.put("TCS", trade, stamp);
+
+        assertNull(cache.get("TCS"));
+
+        cache.put("TCS", trade, cache.stamp("TCS"));
+        assertSame(trade, cache.get("TCS"));
+    }
+
+    @Test
+    void loadOverlappingAnEvictedInvalidationIsDiscarded() {
+        LatestPriceCache cache = cache(1);
+
+        long stamp = cache.stamp("TCS");
+        cache.invalidate("TCS");
+        // Evicts the marker of TCS
+        cache.put("INFY", trade, cache.stamp("INFY"));
+        cache.put("TCS", trade, stamp);
+
+        assertNull(cache.get("TCS"));
+    }
+
+    @Test
+    void invalidationDropsACachedTrade() {
+        LatestPriceCache cache = cache(10);
+
+        cache.put("TCS", trade, cache.stamp("TCS"));
+        assertSame(trade, cache.get("TCS"));
+
+        cache.invalidate("TCS");
+        assertNull(cache.get("TCS"));
+    }
+
+    @Test
+    void onlySymbolsBeingLoadedKeepAMarker() {
+        LatestPriceCache cache = cache(10);
+
+        for (int i = 0; i < 100; i++) {
+            cache.invalidate("SYMBOL" + i);
+        }
+        assertEquals(0, cache.size());
+
+        cache.stamp("TCS");
+        cache.invalidate("TCS");
+        assertEquals(1, cache.size());
+        cache.release("TCS");
+        assertEquals(0, cache.size());
+    }
+
+    private static LatestPriceCache cache(int maxSize) {
+        return new LatestPriceCache(new SimpleMeterRegistry(), new TradeEventBus(), maxSize, 30);
+    }
+}
@@ -0,0 +1,48 @@
+package com.tradingzone.services.redis.service;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import redis.clients.jedis.HostAndPort;
+import redis.clients.jedis.JedisPooled;
+import redis.clients.jedis.PipelineBase;
+
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Latest dates written the way the load writer does, against a real Redis.
+ * Run with: mvn test -Dtest=SymbolIndexRedisTest -Dredis.host=localhost
+ */
+@EnabledIfSystemProperty(named = "redis.host", matches = ".+")
+public class SymbolIndexRedisTest {
+
+    private static final String KEY = "Trades:test";
+
+    @Test
+    void filesLoadedOutOfOrderKeepTheLatestDate() {
+        try (JedisPooled jedis = new JedisPooled(new HostAndPort(System.getProperty("redis.host"),
+                Integer.getInteger("redis.port", 6379)))) {
+            jedis.del(KEY);
+
+            // The 9 October file finishes first, then the 8 October one
+            write(jedis, Map.of("TCS", "\"2024-10-09 00:00:00\"", "INFY", "\"2024-10-09 00:00:00\""));
+            write(jedis, Map.of("TCS", "\"2024-10-08 00:00:00\"", "HDFCBANK", "\"2024-10-08 00:00:00\""));
+            write(jedis, Map.of("INFY", "\"2024-10-10 00:00:00\""));
+
+            Map<String, String> dates = jedis.hgetAll(KEY);
+            assertEquals("\"2024-10-09 00:00:00\"", dates.get("TCS"));
+            assertEquals("\"2024-10-10 00:00:00\"", dates.get("INFY"));
+            assertEquals("\"2024-10-08 00:00:00\"", dates.get("HDFCBANK"));
+
+            jedis.del(KEY);
+        }
+    }
+
+    private static void write(JedisPooled jedis, Map<String, String> latestDates) {
+        try (PipelineBase pipeline = jedis.pipelined()) {
+            SymbolIndex.advanceLatestDates(pipeline, KEY, latestDates);
+            pipeline.sync();
+        }
+    }
+}
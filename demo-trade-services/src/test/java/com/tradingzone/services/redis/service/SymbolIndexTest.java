@@ -0,0 +1,49 @@
+package com.tradingzone.services.redis.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+public class SymbolIndexTest {
+
+    @Test
+    void snapshotUnquotesAndGroupsByLatestDate() {
+        Map<String, String> hash = new LinkedHashMap<>();
+        hash.put("TCS", "\"2024-10-08 00:00:00\"");
+        hash.put("DIGIDRIVE", "\"2024-10-08 00:00:00\"");
+        hash.put("HDFCBANK", "\"2024-10-09 00:00:00\"");
+
+        SymbolIndex.Snapshot snapshot = SymbolIndex.Snapshot.of(hash, 0);
+
+        assertEquals(List.of("DIGIDRIVE", "HDFCBANK", "TCS"), snapshot.symbols());
+        assertEquals("2024-10-09 00:00:00", snapshot.latestDates().get("HDFCBANK"));
+        assertEquals(List.of("DIGIDRIVE", "TCS"), snapshot.symbolsByDate().get("2024-10-08 00:00:00"));
+        assertEquals(List.of("HDFCBANK"), snapshot.symbolsByDate().get("2024-10-09 00:00:00"));
+    }
+
+    @Test
+    void snapshotIsShareable() {
+        SymbolIndex.Snapshot snapshot = SymbolIndex.Snapshot.of(Map.of("TCS", "\"2024-10-08 00:00:00\""), 0);
+
+        assertThrows(UnsupportedOperationException.class, () -> snapshot.symbols().add("INFY"));
+        assertThrows(UnsupportedOperationException.class, () -> snapshot.latestDates().remove("TCS"));
+        assertThrows(UnsupportedOperationException.class,
+                () -> snapshot.symbolsByDate().get("2024-10-08 00:00:00").clear());
+    }
+
+    @Test
+    void keepLatestIgnoresOlderDatesOfAChunk() {
+        Map<String, String> latestDates = new LinkedHashMap<>();
+        SymbolIndex.keepLatest(latestDates, "TCS", "\"2024-10-09 00:00:00\"");
+        SymbolIndex.keepLatest(latestDates, "TCS", "\"2024-10-08 00:00:00\"");
+        SymbolIndex.keepLatest(latestDates, "INFY", "\"2024-10-08 00:00:00\"");
+
+        assertEquals("\"2024-10-09 00:00:00\"", latestDates.get("TCS"));
+        assertEquals("\"2024-10-08 00:00:00\"", latestDates.get("INFY"));
+    }
+}
@@ -0,0 +1,80 @@
+package com.tradingzone.services.trades.analytics;
+
+import com.tradingzone.services.TradeFixtures;
+import com.tradingzone.services.redis.repositories.TradeJedisCache;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.math.BigDecimal;
+import java.math.MathContext;
+import java.math.RoundingMode;
+import java.text.DecimalFormat;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of one price tick: the BigDecimal change calculation the services used to copy
+ * against {@link PriceAnalytics}. Runs with the GC profiler, so gc.alloc.rate.norm
+ * shows the bytes allocated per tick.
+ * Run with: mvn test-compile exec:java -Dexec.classpathScope=test
+ *   -Dexec.mainClass=com.tradingzone.services.trades.analytics.PriceAnalyticsBenchmark
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class PriceAnalyticsBenchmark {
+
+    private TradeJedisCache trade;
+    private double lastPric;
+    private double prvsClsgPric;
+
+    @Setup
+    public void setup() {
+        trade = TradeFixtures.trade("HDFCBANK", 1668.3);
+        lastPric = trade.getLastPric();
+        prvsClsgPric = trade.getPrvsClsgPric();
+    }
+
+    @Benchmark
+    public TradeJedisCache bigDecimal() {
+        DecimalFormat df = new DecimalFormat("#,###.##");
+        MathContext mc = new MathContext(2);
+        BigDecimal lp = new BigDecimal(trade.getLastPric());
+        BigDecimal cp = new BigDecimal(trade.getPrvsClsgPric());
+        BigDecimal chngeDbl = lp.subtract(cp, mc);
+        chngeDbl.setScale(2, RoundingMode.UP);
+        trade.setChngePric(chngeDbl);
+        MathContext pctmc = new MathContext(1);
+        BigDecimal changePct = (chngeDbl.divide(lp, pctmc)).multiply(new BigDecimal("100"), pctmc);
+        changePct.setScale(2, RoundingMode.UP);
+        trade.setChngePricPct(changePct);
+        return trade;
+    }
+
+    @Benchmark
+    public TradeJedisCache applyChange() {
+        PriceAnalytics.applyChange(trade);
+        return trade;
+    }
+
+    @Benchmark
+    public long primitives() {
+        return PriceAnalytics.changeHundredths(lastPric, prvsClsgPric) + PriceAnalytics.changePctHundredths(lastPric, prvsClsgPric);
+    }
+
+    public static void main(String[] args) throws Exception {
+        new Runner(new OptionsBuilder().include(PriceAnalyticsBenchmark.class.getSimpleName()).addProfiler("gc").build()).run();
+    }
+}
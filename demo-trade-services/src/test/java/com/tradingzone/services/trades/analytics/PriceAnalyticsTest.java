@@ -0,0 +1,49 @@
+package com.tradingzone.services.trades.analytics;
+
+import com.tradingzone.services.TradeFixtures;
+import com.tradingzone.services.redis.repositories.TradeJedisCache;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+
+public class PriceAnalyticsTest {
+
+    @Test
+    void changeIsExactToThePaisa() {
+        assertEquals(1605, PriceAnalytics.changeHundredths(1668.30, 1652.25));
+        assertEquals(-1605, PriceAnalytics.changeHundredths(1652.25, 1668.30));
+        // Binary drift (0.1 + 0.2 != 0.3) does not leak into the change
+        assertEquals(0, PriceAnalytics.changeHundredths(0.3, 0.1 + 0.2));
+        assertEquals(96, PriceAnalytics.changePctHundredths(1668.30, 1652.25));
+        assertEquals(-97, PriceAnalytics.changePctHundredths(1652.25, 1668.30));
+        assertEquals(0, PriceAnalytics.changePctHundredths(0, 10));
+        assertEquals(23.55, PriceAnalytics.dayRange(1676.50, 1652.95));
+    }
+
+    @Test
+    void roundsHalfUpToTwoDecimals() {
+        // 5 / 8 = 0.625% exactly
+        assertEquals(63, PriceAnalytics.changePctHundredths(8, 7.95));
+        assertEquals(-63, PriceAnalytics.changePctHundredths(8, 8.05));
+        assertEquals(1668.31, PriceAnalytics.round(1668.305));
+    }
+
+    @Test
+    void tickWidensTheDayRange() {
+        TradeJedisCache trade = TradeFixtures.trade("HDFCBANK", 1668.3);
+        trade.setLastPric(1700.0);
+
+        PriceAnalytics.applyTick(trade);
+
+        assertEquals(1700.0, trade.getHghPric());
+        assertEquals(1652.95, trade.getLwPric());
+        assertEquals(new BigDecimal("47.75"), trade.getChngePric());
+        assertEquals(new BigDecimal("2.81"), trade.getChngePricPct());
+
+        trade.setPrvsClsgPric(null);
+        assertFalse(PriceAnalytics.applyChange(trade));
+    }
+}
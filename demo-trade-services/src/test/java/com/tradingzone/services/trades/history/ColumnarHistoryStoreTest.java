@@ -0,0 +1,84 @@
+package com.tradingzone.services.trades.history;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.nio.file.Path;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class ColumnarHistoryStoreTest {
+
+    private static final long DAY = 86_400_000L;
+
+    @TempDir
+    Path dir;
+
+    private ColumnarHistoryStore store() {
+        ColumnarHistoryStore store = new ColumnarHistoryStore();
+        ReflectionTestUtils.setField(store, "enabled", true);
+        ReflectionTestUtils.setField(store, "dir", dir.toString());
+        return store;
+    }
+
+    @Test
+    void keepsBarsSortedAndReplacesSameDay() {
+        ColumnarHistoryStore store = store();
+        // Backfill out of order, past the initial capacity, with one day written twice
+        for (int day = 999; day >= 0; day--) {
+            store.upsert("HDFCBANK", day * DAY, day, day + 1, day - 1, day + 0.5, day * 10L);
+        }
+        store.upsert("HDFCBANK", 500 * DAY, 500, 600, 400, 555.5, 1);
+
+        HistorySeries series = store.read("HDFCBANK", 498 * DAY, 501 * DAY, columns -> toSeries(columns));
+
+        assertArrayEquals(new long[]{498 * DAY, 499 * DAY, 500 * DAY, 501 * DAY}, series.t());
+        assertArrayEquals(new double[]{498.5, 499.5, 555.5, 501.5}, series.c());
+        assertEquals(1, series.v()[2]);
+    }
+
+    @Test
+    void reopensExistingFiles() {
+        ColumnarHistoryStore store = store();
+        store.upsert("INFY", DAY, 1, 2, 0.5, 1.5, 100);
+        store.upsert("INFY", 2 * DAY, 1.5, 2.5, 1, 2, 200);
+        store.close();
+
+        HistorySeries series = store().read("INFY", 0, Long.MAX_VALUE, columns -> toSeries(columns));
+
+        assertArrayEquals(new long[]{DAY, 2 * DAY}, series.t());
+        assertArrayEquals(new long[]{100, 200}, series.v());
+    }
+
+    @Test
+    void writesDuringARebuildWaitForItAndSurvive() throws Exception {
+        ColumnarHistoryStore store = store();
+        store.upsert("INFY", DAY, 1, 2, 0.5, 1.5, 100);
+
+        Thread tick = new Thread(() -> store.upsert("TCS", 2 * DAY, 1, 2, 0.5, 1.5, 200));
+        store.rebuild(() -> {
+            tick.start();
+            tick.join(200);
+            assertTrue(tick.isAlive());
+            store.upsert("INFY", 3 * DAY, 1, 2, 0.5, 1.5, 300);
+            return null;
+        });
+        tick.join();
+
+        assertArrayEquals(new long[]{3 * DAY}, store.read("INFY", 0, Long.MAX_VALUE, columns -> toSeries(columns)).t());
+        assertArrayEquals(new long[]{2 * DAY}, store.read("TCS", 0, Long.MAX_VALUE, columns -> toSeries(columns)).t());
+    }
+
+    private static HistorySeries toSeries(HistoryColumns columns) {
+        long[] t = new long[columns.size()];
+        double[] c = new double[columns.size()];
+        long[] v = new long[columns.size()];
+        columns.time().get(t);
+        columns.close().get(c);
+        columns.volume().get(v);
+        return new HistorySeries(null, t, null, null, null, c, v);
+    }
+}
@@ -0,0 +1,21 @@
+package com.tradingzone.services.watchlist.service;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+public class WatchListServiceTest {
+
+    @Test
+    void legacySymbolsAreTrimmedWithoutBlanks() {
+        assertArrayEquals(new String[]{"INFY", "INFYX", "TCS"}, WatchListService.legacySymbols(" INFY,INFYX,, TCS ,"));
+        assertArrayEquals(new String[0], WatchListService.legacySymbols(""));
+    }
+
+    @Test
+    void keysAreDerivedFromTheCache() {
+        assertEquals("zset:watchlist:3:1", WatchListService.symbolsKey("hash:watchlist", "3:1"));
+        assertEquals("set:watchlist:3", WatchListService.indexKey("hash:watchlist", "3"));
+    }
+}